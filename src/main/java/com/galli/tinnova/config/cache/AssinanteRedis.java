@@ -0,0 +1,12 @@
+package com.galli.tinnova.config.cache;
+
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.Topic;
+
+/**
+ * Bean que escuta um canal do Redis; registrado automaticamente no container de pub/sub.
+ */
+public interface AssinanteRedis extends MessageListener {
+
+    Topic topico();
+}
@@ -0,0 +1,370 @@
+package com.galli.tinnova.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache em duas camadas: L1 em memória (Caffeine) na frente do L2 compartilhado (Redis).
+ * <p>
+ * Leituras consultam o L1 e só vão ao Redis em caso de falta; o valor trazido do Redis
+ * fica no L1 pelo TTL restante da entrada no Redis, de modo que as duas camadas expiram
+ * juntas. Escritas e remoções vão ao Redis e são propagadas aos demais nós pelo
+ * {@link Notificador}, que descarta a entrada no L1 de cada um.
+ * <p>
+ * Métricas, todas com a tag {@code cache}: leituras por camada ({@link #METRICA}) e no total
+ * ({@code cache.gets}), escritas ({@code cache.puts}), descartes por causa ({@code cache.evictions}),
+ * tempo de carga do valor na falta ({@code cache.load.duration}) e entradas no L1 ({@code cache.size}).
+ * O tamanho dos valores no Redis é medido por {@link RedisCacheWriterMedido}.
+ */
+public class CacheDuasCamadas implements CacheEmLote {
+
+    static final String METRICA = "cache.tier.gets";
+    static final String METRICA_LEITURAS = "cache.gets";
+    static final String METRICA_ESCRITAS = "cache.puts";
+    static final String METRICA_DESCARTES = "cache.evictions";
+    static final String METRICA_CARGA = "cache.load.duration";
+    static final String METRICA_TAMANHO = "cache.size";
+
+    private final RedisCacheRemoto remoto;
+    private final com.github.benmanes.caffeine.cache.Cache<String, EntradaLocal> local;
+    private final Notificador notificador;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter acertosL1;
+    private final Counter faltasL1;
+    private final Counter acertosL2;
+    private final Counter faltasL2;
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter escritas;
+    private final Counter descartesExplicitos;
+    private final Timer cargasSucesso;
+    private final Timer cargasFalha;
+
+    public CacheDuasCamadas(RedisCacheRemoto remoto,
+                            Notificador notificador,
+                            MeterRegistry meterRegistry,
+                            long tamanhoMaximoLocal) {
+        this(remoto, notificador, meterRegistry, tamanhoMaximoLocal, Ticker.systemTicker());
+    }
+
+    CacheDuasCamadas(RedisCacheRemoto remoto,
+                     Notificador notificador,
+                     MeterRegistry meterRegistry,
+                     long tamanhoMaximoLocal,
+                     Ticker ticker) {
+        this.remoto = remoto;
+        this.notificador = notificador;
+        this.meterRegistry = meterRegistry;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoLocal)
+                .expireAfter(new ExpiracaoAlinhada())
+                .ticker(ticker)
+                // chamado na thread que provocou o descarte, só para tamanho e expiração
+                .evictionListener((String chave, EntradaLocal entrada, RemovalCause causa) -> descartado(causa))
+                .build();
+
+        String nome = remoto.getName();
+        this.acertosL1 = contador(meterRegistry, nome, "l1", "hit");
+        this.faltasL1 = contador(meterRegistry, nome, "l1", "miss");
+        this.acertosL2 = contador(meterRegistry, nome, "l2", "hit");
+        this.faltasL2 = contador(meterRegistry, nome, "l2", "miss");
+
+        this.acertos = leituras(meterRegistry, nome, "hit");
+        this.faltas = leituras(meterRegistry, nome, "miss");
+        this.escritas = Counter.builder(METRICA_ESCRITAS)
+                .description("Escritas no cache")
+                .tag("cache", nome)
+                .register(meterRegistry);
+        this.descartesExplicitos = descartes(meterRegistry, nome, "explicit");
+        this.cargasSucesso = cargas(meterRegistry, nome, "success");
+        this.cargasFalha = cargas(meterRegistry, nome, "failure");
+        Gauge.builder(METRICA_TAMANHO, local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .description("Entradas no cache local (L1)")
+                .tag("cache", nome)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return remoto.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String chave = remoto.chave(key);
+
+        EntradaLocal entrada = local.getIfPresent(chave);
+        if (entrada != null) {
+            acertosL1.increment();
+            acertos.increment();
+            return new SimpleValueWrapper(entrada.valor());
+        }
+        faltasL1.increment();
+
+        // com cachear-nulos o Redis devolve um wrapper com valor nulo: é acerto, não falta
+        ValueWrapper wrapper = remoto.get(key);
+        if (wrapper == null) {
+            faltasL2.increment();
+            faltas.increment();
+            return null;
+        }
+        acertosL2.increment();
+        acertos.increment();
+
+        Duration restante = remoto.tempoRestante(chave);
+        guardarLocal(chave, wrapper.get(), restante != null ? restante : remoto.ttl(key, wrapper.get()));
+        return wrapper;
+    }
+
+    @Override
+    public Map<Object, Object> getVarias(Collection<?> keys) {
+        Map<Object, Object> encontrados = new HashMap<>(keys.size());
+        Map<String, Object> faltantes = new LinkedHashMap<>();
+
+        for (Object key : keys) {
+            String chave = remoto.chave(key);
+            EntradaLocal entrada = local.getIfPresent(chave);
+            if (entrada != null) {
+                acertosL1.increment();
+                acertos.increment();
+                encontrados.put(key, entrada.valor());
+            } else {
+                faltasL1.increment();
+                faltantes.put(chave, key);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return encontrados;
+        }
+
+        Map<String, RedisCacheRemoto.EntradaRemota> remotas = remoto.getVarias(List.copyOf(faltantes.keySet()));
+        faltantes.forEach((chave, key) -> {
+            RedisCacheRemoto.EntradaRemota remota = remotas.get(chave);
+            if (remota == null) {
+                faltasL2.increment();
+                faltas.increment();
+                return;
+            }
+            acertosL2.increment();
+            acertos.increment();
+
+            Duration restante = remota.tempoRestante();
+            guardarLocal(chave, remota.valor(), restante != null ? restante : remoto.ttl(key, remota.valor()));
+            encontrados.put(key, remota.valor());
+        });
+        return encontrados;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object valor = wrapper != null ? wrapper.get() : null;
+
+        if (valor != null && type != null && !type.isInstance(valor)) {
+            throw new IllegalStateException(
+                    "Valor em cache não é do tipo " + type.getName() + ": " + valor);
+        }
+        return (T) valor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T valor = remoto.get(key, () -> carregar(valueLoader));
+        guardarLocal(remoto.chave(key), valor, remoto.ttl(key, valor));
+        return valor;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoto.put(key, value);
+        escritas.increment();
+
+        String chave = remoto.chave(key);
+        guardarLocal(chave, value, remoto.ttl(key, value));
+        notificador.invalidar(getName(), List.of(chave));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existente = remoto.putIfAbsent(key, value);
+        Object efetivo = existente != null ? existente.get() : value;
+
+        String chave = remoto.chave(key);
+        guardarLocal(chave, efetivo, remoto.ttl(key, efetivo));
+        if (existente == null) {
+            escritas.increment();
+            notificador.invalidar(getName(), List.of(chave));
+        }
+        return existente;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoto.evict(key);
+        descartesExplicitos.increment();
+
+        String chave = remoto.chave(key);
+        local.invalidate(chave);
+        notificador.invalidar(getName(), List.of(chave));
+    }
+
+    @Override
+    public void clear() {
+        remoto.clear();
+        descartesExplicitos.increment();
+        local.invalidateAll();
+        notificador.invalidar(getName(), null);
+    }
+
+    @Override
+    public void evictVarias(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        List<String> chaves = keys.stream().map(remoto::chave).distinct().toList();
+        remoto.evictVarias(chaves);
+        descartesExplicitos.increment(chaves.size());
+
+        local.invalidateAll(chaves);
+        notificador.invalidar(getName(), chaves);
+    }
+
+    /**
+     * Descarta a entrada só no L1, sem tocar no Redis nem notificar os outros nós.
+     * Chamado ao receber uma invalidação publicada por outro nó.
+     */
+    void invalidarLocal(String chave) {
+        if (chave == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(chave);
+        }
+    }
+
+    /**
+     * Guarda no L1; um valor nulo só fica guardado (como entrada de valor nulo) quando o
+     * cache aceita nulos, assim como no Redis.
+     */
+    private void guardarLocal(String chave, Object valor, Duration ttl) {
+        if ((valor == null && !remoto.isAllowNullValues()) || ttl == null || ttl.isNegative()) {
+            local.invalidate(chave);
+            return;
+        }
+        // TTL zero no Redis significa "sem expiração"; no L1 vale o limite de tamanho
+        long ttlNanos = ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        local.put(chave, new EntradaLocal(valor, ttlNanos));
+    }
+
+    private <T> T carregar(Callable<T> valueLoader) throws Exception {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        try {
+            T valor = valueLoader.call();
+            amostra.stop(cargasSucesso);
+            return valor;
+        } catch (Exception | Error e) {
+            amostra.stop(cargasFalha);
+            throw e;
+        }
+    }
+
+    private void descartado(RemovalCause causa) {
+        descartes(meterRegistry, getName(), causa.name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    private static Counter leituras(MeterRegistry registry, String cache, String resultado) {
+        return Counter.builder(METRICA_LEITURAS)
+                .description("Leituras de cache, somando as duas camadas")
+                .tag("cache", cache)
+                .tag("result", resultado)
+                .register(registry);
+    }
+
+    /**
+     * @param causa {@code explicit} para evict/clear; {@code size} e {@code expired} para o L1
+     */
+    private static Counter descartes(MeterRegistry registry, String cache, String causa) {
+        return Counter.builder(METRICA_DESCARTES)
+                .description("Entradas descartadas do cache")
+                .tag("cache", cache)
+                .tag("cause", causa)
+                .register(registry);
+    }
+
+    private static Timer cargas(MeterRegistry registry, String cache, String resultado) {
+        return Timer.builder(METRICA_CARGA)
+                .description("Tempo para carregar o valor na falta do cache")
+                .tag("cache", cache)
+                .tag("result", resultado)
+                .register(registry);
+    }
+
+    private static Counter contador(MeterRegistry registry, String cache, String camada, String resultado) {
+        return Counter.builder(METRICA)
+                .description("Leituras de cache por camada")
+                .tag("cache", cache)
+                .tag("tier", camada)
+                .tag("result", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Publica invalidações para os demais nós; {@code chaves} nulo significa o cache inteiro.
+     */
+    @FunctionalInterface
+    public interface Notificador {
+        void invalidar(String cache, Collection<String> chaves);
+    }
+
+    private record EntradaLocal(Object valor, long ttlNanos) {
+    }
+
+    private static class ExpiracaoAlinhada implements Expiry<String, EntradaLocal> {
+
+        @Override
+        public long expireAfterCreate(String chave, EntradaLocal entrada, long agora) {
+            return entrada.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, EntradaLocal entrada, long agora, long duracaoAtual) {
+            return entrada.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String chave, EntradaLocal entrada, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.galli.tinnova.config.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Cache} que atende várias chaves numa única ida ao Redis. Quem usa deve cair para
+ * as operações chave a chave quando o cache não implementar esta interface.
+ */
+public interface CacheEmLote extends Cache {
+
+    /**
+     * Lê as chaves, como {@link #get(Object)} em cada uma, com uma única ida ao Redis para as
+     * que faltarem no L1.
+     *
+     * @return valores encontrados por chave, inclusive nulos em cache; as ausentes ficam de fora
+     */
+    Map<Object, Object> getVarias(Collection<?> keys);
+
+    /**
+     * Remove as chaves, como {@link #evict} em cada uma, com um único comando no Redis e uma
+     * única notificação aos demais nós.
+     */
+    void evictVarias(Collection<?> keys);
+
+    /**
+     * {@link #getVarias} quando o cache suporta, senão {@link #get(Object, Class)} em cada chave.
+     * Nulos em cache ficam de fora, como as chaves ausentes.
+     *
+     * @throws IllegalStateException se um valor em cache não for do tipo {@code tipo}
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> buscar(Cache cache, Collection<K> keys, Class<V> tipo) {
+        Map<K, V> encontrados = new HashMap<>(keys.size());
+        if (cache instanceof CacheEmLote lote) {
+            lote.getVarias(keys).forEach((key, valor) -> {
+                if (valor == null) {
+                    return;
+                }
+                if (!tipo.isInstance(valor)) {
+                    throw new IllegalStateException("Valor em cache não é do tipo " + tipo.getName() + ": " + valor);
+                }
+                encontrados.put((K) key, (V) valor);
+            });
+            return encontrados;
+        }
+
+        for (K key : keys) {
+            V valor = cache.get(key, tipo);
+            if (valor != null) {
+                encontrados.put(key, valor);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * {@link #evictVarias} quando o cache suporta, senão {@link #evict} em cada chave.
+     */
+    static void descartar(Cache cache, Collection<?> keys) {
+        if (cache instanceof CacheEmLote lote) {
+            lote.evictVarias(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+}
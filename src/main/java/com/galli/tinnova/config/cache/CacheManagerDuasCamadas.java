@@ -0,0 +1,107 @@
+package com.galli.tinnova.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link CacheManager} que entrega {@link CacheDuasCamadas} sobre os caches do
+ * {@link RedisCacheManagerRemoto}.
+ * <p>
+ * Também é o {@link AssinanteRedis} do canal de invalidação: cada escrita ou remoção
+ * publica {@code origem|cache|chaves}, com as chaves separadas por quebra de linha, e os
+ * outros nós descartam as chaves do seu L1. Mensagens publicadas pelo próprio nó são ignoradas.
+ */
+@Slf4j
+public class CacheManagerDuasCamadas implements CacheManager, AssinanteRedis, InitializingBean {
+
+    private static final String SEPARADOR = "|";
+    private static final String CACHE_INTEIRO = "*";
+    private static final String SEPARADOR_CHAVES = "\n";
+
+    private final RedisCacheManagerRemoto redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ToLongFunction<String> tamanhoMaximoLocal;
+    private final String canalInvalidacao;
+
+    private final String origem = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, CacheDuasCamadas> caches = new ConcurrentHashMap<>();
+
+    public CacheManagerDuasCamadas(RedisCacheManagerRemoto redisCacheManager,
+                                   StringRedisTemplate redisTemplate,
+                                   MeterRegistry meterRegistry,
+                                   ToLongFunction<String> tamanhoMaximoLocal,
+                                   String canalInvalidacao) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.tamanhoMaximoLocal = tamanhoMaximoLocal;
+        this.canalInvalidacao = canalInvalidacao;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        redisCacheManager.afterPropertiesSet();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, nome -> {
+            RedisCacheRemoto remoto = redisCacheManager.getCache(nome);
+            return new CacheDuasCamadas(
+                    remoto, this::publicar, meterRegistry, tamanhoMaximoLocal.applyAsLong(nome));
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    @Override
+    public Topic topico() {
+        return new ChannelTopic(canalInvalidacao);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (partes.length != 3 || origem.equals(partes[0])) {
+            return;
+        }
+
+        CacheDuasCamadas cache = caches.get(partes[1]);
+        if (cache == null) {
+            return;
+        }
+
+        log.debug("Invalidação recebida: cache={}, chaves={}", partes[1], partes[2]);
+        if (CACHE_INTEIRO.equals(partes[2])) {
+            cache.invalidarLocal(null);
+            return;
+        }
+        for (String chave : partes[2].split(SEPARADOR_CHAVES)) {
+            cache.invalidarLocal(chave);
+        }
+    }
+
+    private void publicar(String cache, Collection<String> chaves) {
+        String mensagem = origem + SEPARADOR + cache + SEPARADOR
+                + (chaves != null ? String.join(SEPARADOR_CHAVES, chaves) : CACHE_INTEIRO);
+        redisTemplate.convertAndSend(canalInvalidacao, mensagem);
+    }
+}
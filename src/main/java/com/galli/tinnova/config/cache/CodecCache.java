@@ -0,0 +1,160 @@
+package com.galli.tinnova.config.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+/**
+ * Codificação binária de um tipo guardado em cache, usada pelo {@link SerializadorCompacto}.
+ * Os campos são escritos em ordem fixa, sem nomes nem metadados de classe; por isso um
+ * codec não pode mudar o formato de um tipo já em produção: um formato novo é um codec novo.
+ * <p>
+ * Os métodos estáticos escrevem os tipos usados nos caches, todos aceitando {@code null}.
+ */
+public interface CodecCache<T> {
+
+    CodecCache<BigDecimal> DECIMAL = de(BigDecimal.class, CodecCache::escreverDecimal, CodecCache::lerDecimal);
+
+    Class<T> tipo();
+
+    void escrever(T valor, DataOutput saida) throws IOException;
+
+    T ler(DataInput entrada) throws IOException;
+
+    static <T> CodecCache<T> de(Class<T> tipo, Escritor<T> escritor, Leitor<T> leitor) {
+        return new CodecCache<>() {
+            @Override
+            public Class<T> tipo() {
+                return tipo;
+            }
+
+            @Override
+            public void escrever(T valor, DataOutput saida) throws IOException {
+                escritor.escrever(valor, saida);
+            }
+
+            @Override
+            public T ler(DataInput entrada) throws IOException {
+                return leitor.ler(entrada);
+            }
+        };
+    }
+
+    /**
+     * Codec de {@link ArrayList} com os elementos no formato de {@code elemento}; o tipo
+     * concreto é o que os caches guardam (listas imutáveis não são aceitas).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <E> CodecCache<ArrayList<E>> lista(CodecCache<E> elemento) {
+        return de(
+                (Class<ArrayList<E>>) (Class) ArrayList.class,
+                (lista, saida) -> {
+                    escreverVarLong(lista.size(), saida);
+                    for (E item : lista) {
+                        elemento.escrever(item, saida);
+                    }
+                },
+                entrada -> {
+                    int tamanho = (int) lerVarLong(entrada);
+                    ArrayList<E> lista = new ArrayList<>(tamanho);
+                    for (int i = 0; i < tamanho; i++) {
+                        lista.add(elemento.ler(entrada));
+                    }
+                    return lista;
+                }
+        );
+    }
+
+    static void escreverTexto(String valor, DataOutput saida) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            saida.writeUTF(valor);
+        }
+    }
+
+    static String lerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    static void escreverInteiro(Integer valor, DataOutput saida) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            escreverVarLong(valor, saida);
+        }
+    }
+
+    static Integer lerInteiro(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? Math.toIntExact(lerVarLong(entrada)) : null;
+    }
+
+    static void escreverLongo(Long valor, DataOutput saida) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            escreverVarLong(valor, saida);
+        }
+    }
+
+    static Long lerLongo(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? lerVarLong(entrada) : null;
+    }
+
+    /**
+     * Escala e dígitos sem escala: {@code 10000.00} ocupa 5 bytes, contra 8 ou mais em texto.
+     */
+    static void escreverDecimal(BigDecimal valor, DataOutput saida) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            escreverVarLong(valor.scale(), saida);
+            byte[] digitos = valor.unscaledValue().toByteArray();
+            escreverVarLong(digitos.length, saida);
+            saida.write(digitos);
+        }
+    }
+
+    static BigDecimal lerDecimal(DataInput entrada) throws IOException {
+        if (!entrada.readBoolean()) {
+            return null;
+        }
+        int escala = Math.toIntExact(lerVarLong(entrada));
+        byte[] digitos = new byte[Math.toIntExact(lerVarLong(entrada))];
+        entrada.readFully(digitos);
+        return new BigDecimal(new BigInteger(digitos), escala);
+    }
+
+    /**
+     * Inteiro de tamanho variável (zigzag + 7 bits por byte): ids e anos ocupam 2 a 4 bytes.
+     */
+    static void escreverVarLong(long valor, DataOutput saida) throws IOException {
+        long zigzag = (valor << 1) ^ (valor >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            saida.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        saida.writeByte((int) zigzag);
+    }
+
+    static long lerVarLong(DataInput entrada) throws IOException {
+        long zigzag = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = entrada.readByte();
+            zigzag |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Inteiro variável mal formado");
+    }
+
+    @FunctionalInterface
+    interface Escritor<T> {
+        void escrever(T valor, DataOutput saida) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Leitor<T> {
+        T ler(DataInput entrada) throws IOException;
+    }
+}
@@ -0,0 +1,75 @@
+package com.galli.tinnova.config.cache;
+
+import com.galli.tinnova.config.cache.PropriedadesCache.ConfiguracaoCache;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * {@code GET /actuator/configcache}: configuração efetiva de cada cache depois de aplicar
+ * {@code cache.padrao} e {@code cache.regioes}, para conferir o que está valendo sem ler o YAML.
+ */
+@Component
+@Endpoint(id = "configcache")
+public class ConfiguracaoCacheEndpoint {
+
+    private final PropriedadesCache propriedades;
+    private final CacheManager cacheManager;
+    private final Map<String, DeclaracaoCache> declarados;
+
+    public ConfiguracaoCacheEndpoint(PropriedadesCache propriedades,
+                                     CacheManager cacheManager,
+                                     List<DeclaracaoCache> declaracoes) {
+        this.propriedades = propriedades;
+        this.cacheManager = cacheManager;
+        this.declarados = DeclaracaoCache.porNome(declaracoes);
+    }
+
+    @ReadOperation
+    public Map<String, CacheEfetivo> caches() {
+        TreeSet<String> nomes = new TreeSet<>(declarados.keySet());
+        nomes.addAll(cacheManager.getCacheNames());
+
+        SortedMap<String, CacheEfetivo> caches = new TreeMap<>();
+        for (String nome : nomes) {
+            DeclaracaoCache declaracao = declarados.get(nome);
+            caches.put(nome, CacheEfetivo.de(nome, propriedades.efetiva(nome), declaracao != null && declaracao.binario()));
+        }
+        return caches;
+    }
+
+    /**
+     * @param prefixoChave prefixo completo das chaves no Redis, como {@code veiculos::}
+     * @param serializacao {@code binario} para caches com codec próprio, senão {@code json}
+     */
+    public record CacheEfetivo(
+            String ttl,
+            long tamanhoMaximoLocal,
+            boolean cachearNulos,
+            String prefixoChave,
+            String serializacao
+    ) {
+
+        static CacheEfetivo de(String nome, ConfiguracaoCache cache, boolean binario) {
+            CacheKeyPrefix prefixo = cache.prefixo() == null || cache.prefixo().isEmpty()
+                    ? CacheKeyPrefix.simple()
+                    : CacheKeyPrefix.prefixed(cache.prefixo());
+
+            return new CacheEfetivo(
+                    cache.ttl().toString(),
+                    cache.tamanhoMaximoLocal(),
+                    cache.cachearNulos(),
+                    prefixo.compute(nome),
+                    binario ? "binario" : "json"
+            );
+        }
+    }
+}
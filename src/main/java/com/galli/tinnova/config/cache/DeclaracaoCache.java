@@ -0,0 +1,42 @@
+package com.galli.tinnova.config.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache da aplicação, publicado como bean pelo componente que o usa. O {@link RedisCacheConfig}
+ * reúne as declarações na subida sem conhecer os pacotes de serviço: só os caches declarados
+ * aceitam ajustes em {@code cache.regioes} e aparecem no {@code /actuator/configcache} antes
+ * do primeiro uso.
+ *
+ * @param codecs formatos do {@link SerializadorCompacto}; vazio mantém o cache em JSON
+ */
+public record DeclaracaoCache(String nome, List<CodecCache<?>> codecs) {
+
+    public DeclaracaoCache {
+        codecs = List.copyOf(codecs);
+    }
+
+    public static DeclaracaoCache com(String nome, CodecCache<?>... codecs) {
+        return new DeclaracaoCache(nome, List.of(codecs));
+    }
+
+    public boolean binario() {
+        return !codecs.isEmpty();
+    }
+
+    /**
+     * @throws IllegalStateException se dois beans declararem o mesmo cache
+     */
+    static Map<String, DeclaracaoCache> porNome(Collection<DeclaracaoCache> declaracoes) {
+        Map<String, DeclaracaoCache> porNome = new LinkedHashMap<>();
+        for (DeclaracaoCache declaracao : declaracoes) {
+            if (porNome.putIfAbsent(declaracao.nome(), declaracao) != null) {
+                throw new IllegalStateException("Cache declarado mais de uma vez: " + declaracao.nome());
+            }
+        }
+        return porNome;
+    }
+}
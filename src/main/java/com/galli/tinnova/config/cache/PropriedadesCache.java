@@ -0,0 +1,165 @@
+package com.galli.tinnova.config.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Propriedades {@code cache.*}: valores padrão de todos os caches e ajustes por cache em
+ * {@code cache.regioes.<nome>}. Um campo omitido na região usa o valor de {@code cache.padrao}.
+ *
+ * <pre>
+ * cache:
+ *   padrao:
+ *     ttl: 10m
+ *     tamanho-maximo-local: 10000
+ *   regioes:
+ *     veiculos-listagem:
+ *       ttl: 5m
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "cache")
+public record PropriedadesCache(
+        @DefaultValue Padrao padrao,
+        Map<String, Regiao> regioes,
+        @DefaultValue Redis redis,
+        @DefaultValue Listagem listagem
+) {
+
+    public PropriedadesCache {
+        regioes = regioes != null ? Map.copyOf(regioes) : Map.of();
+    }
+
+    /**
+     * Configuração efetiva de um cache, com os valores padrão aplicados.
+     */
+    public ConfiguracaoCache efetiva(String nome) {
+        Regiao regiao = regioes.get(nome);
+        if (regiao == null) {
+            return padrao.configuracao();
+        }
+        return new ConfiguracaoCache(
+                regiao.ttl() != null ? regiao.ttl() : padrao.ttl(),
+                regiao.tamanhoMaximoLocal() != null ? regiao.tamanhoMaximoLocal() : padrao.tamanhoMaximoLocal(),
+                regiao.cachearNulos() != null ? regiao.cachearNulos() : padrao.cachearNulos(),
+                regiao.prefixo() != null ? regiao.prefixo() : padrao.prefixo()
+        );
+    }
+
+    /**
+     * Início das chaves que o cache guarda direto no Redis, fora das entradas do
+     * {@code RedisCache} (etiquetas, gerações), com o mesmo prefixo delas: {@code tinnova:veiculos:}.
+     */
+    public String prefixoChaves(String cache) {
+        String prefixo = efetiva(cache).prefixo();
+        return (prefixo != null ? prefixo : "") + cache + ":";
+    }
+
+    /**
+     * Canal pub/sub de invalidação do L1, com o prefixo de {@code cache.padrao}: aplicações
+     * que compartilham o Redis com prefixos diferentes não recebem as invalidações umas das outras.
+     */
+    public String canalInvalidacao() {
+        return (padrao.prefixo() != null ? padrao.prefixo() : "") + "cache:invalidacao";
+    }
+
+    /**
+     * Confere as propriedades na subida da aplicação, reunindo todos os problemas numa
+     * única mensagem.
+     *
+     * @param conhecidos caches da aplicação; uma região com outro nome é erro de digitação
+     * @throws IllegalArgumentException se alguma propriedade for inválida
+     */
+    public void validar(Set<String> conhecidos) {
+        List<String> erros = new ArrayList<>();
+
+        validar("cache.padrao", padrao.ttl(), padrao.tamanhoMaximoLocal(), erros);
+        regioes.forEach((nome, regiao) -> {
+            if (!conhecidos.contains(nome)) {
+                erros.add("cache.regioes." + nome + ": cache desconhecido (use um de " + new TreeSet<>(conhecidos) + ")");
+            }
+            validar("cache.regioes." + nome, regiao.ttl(), regiao.tamanhoMaximoLocal(), erros);
+        });
+
+        if (redis.compressaoAcimaDe().isNegative()) {
+            erros.add("cache.redis.compressao-acima-de: não pode ser negativo");
+        }
+
+        if (!erros.isEmpty()) {
+            throw new IllegalArgumentException("Configuração de cache inválida: " + String.join("; ", erros));
+        }
+    }
+
+    /**
+     * {@code cache.listagem.ttl-etiquetas}, conferido contra o TTL das páginas guardadas em
+     * {@code paginas}: um conjunto de etiquetas que expira antes das páginas deixaria páginas
+     * sem invalidação.
+     *
+     * @throws IllegalArgumentException se o TTL das etiquetas for menor que o das páginas
+     */
+    public Duration ttlEtiquetas(String paginas) {
+        Duration ttlPaginas = efetiva(paginas).ttl();
+        if (listagem.ttlEtiquetas().compareTo(ttlPaginas) < 0) {
+            throw new IllegalArgumentException("Configuração de cache inválida: cache.listagem.ttl-etiquetas: "
+                    + "deve ser maior ou igual ao TTL de " + paginas + " (" + ttlPaginas + ")");
+        }
+        return listagem.ttlEtiquetas();
+    }
+
+    private static void validar(String prefixo, Duration ttl, Long tamanhoMaximoLocal, List<String> erros) {
+        if (ttl != null && (ttl.isZero() || ttl.isNegative())) {
+            erros.add(prefixo + ".ttl: deve ser maior que zero");
+        }
+        if (tamanhoMaximoLocal != null && tamanhoMaximoLocal < 0) {
+            erros.add(prefixo + ".tamanho-maximo-local: não pode ser negativo");
+        }
+    }
+
+    /**
+     * @param prefixo prefixo acrescentado antes de {@code <cache>::} nas chaves do Redis,
+     *                para separar aplicações que compartilham o mesmo Redis
+     */
+    public record Padrao(
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("10000") long tamanhoMaximoLocal,
+            @DefaultValue("false") boolean cachearNulos,
+            @DefaultValue("") String prefixo
+    ) {
+
+        public ConfiguracaoCache configuracao() {
+            return new ConfiguracaoCache(ttl, tamanhoMaximoLocal, cachearNulos, prefixo);
+        }
+    }
+
+    public record Regiao(
+            Duration ttl,
+            Long tamanhoMaximoLocal,
+            Boolean cachearNulos,
+            String prefixo
+    ) {}
+
+    public record Redis(
+            @DefaultValue("1KB") DataSize compressaoAcimaDe
+    ) {}
+
+    public record Listagem(
+            @DefaultValue("15m") Duration ttlEtiquetas
+    ) {}
+
+    /**
+     * @param tamanhoMaximoLocal entradas no L1 (Caffeine) de cada instância; 0 desliga o L1
+     */
+    public record ConfiguracaoCache(
+            Duration ttl,
+            long tamanhoMaximoLocal,
+            boolean cachearNulos,
+            String prefixo
+    ) {}
+}
@@ -1,33 +1,68 @@
 package com.galli.tinnova.config.cache;
 
+import com.galli.tinnova.config.cache.PropriedadesCache.ConfiguracaoCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(PropriedadesCache.class)
 public class RedisCacheConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory factory) {
-
-        RedisCacheConfiguration config =
-                RedisCacheConfiguration.defaultCacheConfig()
-                        .entryTtl(Duration.ofMinutes(10))
-                        .disableCachingNullValues()
-                        .serializeValuesWith(
-                                RedisSerializationContext.SerializationPair.fromSerializer(
-                                        new GenericJackson2JsonRedisSerializer()
-                                )
-                        );
-
-        return RedisCacheManager.builder(factory)
-                .cacheDefaults(config)
-                .build();
+    public CacheManagerDuasCamadas cacheManager(RedisConnectionFactory factory,
+                                                StringRedisTemplate redisTemplate,
+                                                MeterRegistry meterRegistry,
+                                                PropriedadesCache propriedades,
+                                                List<DeclaracaoCache> declaracoes) {
+
+        Map<String, DeclaracaoCache> caches = DeclaracaoCache.porNome(declaracoes);
+        // falha a subida com todas as propriedades inválidas de uma vez
+        propriedades.validar(caches.keySet());
+
+        RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+        int compressaoAcimaDe = Math.toIntExact(propriedades.redis().compressaoAcimaDe().toBytes());
+
+        Map<String, RedisCacheConfiguration> porCache = new HashMap<>();
+        for (DeclaracaoCache cache : caches.values()) {
+            porCache.put(cache.nome(), configuracao(
+                    propriedades.efetiva(cache.nome()),
+                    cache.binario() ? new SerializadorCompacto(cache.codecs(), compressaoAcimaDe, json) : json
+            ));
+        }
+
+        return new CacheManagerDuasCamadas(
+                new RedisCacheManagerRemoto(
+                        factory, configuracao(propriedades.padrao().configuracao(), json), porCache, meterRegistry),
+                redisTemplate,
+                meterRegistry,
+                nome -> propriedades.efetiva(nome).tamanhoMaximoLocal(),
+                propriedades.canalInvalidacao()
+        );
+    }
+
+    static RedisCacheConfiguration configuracao(ConfiguracaoCache cache, RedisSerializer<Object> serializador) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(cache.ttl())
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializador));
+
+        if (!cache.cachearNulos()) {
+            config = config.disableCachingNullValues();
+        }
+        if (cache.prefixo() != null && !cache.prefixo().isEmpty()) {
+            config = config.prefixCacheNameWith(cache.prefixo());
+        }
+        return config;
     }
 }
@@ -0,0 +1,68 @@
+package com.galli.tinnova.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.Map;
+
+/**
+ * {@link RedisCacheManager} que cria {@link RedisCacheRemoto} no lugar de {@link RedisCache}.
+ */
+public class RedisCacheManagerRemoto extends RedisCacheManager {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public RedisCacheManagerRemoto(RedisConnectionFactory connectionFactory,
+                                   RedisCacheConfiguration defaultCacheConfiguration) {
+        this(connectionFactory, defaultCacheConfiguration, Map.of());
+    }
+
+    /**
+     * @param configuracoesPorCache configuração própria de alguns caches (serializador, TTL);
+     *                              os demais usam {@code defaultCacheConfiguration}
+     */
+    public RedisCacheManagerRemoto(RedisConnectionFactory connectionFactory,
+                                   RedisCacheConfiguration defaultCacheConfiguration,
+                                   Map<String, RedisCacheConfiguration> configuracoesPorCache) {
+        this(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                connectionFactory, defaultCacheConfiguration, configuracoesPorCache);
+    }
+
+    /**
+     * Como o construtor acima, registrando o tamanho dos valores de cada cache no {@code meterRegistry}.
+     */
+    public RedisCacheManagerRemoto(RedisConnectionFactory connectionFactory,
+                                   RedisCacheConfiguration defaultCacheConfiguration,
+                                   Map<String, RedisCacheConfiguration> configuracoesPorCache,
+                                   MeterRegistry meterRegistry) {
+        this(new RedisCacheWriterMedido(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), meterRegistry),
+                connectionFactory, defaultCacheConfiguration, configuracoesPorCache);
+    }
+
+    private RedisCacheManagerRemoto(RedisCacheWriter cacheWriter,
+                                    RedisConnectionFactory connectionFactory,
+                                    RedisCacheConfiguration defaultCacheConfiguration,
+                                    Map<String, RedisCacheConfiguration> configuracoesPorCache) {
+        super(cacheWriter, defaultCacheConfiguration, configuracoesPorCache);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new RedisCacheRemoto(
+                name,
+                getCacheWriter(),
+                cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(),
+                connectionFactory
+        );
+    }
+
+    @Override
+    public RedisCacheRemoto getCache(String name) {
+        return (RedisCacheRemoto) super.getCache(name);
+    }
+}
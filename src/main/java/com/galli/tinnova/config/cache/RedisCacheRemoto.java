@@ -0,0 +1,108 @@
+package com.galli.tinnova.config.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RedisCache} que expõe a chave efetiva no Redis e o tempo de vida restante
+ * de uma entrada, usados pela camada local para alinhar o próprio TTL ao do Redis.
+ */
+public class RedisCacheRemoto extends RedisCache {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    protected RedisCacheRemoto(String name,
+                               RedisCacheWriter cacheWriter,
+                               RedisCacheConfiguration cacheConfiguration,
+                               RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.connectionFactory = connectionFactory;
+    }
+
+    public String chave(Object key) {
+        return createCacheKey(key);
+    }
+
+    /**
+     * TTL restante da entrada no Redis, ou {@code null} quando a chave não existe
+     * ou não expira.
+     */
+    public Duration tempoRestante(String chave) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Long millis = connection.keyCommands().pTtl(serializeCacheKey(chave));
+            return millis == null || millis < 0 ? null : Duration.ofMillis(millis);
+        }
+    }
+
+    /**
+     * Lê as chaves (já no formato de {@link #chave}) e o TTL restante de cada uma numa única
+     * ida ao Redis: {@code MGET} e os {@code PTTL} no mesmo pipeline.
+     *
+     * @return entradas encontradas por chave, inclusive nulos em cache; as ausentes ficam de fora
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, EntradaRemota> getVarias(List<String> chaves) {
+        byte[][] serializadas = chaves.stream().map(this::serializeCacheKey).toArray(byte[][]::new);
+
+        List<Object> resultados;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            connection.stringCommands().mGet(serializadas);
+            for (byte[] chave : serializadas) {
+                connection.keyCommands().pTtl(chave);
+            }
+            resultados = connection.closePipeline();
+        }
+
+        List<byte[]> valores = (List<byte[]>) resultados.get(0);
+        Map<String, EntradaRemota> encontradas = new HashMap<>(chaves.size());
+        for (int i = 0; i < chaves.size(); i++) {
+            byte[] bytes = valores.get(i);
+            if (bytes == null) {
+                continue;
+            }
+            if (getCacheWriter() instanceof RedisCacheWriterMedido medido) {
+                medido.lido(getName(), bytes);
+            }
+
+            Object valor = fromStoreValue(deserializeCacheValue(bytes));
+            Long millis = (Long) resultados.get(i + 1);
+            Duration restante = millis == null || millis < 0 ? null : Duration.ofMillis(millis);
+            encontradas.put(chaves.get(i), new EntradaRemota(valor, restante));
+        }
+        return encontradas;
+    }
+
+    /**
+     * Remove as chaves (já no formato de {@link #chave}) com um único {@code DEL}.
+     */
+    public void evictVarias(Collection<String> chaves) {
+        byte[][] serializadas = chaves.stream().map(this::serializeCacheKey).toArray(byte[][]::new);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(serializadas);
+        }
+    }
+
+    /**
+     * TTL configurado para uma nova entrada.
+     */
+    public Duration ttl(Object key, Object value) {
+        return getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+    }
+
+    /**
+     * @param valor         valor em cache; nulo quando o cache guarda nulos
+     * @param tempoRestante TTL restante no Redis, ou {@code null} se a chave não expira
+     */
+    public record EntradaRemota(Object valor, Duration tempoRestante) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.galli.tinnova.config.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link RedisCacheWriter} que registra o tamanho em bytes de cada valor lido e gravado
+ * no Redis ({@code cache.payload.size}, tags {@code cache} e {@code operation}). Como recebe
+ * o nome do cache em cada chamada, cobre também os caches criados sob demanda.
+ */
+public class RedisCacheWriterMedido implements RedisCacheWriter {
+
+    static final String METRICA = "cache.payload.size";
+
+    private final RedisCacheWriter delegado;
+    private final MeterRegistry meterRegistry;
+
+    public RedisCacheWriterMedido(RedisCacheWriter delegado, MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return lido(name, delegado.get(name, key));
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return lido(name, delegado.get(name, key, ttl));
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegado.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegado.retrieve(name, key, ttl).thenApply(valor -> lido(name, valor));
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        gravado(name, value);
+        delegado.put(name, key, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        gravado(name, value);
+        return delegado.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existente = delegado.putIfAbsent(name, key, value, ttl);
+        if (existente == null) {
+            gravado(name, value);
+        }
+        return existente;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegado.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegado.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegado.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new RedisCacheWriterMedido(delegado.withStatisticsCollector(cacheStatisticsCollector), meterRegistry);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegado.getCacheStatistics(cacheName);
+    }
+
+    byte[] lido(String cache, byte[] valor) {
+        if (valor != null) {
+            tamanho(cache, "read").record(valor.length);
+        }
+        return valor;
+    }
+
+    private void gravado(String cache, byte[] valor) {
+        tamanho(cache, "write").record(valor.length);
+    }
+
+    private DistributionSummary tamanho(String cache, String operacao) {
+        // o registry devolve o medidor já registrado; o custo é uma consulta ao mapa
+        return DistributionSummary.builder(METRICA)
+                .description("Tamanho dos valores lidos e gravados no Redis")
+                .baseUnit("bytes")
+                .tag("cache", cache)
+                .tag("operation", operacao)
+                .register(meterRegistry);
+    }
+}
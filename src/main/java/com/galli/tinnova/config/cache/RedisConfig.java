@@ -1,9 +1,26 @@
 package com.galli.tinnova.config.cache;
 
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
+
+    /**
+     * Uma única conexão de pub/sub para todos os {@link AssinanteRedis} da aplicação.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory,
+                                                                       List<AssinanteRedis> assinantes) {
+        RedisMessageListenerContainer container = new RedisListenerContainerResiliente();
+        container.setConnectionFactory(factory);
+        assinantes.forEach(assinante -> container.addMessageListener(assinante, assinante.topico()));
+        return container;
+    }
 }
@@ -0,0 +1,52 @@
+package com.galli.tinnova.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.adapter.RedisListenerExecutionFailedException;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Container de pub/sub que não derruba a aplicação quando o Redis está fora no startup:
+ * a assinatura é refeita em segundo plano até o Redis voltar. Enquanto isso cada nó só
+ * enxerga as próprias mensagens (invalidações de cache, revogações de token).
+ */
+@Slf4j
+public class RedisListenerContainerResiliente extends RedisMessageListenerContainer {
+
+    private static final Duration INTERVALO_RECONEXAO = Duration.ofSeconds(5);
+
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "redis-pubsub-reconexao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean encerrado;
+
+    @Override
+    public void start() {
+        if (encerrado) {
+            return;
+        }
+
+        try {
+            super.start();
+        } catch (RedisListenerExecutionFailedException e) {
+            log.warn("Não foi possível assinar canais do Redis, nova tentativa em {}s: {}",
+                    INTERVALO_RECONEXAO.toSeconds(), e.getMessage());
+            super.stop();
+            agendador.schedule(this::start, INTERVALO_RECONEXAO.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        encerrado = true;
+        agendador.shutdownNow();
+        super.destroy();
+    }
+}
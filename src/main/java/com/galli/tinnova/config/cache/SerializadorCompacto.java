@@ -0,0 +1,162 @@
+package com.galli.tinnova.config.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Serializador binário dos valores de um cache no Redis.
+ * <p>
+ * Formato: {@code [MAGICO][flags][tipo][corpo]}. {@code tipo} é a posição do codec na
+ * lista recebida (só se acrescentam codecs ao final) e o corpo é o que o {@link CodecCache}
+ * escreve, comprimido com Deflate quando passa de {@code limiteCompressao} bytes.
+ * <p>
+ * Valores de tipos sem codec são gravados pelo serializador {@code legado} (JSON), e bytes
+ * que não começam pelo {@link #MAGICO} também são lidos por ele: as entradas em JSON
+ * gravadas antes da troca continuam legíveis até expirarem.
+ */
+public class SerializadorCompacto implements RedisSerializer<Object> {
+
+    /**
+     * Primeiro byte das entradas binárias. Nunca inicia um JSON: em UTF-8 é um byte de
+     * continuação.
+     */
+    static final byte MAGICO = (byte) 0xB1;
+
+    private static final int COMPRIMIDO = 1;
+
+    private final List<CodecCache<?>> codecs;
+    private final Map<Class<?>, Integer> tipos = new HashMap<>();
+    private final int limiteCompressao;
+    private final RedisSerializer<Object> legado;
+
+    public SerializadorCompacto(List<CodecCache<?>> codecs, int limiteCompressao, RedisSerializer<Object> legado) {
+        if (codecs.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("No máximo " + Byte.MAX_VALUE + " codecs por cache");
+        }
+        this.codecs = List.copyOf(codecs);
+        for (int i = 0; i < codecs.size(); i++) {
+            if (tipos.putIfAbsent(codecs.get(i).tipo(), i) != null) {
+                throw new IllegalArgumentException("Tipo com mais de um codec: " + codecs.get(i).tipo().getName());
+            }
+        }
+        this.limiteCompressao = limiteCompressao;
+        this.legado = legado;
+    }
+
+    @Override
+    public byte[] serialize(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+
+        Integer tipo = tipos.get(valor.getClass());
+        if (tipo == null) {
+            return legado.serialize(valor);
+        }
+
+        byte[] corpo = corpo(codecs.get(tipo), valor);
+        int flags = 0;
+        if (corpo.length > limiteCompressao) {
+            corpo = comprimir(corpo);
+            flags |= COMPRIMIDO;
+        }
+
+        byte[] bytes = new byte[corpo.length + 3];
+        bytes[0] = MAGICO;
+        bytes[1] = (byte) flags;
+        bytes[2] = (byte) (int) tipo;
+        System.arraycopy(corpo, 0, bytes, 3, corpo.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGICO) {
+            return legado.deserialize(bytes);
+        }
+        if (bytes.length < 3) {
+            throw new SerializationException("Entrada binária truncada");
+        }
+
+        int tipo = bytes[2];
+        if (tipo < 0 || tipo >= codecs.size()) {
+            throw new SerializationException("Tipo desconhecido na entrada binária: " + tipo);
+        }
+
+        byte[] corpo = (bytes[1] & COMPRIMIDO) != 0
+                ? descomprimir(bytes, 3)
+                : Arrays.copyOfRange(bytes, 3, bytes.length);
+
+        try {
+            return codecs.get(tipo).ler(new DataInputStream(new ByteArrayInputStream(corpo)));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Falha ao ler entrada binária de " + codecs.get(tipo).tipo().getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] corpo(CodecCache<T> codec, Object valor) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try {
+            codec.escrever((T) valor, new DataOutputStream(buffer));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Falha ao escrever " + codec.tipo().getName(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] comprimir(byte[] corpo) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(corpo);
+            deflater.finish();
+
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 2);
+            byte[] bloco = new byte[4096];
+            while (!deflater.finished()) {
+                saida.write(bloco, 0, deflater.deflate(bloco));
+            }
+            return saida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] descomprimir(byte[] bytes, int inicio) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, inicio, bytes.length - inicio);
+
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(bytes.length * 2);
+            byte[] bloco = new byte[4096];
+            while (!inflater.finished()) {
+                int lidos = inflater.inflate(bloco);
+                if (lidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Entrada binária comprimida truncada");
+                }
+                saida.write(bloco, 0, lidos);
+            }
+            return saida.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Entrada binária comprimida inválida", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.galli.tinnova.config.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter de strings, thread-safe e sem remoção. {@link #podeConter} nunca dá falso
+ * negativo; falso positivo ocorre com a taxa configurada enquanto o número de elementos
+ * não passar do esperado.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoesHash;
+
+    public BloomFilter(long elementosEsperados, double taxaFalsoPositivo) {
+        if (elementosEsperados < 1 || taxaFalsoPositivo <= 0 || taxaFalsoPositivo >= 1) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o bloom filter");
+        }
+
+        long m = (long) Math.ceil(-elementosEsperados * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, m);
+        this.funcoesHash = Math.max(1, (int) Math.round((double) totalBits / elementosEsperados * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((totalBits + 63) / 64));
+    }
+
+    public void adicionar(String valor) {
+        long[] hash = hash(valor);
+
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = posicao(hash, i);
+            int indice = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+
+            long atual;
+            do {
+                atual = bits.get(indice);
+            } while ((atual & mascara) == 0 && !bits.compareAndSet(indice, atual, atual | mascara));
+        }
+    }
+
+    public boolean podeConter(String valor) {
+        long[] hash = hash(valor);
+
+        for (int i = 0; i < funcoesHash; i++) {
+            long bit = posicao(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // double hashing (Kirsch-Mitzenmacher): h1 + i * h2
+    private long posicao(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], totalBits);
+    }
+
+    private static long[] hash(String valor) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(valor.getBytes(StandardCharsets.UTF_8)));
+            return new long[]{digest.getLong(), digest.getLong() | 1};
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
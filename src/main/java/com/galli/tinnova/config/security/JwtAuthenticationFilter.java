@@ -17,9 +17,11 @@ import java.util.List;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final RevogacaoTokenService revogacaoTokenService;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, RevogacaoTokenService revogacaoTokenService) {
         this.jwtService = jwtService;
+        this.revogacaoTokenService = revogacaoTokenService;
     }
 
     @Override
@@ -49,14 +51,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            String username = jwtService.getUsername(token);
-            String role = jwtService.getRole(token);
+            JwtService.DadosToken dados = jwtService.parse(token);
+
+            if (dados.refresh() || revogacaoTokenService.estaRevogado(dados.jti())) {
+                SecurityContextHolder.clearContext();
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            username,
+                            dados.username(),
                             null,
-                            List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                            List.of(new SimpleGrantedAuthority("ROLE_" + dados.role()))
                     );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -1,53 +1,191 @@
 package com.galli.tinnova.config.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+    static final String TIPO_ACESSO = "access";
+    static final String TIPO_REFRESH = "refresh";
+
     final Key key;
     private final long expiration;
+    private final long refreshExpiration;
+
+    // o parser é imutável e thread-safe, então um só atende todas as requisições
+    private final JwtParser parser;
+
+    // tokens já verificados, por hash SHA-256; null quando o cache está desligado
+    private final Cache<ChaveToken, DadosToken> tokensVerificados;
+
+    public JwtService(String secret, long expiration) {
+        this(secret, expiration, expiration, 0, Duration.ZERO);
+    }
 
+    @Autowired
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expiration
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.refresh.expiration:604800000}") long refreshExpiration,
+            @Value("${jwt.cache.tamanho-maximo:10000}") long tamanhoMaximoCache,
+            @Value("${jwt.cache.ttl-maximo:5m}") Duration ttlMaximoCache
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.tokensVerificados = tamanhoMaximoCache > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(tamanhoMaximoCache)
+                        .expireAfter(new ExpiracaoDoToken(ttlMaximoCache))
+                        .build()
+                : null;
     }
 
+    /**
+     * Access token, de vida curta, enviado em toda requisição.
+     */
     public String gerarToken(String username, String role) {
+        return gerar(username, role, TIPO_ACESSO, expiration);
+    }
+
+    /**
+     * Refresh token, de vida longa, aceito só em {@code /auth/refresh} para obter um novo par.
+     */
+    public String gerarRefreshToken(String username, String role) {
+        return gerar(username, role, TIPO_REFRESH, refreshExpiration);
+    }
+
+    private String gerar(String username, String role, String tipo, long validade) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .addClaims(Map.of("role", role))
+                .addClaims(Map.of("role", role, "tipo", tipo))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setExpiration(new Date(System.currentTimeMillis() + validade))
                 .signWith(key)
                 .compact();
     }
 
+    /**
+     * Verifica assinatura e expiração uma única vez e devolve usuário e papel. Tokens já
+     * verificados são servidos do cache até expirarem.
+     *
+     * @throws io.jsonwebtoken.JwtException se o token for inválido ou estiver expirado
+     */
+    public DadosToken parse(String token) {
+        if (tokensVerificados == null) {
+            return verificar(token);
+        }
+
+        ChaveToken chave = ChaveToken.de(token);
+        DadosToken dados = tokensVerificados.getIfPresent(chave);
+
+        if (dados != null && dados.expiraEm() > System.currentTimeMillis()) {
+            return dados;
+        }
+
+        dados = verificar(token);
+        tokensVerificados.put(chave, dados);
+        return dados;
+    }
+
     public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).username();
     }
 
     public String getRole(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+        return parse(token).role();
+    }
+
+    private DadosToken verificar(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date exp = claims.getExpiration();
+
+        String tipo = claims.get("tipo", String.class);
+
+        return new DadosToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                // tokens emitidos antes do refresh token não têm tipo e são de acesso
+                tipo != null ? tipo : TIPO_ACESSO,
+                exp != null ? exp.getTime() : Long.MAX_VALUE
+        );
+    }
+
+    /**
+     * Claims usados na autenticação de uma requisição.
+     *
+     * @param jti      id do token, usado na revogação; nulo em tokens antigos
+     * @param tipo     {@code access} ou {@code refresh}
+     * @param expiraEm instante de expiração do token, em epoch millis ({@link Long#MAX_VALUE} se não expira)
+     */
+    public record DadosToken(String jti, String username, String role, String tipo, long expiraEm) {
+
+        public boolean refresh() {
+            return TIPO_REFRESH.equals(tipo);
+        }
+    }
+
+    /**
+     * Primeiros 128 bits do SHA-256 do token; evita manter os tokens em memória.
+     */
+    record ChaveToken(long alto, long baixo) {
+
+        static ChaveToken de(String token) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256")
+                        .digest(token.getBytes(StandardCharsets.US_ASCII));
+                ByteBuffer buffer = ByteBuffer.wrap(hash);
+                return new ChaveToken(buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * A entrada vive até o token expirar, limitada a {@code ttlMaximo}.
+     */
+    private record ExpiracaoDoToken(Duration ttlMaximo) implements Expiry<ChaveToken, DadosToken> {
+
+        @Override
+        public long expireAfterCreate(ChaveToken chave, DadosToken dados, long agora) {
+            long restante = dados.expiraEm() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(restante, ttlMaximo.toMillis())));
+        }
+
+        @Override
+        public long expireAfterUpdate(ChaveToken chave, DadosToken dados, long agora, long duracaoAtual) {
+            return expireAfterCreate(chave, dados, agora);
+        }
+
+        @Override
+        public long expireAfterRead(ChaveToken chave, DadosToken dados, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
     }
 }
@@ -0,0 +1,143 @@
+package com.galli.tinnova.config.security;
+
+import com.galli.tinnova.config.cache.AssinanteRedis;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Lista de revogação de tokens (pelo {@code jti}). A fonte da verdade é o Redis, com uma
+ * chave por token que expira junto com ele; na frente fica um bloom filter em memória,
+ * de modo que a verificação de um token não revogado (o caso comum) não sai do processo.
+ * <p>
+ * Revogações feitas em outros nós chegam pelo canal {@link #CANAL_REVOGACAO}. O filtro é
+ * reconstruído periodicamente a partir do Redis para descartar os tokens já expirados.
+ */
+@Slf4j
+@Service
+public class RevogacaoTokenService implements AssinanteRedis {
+
+    public static final String CANAL_REVOGACAO = "jwt:revogacao";
+
+    private static final String PREFIXO = "jwt:revogado:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long elementosEsperados;
+    private final double taxaFalsoPositivo;
+
+    private volatile BloomFilter revogados;
+
+    // filtro sendo reconstruído; recebe também as revogações que chegam durante o SCAN
+    private BloomFilter emConstrucao;
+
+    private final Object trava = new Object();
+
+    public RevogacaoTokenService(
+            StringRedisTemplate redisTemplate,
+            @Value("${jwt.revogacao.bloom.elementos:100000}") long elementosEsperados,
+            @Value("${jwt.revogacao.bloom.taxa-falso-positivo:0.01}") double taxaFalsoPositivo
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.elementosEsperados = elementosEsperados;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.revogados = new BloomFilter(elementosEsperados, taxaFalsoPositivo);
+    }
+
+    /**
+     * Revoga o token até {@code expiraEm}. Devolve {@code false} se ele já estava revogado,
+     * o que permite usar a revogação como reivindicação atômica na rotação do refresh token.
+     */
+    public boolean revogar(String jti, long expiraEm) {
+        long ttl = expiraEm - System.currentTimeMillis();
+        if (ttl <= 0) {
+            return true;
+        }
+
+        Boolean novo = redisTemplate.opsForValue().setIfAbsent(PREFIXO + jti, "1", Duration.ofMillis(ttl));
+        registrar(jti);
+
+        if (Boolean.TRUE.equals(novo)) {
+            redisTemplate.convertAndSend(CANAL_REVOGACAO, jti);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean estaRevogado(String jti) {
+        if (jti == null || !revogados.podeConter(jti)) {
+            return false;
+        }
+
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(PREFIXO + jti));
+        } catch (DataAccessException e) {
+            // sem como confirmar, vale o bloom filter: na dúvida o token é recusado
+            log.warn("Falha ao consultar revogação do token no Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public Topic topico() {
+        return new ChannelTopic(CANAL_REVOGACAO);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        registrar(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${jwt.revogacao.reconstrucao:PT1H}",
+            fixedDelayString = "${jwt.revogacao.reconstrucao:PT1H}"
+    )
+    public synchronized void reconstruir() {
+        BloomFilter novo = new BloomFilter(elementosEsperados, taxaFalsoPositivo);
+        synchronized (trava) {
+            emConstrucao = novo;
+        }
+        long total = 0;
+
+        try (Cursor<String> chaves = redisTemplate.scan(ScanOptions.scanOptions().match(PREFIXO + "*").count(1000).build())) {
+            while (chaves.hasNext()) {
+                novo.adicionar(chaves.next().substring(PREFIXO.length()));
+                total++;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível carregar tokens revogados do Redis: {}", e.getMessage());
+            synchronized (trava) {
+                emConstrucao = null;
+            }
+            return;
+        }
+
+        synchronized (trava) {
+            revogados = novo;
+            emConstrucao = null;
+        }
+        log.info("Bloom filter de tokens revogados reconstruído com {} tokens", total);
+    }
+
+    private void registrar(String jti) {
+        synchronized (trava) {
+            revogados.adicionar(jti);
+            if (emConstrucao != null) {
+                emConstrucao.adicionar(jti);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.galli.tinnova.config.security;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket: começa cheio com {@code capacidade} fichas e repõe uma a cada
+ * {@code reposicao}. Cada tentativa consome uma ficha; sem fichas, a tentativa é negada.
+ */
+public class TokenBucket {
+
+    private final long capacidade;
+    private final long nanosPorFicha;
+    private final LongSupplier relogio;
+
+    private long fichas;
+    private long ultimaReposicao;
+
+    public TokenBucket(long capacidade, Duration reposicao) {
+        this(capacidade, reposicao, System::nanoTime);
+    }
+
+    TokenBucket(long capacidade, Duration reposicao, LongSupplier relogio) {
+        if (capacidade < 1 || reposicao.isZero() || reposicao.isNegative()) {
+            throw new IllegalArgumentException("Capacidade e reposição devem ser positivas");
+        }
+        this.capacidade = capacidade;
+        this.nanosPorFicha = reposicao.toNanos();
+        this.relogio = relogio;
+        this.fichas = capacidade;
+        this.ultimaReposicao = relogio.getAsLong();
+    }
+
+    public synchronized boolean tentarConsumir() {
+        repor();
+
+        if (fichas == 0) {
+            return false;
+        }
+        fichas--;
+        return true;
+    }
+
+    private void repor() {
+        long agora = relogio.getAsLong();
+        long novas = (agora - ultimaReposicao) / nanosPorFicha;
+
+        if (novas <= 0) {
+            return;
+        }
+
+        if (fichas + novas >= capacidade) {
+            fichas = capacidade;
+            ultimaReposicao = agora;
+        } else {
+            fichas += novas;
+            ultimaReposicao += novas * nanosPorFicha;
+        }
+    }
+}
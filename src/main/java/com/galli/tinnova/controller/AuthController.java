@@ -1,34 +1,42 @@
 package com.galli.tinnova.controller;
 
-import com.galli.tinnova.config.security.JwtService;
+import com.galli.tinnova.dto.response.TokensResponse;
+import com.galli.tinnova.service.LoginService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
-    private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
 
     @PostMapping("/login")
-    public Map<String, String> login(@RequestBody Map<String, String> body) {
-        Authentication auth = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        body.get("username"),
-                        body.get("password")
-                )
-        );
-
-        String role = auth.getAuthorities().iterator().next().getAuthority().replace("ROLE_", "");
-        String token = jwtService.gerarToken(body.get("username"), role);
-
-        return Map.of("token", token);
+    public CompletableFuture<TokensResponse> login(@RequestBody Map<String, String> body,
+                                                   HttpServletRequest request) {
+        return loginService.login(body.get("username"), body.get("password"), request.getRemoteAddr());
+    }
+
+    @PostMapping("/refresh")
+    public TokensResponse refresh(@RequestBody Map<String, String> body) {
+        return loginService.renovar(body.get("refreshToken"));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody Map<String, String> body,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+
+        loginService.logout(body.get("refreshToken"), accessToken);
+        return ResponseEntity.noContent().build();
     }
 }
@@ -1,21 +1,40 @@
 package com.galli.tinnova.controller;
 
+import com.galli.tinnova.dto.request.ReajustePrecoRequest;
+import com.galli.tinnova.dto.request.SelecaoVeiculosRequest;
 import com.galli.tinnova.dto.request.VeiculoRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galli.tinnova.dto.response.AlteracaoEmMassaResponse;
+import com.galli.tinnova.dto.response.CursorPageResponse;
+import com.galli.tinnova.dto.response.EstatisticaPrecoResponse;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse;
 import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
 import com.galli.tinnova.dto.response.VeiculoResponse;
 import com.galli.tinnova.entity.Veiculo;
 import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.service.VeiculoLoteService;
 import com.galli.tinnova.service.VeiculoService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +44,8 @@ import java.util.Map;
 public class VeiculoController {
 
     private final VeiculoService veiculoService;
+    private final VeiculoLoteService veiculoLoteService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<Page<VeiculoResponse>> listar(
@@ -41,10 +62,51 @@ public class VeiculoController {
         return ResponseEntity.ok(page);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<VeiculoResponse>> listarPorCursor(
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) String cor,
+            @RequestParam(required = false) BigDecimal minPreco,
+            @RequestParam(required = false) BigDecimal maxPreco,
+            @RequestParam(required = false) String cursor,
+            Pageable pageable
+    ) {
+        CursorPageResponse<VeiculoResponse> page = veiculoService.listarPorCursor(
+                marca, ano, cor, minPreco, maxPreco, cursor, pageable
+        );
+
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(defaultValue = "ndjson") String formato
+    ) {
+        VeiculoLoteService.Formato tipo = switch (formato.toLowerCase()) {
+            case "csv" -> VeiculoLoteService.Formato.CSV;
+            case "ndjson" -> VeiculoLoteService.Formato.NDJSON;
+            default -> throw new IllegalArgumentException("Formato de exportação inválido: " + formato);
+        };
+
+        StreamingResponseBody body = saida -> veiculoLoteService.exportar(tipo, saida);
+
+        return ResponseEntity.ok()
+                .contentType(tipo == VeiculoLoteService.Formato.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=veiculos." + formato.toLowerCase())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<VeiculoResponse> detalhar(@PathVariable Long id) {
         VeiculoResponse response = veiculoService.detalhar(id);
-        return ResponseEntity.ok(response);
+        // com a ETag na resposta o Spring responde 304 sozinho quando o If-None-Match bate
+        return ResponseEntity.ok()
+                .eTag(VeiculoEtag.de(response))
+                .body(response);
     }
 
     @PostMapping
@@ -56,15 +118,71 @@ public class VeiculoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(veiculo);
     }
 
+    @PostMapping(
+            value = "/lote",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importarLote(
+            HttpServletRequest request
+    ) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        VeiculoLoteService.Formato formato = MediaType.parseMediaType("text/csv").includes(contentType)
+                ? VeiculoLoteService.Formato.CSV
+                : VeiculoLoteService.Formato.NDJSON;
+
+        Charset charset = contentType.getCharset() != null
+                ? contentType.getCharset()
+                : StandardCharsets.UTF_8;
+
+        BufferedReader leitor = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), charset)
+        );
+
+        StreamingResponseBody body = saida -> veiculoLoteService.importar(
+                leitor,
+                formato,
+                resultado -> escreverLinha(saida, resultado)
+        );
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping("/lote/remocao")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AlteracaoEmMassaResponse> removerEmMassa(
+            @RequestBody @Valid SelecaoVeiculosRequest request
+    ) {
+        long removidos = veiculoLoteService.removerEmMassa(request);
+        return ResponseEntity.ok(new AlteracaoEmMassaResponse(removidos));
+    }
+
+    @PostMapping("/lote/reajuste-preco")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AlteracaoEmMassaResponse> reajustarPreco(
+            @RequestBody @Valid ReajustePrecoRequest request
+    ) {
+        long reajustados = veiculoLoteService.reajustarPreco(request.selecao(), request.percentual());
+        return ResponseEntity.ok(new AlteracaoEmMassaResponse(reajustados));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Veiculo> atualizar(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody @Valid VeiculoRequest request
     ) {
-        Veiculo veiculo =
-                veiculoService.atualizar(id, VeiculoMapper.toEntity(request));
+        Veiculo veiculo = veiculoService.atualizar(
+                id,
+                VeiculoMapper.toEntity(request),
+                VeiculoEtag.versoesAceitas(ifMatch)
+        );
 
+        // sem ETag nas escritas (ver VeiculoEtag)
         return ResponseEntity.ok(veiculo);
     }
 
@@ -72,16 +190,22 @@ public class VeiculoController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Veiculo> atualizarParcial(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Object> campos
     ) {
-        Veiculo veiculo = veiculoService.atualizarParcial(id, campos);
+        Veiculo veiculo = veiculoService.atualizarParcial(
+                id, campos, VeiculoEtag.versoesAceitas(ifMatch)
+        );
         return ResponseEntity.ok(veiculo);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> remover(@PathVariable Long id) {
-        veiculoService.remover(id);
+    public ResponseEntity<Void> remover(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        veiculoService.remover(id, VeiculoEtag.versoesAceitas(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -92,4 +216,20 @@ public class VeiculoController {
 
         return ResponseEntity.ok(relatorio);
     }
+
+    @GetMapping("/relatorios/estatisticas")
+    public ResponseEntity<List<EstatisticaPrecoResponse>> estatisticas(
+            @RequestParam(defaultValue = "marca") String por
+    ) {
+        return ResponseEntity.ok(veiculoService.estatisticas(por));
+    }
+
+    private void escreverLinha(OutputStream saida, ResultadoImportacaoResponse resultado) {
+        try {
+            saida.write(objectMapper.writeValueAsBytes(resultado));
+            saida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.galli.tinnova.controller;
+
+import com.galli.tinnova.dto.response.VeiculoResponse;
+import com.galli.tinnova.exception.PreconditionFailedException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * ETags dos recursos de veículo.
+ * <p>
+ * A tag começa sempre pela versão do registro ({@code @Version}). No {@code GET /veiculos/{id}}
+ * ela também leva um hash do preço em BRL, que depende da cotação do dia: o corpo muda
+ * quando o dólar muda, mesmo sem alteração no registro. No {@code If-Match} só a versão
+ * importa, então tanto {@code "3"} quanto {@code "3-1a2b3c"} valem para a versão 3; o hash
+ * não é conferido, mas precisa ter o formato gerado aqui ({@code "3-zzz"} não corresponde).
+ * <p>
+ * Só o detalhe devolve ETag. As escritas respondem com a entidade, outra representação,
+ * e uma tag nelas nunca permitiria um 304 no {@code GET}; para encadear escritas o
+ * cliente usa {@code "<versao>"} com a versão que vem no corpo.
+ */
+final class VeiculoEtag {
+
+    private static final char SEPARADOR = '-';
+
+    // Integer.toHexString: de 1 a 8 dígitos hexadecimais minúsculos
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{1,8}");
+
+    private VeiculoEtag() {
+    }
+
+    static String de(VeiculoResponse response) {
+        int hashPreco = response.precoBrl() != null
+                ? response.precoBrl().stripTrailingZeros().hashCode()
+                : 0;
+        return "\"" + response.versao() + SEPARADOR + Integer.toHexString(hashPreco) + "\"";
+    }
+
+    /**
+     * Versões aceitas pelo {@code If-Match}; {@code null} quando o cabeçalho está ausente ou
+     * é {@code *} (o recurso só precisa existir).
+     * <p>
+     * O cabeçalho pode listar várias tags e basta uma corresponder. A comparação é forte,
+     * como pede a RFC 9110: tags fracas ({@code W/"3"}) nunca correspondem, assim como tags
+     * que não foram geradas aqui.
+     *
+     * @throws IllegalArgumentException    se o cabeçalho não for uma lista de ETags
+     * @throws PreconditionFailedException se nenhuma tag puder corresponder a um veículo
+     */
+    static Set<Long> versoesAceitas(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        Set<Long> versoes = new HashSet<>();
+        int i = 0;
+        int fim = ifMatch.length();
+        while (i < fim) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+
+            boolean fraca = ifMatch.startsWith("W/", i);
+            int abre = fraca ? i + 2 : i;
+            // a vírgula é válida dentro da tag, então o fim é a próxima aspa, não a próxima vírgula
+            int fecha = abre < fim && ifMatch.charAt(abre) == '"' ? ifMatch.indexOf('"', abre + 1) : -1;
+            if (fecha < 0) {
+                throw new IllegalArgumentException("If-Match inválido: " + ifMatch);
+            }
+
+            if (!fraca) {
+                Long versao = versao(ifMatch.substring(abre + 1, fecha));
+                if (versao != null) {
+                    versoes.add(versao);
+                }
+            }
+            i = fecha + 1;
+        }
+
+        if (versoes.isEmpty()) {
+            throw new PreconditionFailedException("ETag não corresponde ao veículo: " + ifMatch);
+        }
+        return versoes;
+    }
+
+    private static Long versao(String tag) {
+        int separador = tag.indexOf(SEPARADOR);
+        if (separador >= 0 && !HASH.matcher(tag).region(separador + 1, tag.length()).matches()) {
+            return null;
+        }
+
+        String versao = separador >= 0 ? tag.substring(0, separador) : tag;
+        try {
+            return Long.valueOf(versao);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.galli.tinnova.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Reajuste dos veículos selecionados; {@code percentual} é a variação em %
+ * ({@code 10} para +10%, {@code -5} para -5%), com até quatro casas decimais para que o
+ * fator caiba nas seis casas usadas no UPDATE. Uma redução de mais de 90% é recusada:
+ * levaria preços a zero, o que criação e atualização não aceitam.
+ */
+public record ReajustePrecoRequest(
+
+        @NotNull
+        @Valid
+        SelecaoVeiculosRequest selecao,
+
+        @NotNull
+        @DecimalMin("-90")
+        @DecimalMax("1000")
+        @Digits(integer = 4, fraction = 4)
+        BigDecimal percentual
+) {}
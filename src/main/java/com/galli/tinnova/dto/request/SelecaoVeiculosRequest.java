@@ -0,0 +1,37 @@
+package com.galli.tinnova.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Veículos alvo de uma operação em massa: uma lista de ids, os mesmos filtros da
+ * listagem ou ambos (os ids que também atendem aos filtros). Só veículos ativos
+ * são afetados.
+ */
+public record SelecaoVeiculosRequest(
+
+        @Size(max = 10_000)
+        List<Long> ids,
+
+        String marca,
+
+        Integer ano,
+
+        String cor,
+
+        BigDecimal minPreco,
+
+        BigDecimal maxPreco
+) {
+
+    public boolean vazia() {
+        return (ids == null || ids.isEmpty())
+                && marca == null
+                && ano == null
+                && cor == null
+                && minPreco == null
+                && maxPreco == null;
+    }
+}
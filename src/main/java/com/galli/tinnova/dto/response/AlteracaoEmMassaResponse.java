@@ -0,0 +1,5 @@
+package com.galli.tinnova.dto.response;
+
+public record AlteracaoEmMassaResponse(
+        long alterados
+) {}
@@ -0,0 +1,14 @@
+package com.galli.tinnova.dto.response;
+
+import java.math.BigDecimal;
+
+public record EstatisticaPrecoResponse(
+        String grupo,
+        Long quantidade,
+        BigDecimal minPrecoUsd,
+        BigDecimal maxPrecoUsd,
+        BigDecimal mediaPrecoUsd,
+        BigDecimal minPrecoBrl,
+        BigDecimal maxPrecoBrl,
+        BigDecimal mediaPrecoBrl
+) {}
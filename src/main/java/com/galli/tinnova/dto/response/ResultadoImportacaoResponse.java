@@ -0,0 +1,17 @@
+package com.galli.tinnova.dto.response;
+
+public record ResultadoImportacaoResponse(
+        long linha,
+        String placa,
+        Status status,
+        Long id,
+        String mensagem
+) {
+
+    public enum Status {
+        CRIADO,
+        INVALIDO,
+        CONFLITO,
+        ERRO
+    }
+}
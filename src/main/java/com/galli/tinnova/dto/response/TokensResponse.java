@@ -0,0 +1,6 @@
+package com.galli.tinnova.dto.response;
+
+public record TokensResponse(
+        String token,
+        String refreshToken
+) {}
@@ -11,5 +11,6 @@ public record VeiculoResponse(
         String cor,
         String placa,
         BigDecimal precoUsd,
-        BigDecimal precoBrl
+        BigDecimal precoBrl,
+        Long versao
 ) {}
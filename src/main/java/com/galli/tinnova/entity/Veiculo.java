@@ -2,11 +2,22 @@ package com.galli.tinnova.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "veiculos", uniqueConstraints = {@UniqueConstraint(columnNames = "placa")})
+@Table(
+        name = "veiculos",
+        uniqueConstraints = {@UniqueConstraint(columnNames = "placa")},
+        indexes = {
+                @Index(name = "idx_veiculos_ativo_marca_ano", columnList = "ativo, marca, ano"),
+                @Index(name = "idx_veiculos_ativo_ano", columnList = "ativo, ano"),
+                @Index(name = "idx_veiculos_ativo_cor", columnList = "ativo, cor"),
+                @Index(name = "idx_veiculos_ativo_preco", columnList = "ativo, precoUsd, id")
+        }
+)
+@DynamicUpdate
 @Getter
 @Setter
 @Builder
@@ -15,13 +26,16 @@ import java.math.BigDecimal;
 public class Veiculo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "veiculos_seq")
+    @SequenceGenerator(name = "veiculos_seq", sequenceName = "veiculos_seq", allocationSize = 50)
     private Long id;
 
+    @Column(nullable = false)
     private String marca;
 
     private String modelo;
 
+    @Column(nullable = false)
     private Integer ano;
 
     private String cor;
@@ -29,7 +43,11 @@ public class Veiculo {
     @Column(nullable = false, unique = true)
     private String placa;
 
+    @Column(nullable = false)
     private BigDecimal precoUsd;
 
     private Boolean ativo;
+
+    @Version
+    private Long versao;
 }
@@ -0,0 +1,7 @@
+package com.galli.tinnova.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,114 @@
+package com.galli.tinnova.mapper;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converte a posição de paginação por cursor (keyset) em um token opaco e vice-versa.
+ * O token carrega o campo de ordenação, a direção e os valores da última linha
+ * lida (campo de ordenação + id), de forma que a próxima página seja buscada
+ * com {@code WHERE (campo, id) > (valor, ultimoId)} em vez de OFFSET.
+ * Só colunas {@code NOT NULL} são ordenáveis: um NULL não tem posição nessa comparação.
+ */
+public class CursorMapper {
+
+    public static final Set<String> CAMPOS_ORDENAVEIS = Set.of("id", "marca", "ano", "precoUsd");
+
+    private static final String SEPARADOR = "|";
+
+    public record Cursor(Sort sort, ScrollPosition posicao) {}
+
+    public static Sort.Order validarOrdenacao(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Sort.Order.asc("id");
+        }
+
+        if (sort.stream().count() > 1) {
+            throw new IllegalArgumentException("Paginação por cursor aceita apenas um campo de ordenação");
+        }
+
+        Sort.Order order = sort.iterator().next();
+
+        if (!CAMPOS_ORDENAVEIS.contains(order.getProperty())) {
+            throw new IllegalArgumentException("Campo de ordenação inválido: " + order.getProperty());
+        }
+
+        return order;
+    }
+
+    public static Cursor decode(String token, Sort sortPadrao) {
+        if (token == null || token.isBlank()) {
+            return new Cursor(Sort.by(validarOrdenacao(sortPadrao)), ScrollPosition.keyset());
+        }
+
+        String[] partes;
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            partes = conteudo.split("\\" + SEPARADOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        if (partes.length != 4 || !CAMPOS_ORDENAVEIS.contains(partes[0])) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        String campo = partes[0];
+        Sort.Direction direcao = Sort.Direction.fromOptionalString(partes[1])
+                .orElseThrow(() -> new IllegalArgumentException("Cursor inválido"));
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(campo, converter(campo, partes[3]));
+            keys.put("id", Long.valueOf(partes[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        return new Cursor(Sort.by(direcao, campo), ScrollPosition.forward(keys));
+    }
+
+    public static String encode(Sort sort, ScrollPosition posicao) {
+        if (!(posicao instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Posição de cursor não suportada");
+        }
+
+        Sort.Order order = validarOrdenacao(sort);
+        Map<String, ?> keys = keyset.getKeys();
+
+        Object valor = keys.get(order.getProperty());
+        if (valor == null) {
+            throw new IllegalStateException("Valor nulo em campo de ordenação do cursor: " + order.getProperty());
+        }
+
+        String texto = valor instanceof BigDecimal decimal
+                ? decimal.toPlainString()
+                : String.valueOf(valor);
+
+        String conteudo = order.getProperty()
+                + SEPARADOR + order.getDirection().name()
+                + SEPARADOR + keys.get("id")
+                + SEPARADOR + texto;
+
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object converter(String campo, String valor) {
+        return switch (campo) {
+            case "id" -> Long.valueOf(valor);
+            case "ano" -> Integer.valueOf(valor);
+            case "precoUsd" -> new BigDecimal(valor);
+            default -> valor;
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.galli.tinnova.mapper;
+
+import com.galli.tinnova.dto.request.VeiculoRequest;
+import com.galli.tinnova.entity.Veiculo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura de linhas CSV (separador vírgula, campos opcionalmente entre aspas)
+ * no formato {@code marca,modelo,ano,cor,placa,precoBrl}. A ordem das colunas
+ * é definida pelo cabeçalho.
+ */
+public class VeiculoCsvMapper {
+
+    public static final List<String> COLUNAS =
+            List.of("marca", "modelo", "ano", "cor", "placa", "precoBrl");
+
+    public static final String CABECALHO_EXPORTACAO = "id,marca,modelo,ano,cor,placa,precoUsd";
+
+    public static Map<String, Integer> cabecalho(String linha) {
+        List<String> nomes = colunas(linha);
+        Map<String, Integer> indices = new HashMap<>();
+
+        for (int i = 0; i < nomes.size(); i++) {
+            indices.put(nomes.get(i).trim(), i);
+        }
+
+        for (String coluna : COLUNAS) {
+            if (!indices.containsKey(coluna)) {
+                throw new IllegalArgumentException("Cabeçalho CSV sem a coluna: " + coluna);
+            }
+        }
+
+        return indices;
+    }
+
+    public static VeiculoRequest toRequest(Map<String, Integer> cabecalho, String linha) {
+        List<String> valores = colunas(linha);
+
+        return new VeiculoRequest(
+                valor(cabecalho, valores, "marca"),
+                valor(cabecalho, valores, "modelo"),
+                inteiro(valor(cabecalho, valores, "ano")),
+                valor(cabecalho, valores, "cor"),
+                valor(cabecalho, valores, "placa"),
+                decimal(valor(cabecalho, valores, "precoBrl"))
+        );
+    }
+
+    public static void escrever(Veiculo veiculo, Appendable saida) throws IOException {
+        saida.append(String.valueOf(veiculo.getId())).append(',');
+        escaparCampo(veiculo.getMarca(), saida);
+        saida.append(',');
+        escaparCampo(veiculo.getModelo(), saida);
+        saida.append(',');
+        saida.append(veiculo.getAno() == null ? "" : veiculo.getAno().toString()).append(',');
+        escaparCampo(veiculo.getCor(), saida);
+        saida.append(',');
+        escaparCampo(veiculo.getPlaca(), saida);
+        saida.append(',');
+        saida.append(veiculo.getPrecoUsd() == null ? "" : veiculo.getPrecoUsd().toPlainString());
+        saida.append('\n');
+    }
+
+    static List<String> colunas(String linha) {
+        List<String> colunas = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                colunas.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+
+        colunas.add(atual.toString());
+        return colunas;
+    }
+
+    private static void escaparCampo(String valor, Appendable saida) throws IOException {
+        if (valor == null) {
+            return;
+        }
+
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            saida.append(valor);
+            return;
+        }
+
+        saida.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String valor(Map<String, Integer> cabecalho, List<String> valores, String coluna) {
+        int indice = cabecalho.get(coluna);
+        if (indice >= valores.size()) {
+            return null;
+        }
+
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static Integer inteiro(String valor) {
+        return valor == null ? null : Integer.valueOf(valor);
+    }
+
+    private static BigDecimal decimal(String valor) {
+        return valor == null ? null : new BigDecimal(valor);
+    }
+}
@@ -3,6 +3,7 @@ package com.galli.tinnova.mapper;
 import com.galli.tinnova.dto.request.VeiculoRequest;
 import com.galli.tinnova.dto.response.VeiculoResponse;
 import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.repository.VeiculoResumo;
 
 import java.math.BigDecimal;
 
@@ -28,7 +29,8 @@ public class VeiculoMapper {
                 veiculo.getCor(),
                 veiculo.getPlaca(),
                 veiculo.getPrecoUsd(),
-                null
+                null,
+                veiculo.getVersao()
         );
     }
 
@@ -41,7 +43,35 @@ public class VeiculoMapper {
                 veiculo.getCor(),
                 veiculo.getPlaca(),
                 veiculo.getPrecoUsd(),
-                precoBrl
+                precoBrl,
+                veiculo.getVersao()
+        );
+    }
+
+    public static VeiculoResumo toResumo(Veiculo veiculo) {
+        return new VeiculoResumo(
+                veiculo.getId(),
+                veiculo.getMarca(),
+                veiculo.getModelo(),
+                veiculo.getAno(),
+                veiculo.getCor(),
+                veiculo.getPlaca(),
+                veiculo.getPrecoUsd(),
+                veiculo.getVersao()
+        );
+    }
+
+    public static VeiculoResponse toResponse(VeiculoResumo veiculo, BigDecimal precoBrl) {
+        return new VeiculoResponse(
+                veiculo.id(),
+                veiculo.marca(),
+                veiculo.modelo(),
+                veiculo.ano(),
+                veiculo.cor(),
+                veiculo.placa(),
+                veiculo.precoUsd(),
+                precoBrl,
+                veiculo.versao()
         );
     }
 }
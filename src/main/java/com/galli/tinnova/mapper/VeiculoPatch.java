@@ -0,0 +1,219 @@
+package com.galli.tinnova.mapper;
+
+import com.galli.tinnova.entity.Veiculo;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Atualização parcial de um {@link Veiculo} a partir do corpo JSON de um PATCH.
+ * <p>
+ * Os campos aceitos e seus setters são montados uma única vez; cada PATCH só faz uma
+ * busca no mapa e chama o setter, sem reflection. Os valores são convertidos para o tipo
+ * do campo (por exemplo, {@code "2020"} ou {@code 2020.0} viram o {@code Integer} 2020)
+ * e validados como em {@link com.galli.tinnova.dto.request.VeiculoRequest}. Todos os
+ * campos são validados antes de qualquer um ser aplicado, então um PATCH inválido não
+ * altera o veículo.
+ */
+public final class VeiculoPatch {
+
+    private static final Set<String> NAO_ALTERAVEIS = Set.of("id", "ativo", "precoUsd");
+
+    private static final Map<String, Campo> CAMPOS = Arrays.stream(Campo.values())
+            .collect(Collectors.toUnmodifiableMap(Campo::nome, Function.identity()));
+
+    // valor convertido de cada campo, na posição do ordinal; null = campo ausente no PATCH
+    private final Object[] valores;
+
+    private VeiculoPatch(Object[] valores) {
+        this.valores = valores;
+    }
+
+    /**
+     * Valida e converte os campos do PATCH.
+     *
+     * @throws IllegalArgumentException se algum campo não existir, não puder ser alterado
+     *                                  ou tiver valor inválido
+     */
+    public static VeiculoPatch de(Map<String, Object> campos) {
+        Object[] valores = new Object[Campo.TOTAL];
+
+        for (Map.Entry<String, Object> entrada : campos.entrySet()) {
+            String nome = entrada.getKey();
+            Campo campo = CAMPOS.get(nome);
+
+            if (campo == null) {
+                throw new IllegalArgumentException(NAO_ALTERAVEIS.contains(nome)
+                        ? "Campo não pode ser alterado: " + nome
+                        : "Campo inválido: " + nome);
+            }
+            if (entrada.getValue() == null) {
+                throw new IllegalArgumentException("Campo " + nome + " não pode ser nulo");
+            }
+
+            valores[campo.ordinal()] = campo.conversor.converter(nome, entrada.getValue());
+        }
+
+        return new VeiculoPatch(valores);
+    }
+
+    /**
+     * Nova placa, ou {@code null} se o PATCH não altera a placa.
+     */
+    public String placa() {
+        return (String) valores[Campo.PLACA.ordinal()];
+    }
+
+    /**
+     * Indica se o PATCH pode ser gravado direto com um UPDATE, sem carregar o veículo:
+     * altera ao menos um campo e só mexe em {@code modelo} e {@code precoBrl}. {@code marca},
+     * {@code ano} e {@code cor} exigem os valores anteriores (relatório e etiquetas da
+     * listagem) lidos junto com a versão que o UPDATE confere; {@code placa} exige checar
+     * duplicidade.
+     */
+    public boolean simples() {
+        boolean algum = false;
+        for (Campo campo : Campo.TODOS) {
+            if (valores[campo.ordinal()] != null) {
+                if (campo != Campo.MODELO && campo != Campo.PRECO_BRL) {
+                    return false;
+                }
+                algum = true;
+            }
+        }
+        return algum;
+    }
+
+    /**
+     * Alterações por atributo da entidade ({@code precoBrl} vira {@code precoUsd}), para
+     * um UPDATE só das colunas alteradas.
+     */
+    public Map<String, Object> alteracoes(UnaryOperator<BigDecimal> brlParaUsd) {
+        Map<String, Object> alteracoes = new LinkedHashMap<>();
+        for (Campo campo : Campo.TODOS) {
+            Object valor = valores[campo.ordinal()];
+            if (valor != null) {
+                alteracoes.put(campo.atributo, campo == Campo.PRECO_BRL
+                        ? brlParaUsd.apply((BigDecimal) valor)
+                        : valor);
+            }
+        }
+        return alteracoes;
+    }
+
+    /**
+     * Aplica as alterações; {@code brlParaUsd} só é chamado se o PATCH trouxer {@code precoBrl}.
+     */
+    public void aplicar(Veiculo veiculo, UnaryOperator<BigDecimal> brlParaUsd) {
+        for (Campo campo : Campo.TODOS) {
+            Object valor = valores[campo.ordinal()];
+            if (valor != null) {
+                campo.setter.aplicar(veiculo, valor, brlParaUsd);
+            }
+        }
+    }
+
+    private static String texto(String campo, Object valor) {
+        if (!(valor instanceof String texto)) {
+            throw new IllegalArgumentException("Campo " + campo + " deve ser texto");
+        }
+        if (texto.isBlank()) {
+            throw new IllegalArgumentException("Campo " + campo + " não pode ser vazio");
+        }
+        return texto;
+    }
+
+    private static Integer inteiro(String campo, Object valor) {
+        try {
+            if (valor instanceof Integer inteiro) {
+                return inteiro;
+            }
+            if (valor instanceof Number || valor instanceof String) {
+                return decimal(valor).intValueExact();
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            // cai na mensagem abaixo
+        }
+        throw new IllegalArgumentException("Campo " + campo + " deve ser um número inteiro");
+    }
+
+    private static BigDecimal precoPositivo(String campo, Object valor) {
+        BigDecimal preco;
+        try {
+            preco = decimal(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Campo " + campo + " deve ser um número");
+        }
+
+        if (preco.signum() <= 0) {
+            throw new IllegalArgumentException("Campo " + campo + " deve ser maior que zero");
+        }
+        return preco;
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        if (valor instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (valor instanceof Integer || valor instanceof Long || valor instanceof Short || valor instanceof Byte) {
+            return BigDecimal.valueOf(((Number) valor).longValue());
+        }
+        if (valor instanceof BigInteger inteiro) {
+            return new BigDecimal(inteiro);
+        }
+        if (valor instanceof Double || valor instanceof Float) {
+            // pela representação decimal, sem os artefatos do binário (0.1 e não 0.1000000000000000055...)
+            return new BigDecimal(valor.toString());
+        }
+        if (valor instanceof String texto) {
+            return new BigDecimal(texto.trim());
+        }
+        throw new NumberFormatException();
+    }
+
+    private enum Campo {
+        MARCA("marca", "marca", VeiculoPatch::texto, (v, valor, brl) -> v.setMarca((String) valor)),
+        MODELO("modelo", "modelo", VeiculoPatch::texto, (v, valor, brl) -> v.setModelo((String) valor)),
+        ANO("ano", "ano", VeiculoPatch::inteiro, (v, valor, brl) -> v.setAno((Integer) valor)),
+        COR("cor", "cor", VeiculoPatch::texto, (v, valor, brl) -> v.setCor((String) valor)),
+        PLACA("placa", "placa", VeiculoPatch::texto, (v, valor, brl) -> v.setPlaca((String) valor)),
+        PRECO_BRL("precoBrl", "precoUsd", VeiculoPatch::precoPositivo,
+                (v, valor, brl) -> v.setPrecoUsd(brl.apply((BigDecimal) valor)));
+
+        static final Campo[] TODOS = values();
+        static final int TOTAL = TODOS.length;
+
+        private final String nome;
+        private final String atributo;
+        private final Conversor conversor;
+        private final Setter setter;
+
+        Campo(String nome, String atributo, Conversor conversor, Setter setter) {
+            this.nome = nome;
+            this.atributo = atributo;
+            this.conversor = conversor;
+            this.setter = setter;
+        }
+
+        String nome() {
+            return nome;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Conversor {
+        Object converter(String campo, Object valor);
+    }
+
+    @FunctionalInterface
+    private interface Setter {
+        void aplicar(Veiculo veiculo, Object valor, UnaryOperator<BigDecimal> brlParaUsd);
+    }
+}
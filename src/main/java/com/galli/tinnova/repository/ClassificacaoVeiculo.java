@@ -0,0 +1,18 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+
+/**
+ * Marca, ano e cor de um veículo: os campos pelos quais a listagem filtra por igualdade
+ * e que definem quais páginas em cache uma escrita pode afetar.
+ */
+public record ClassificacaoVeiculo(
+        String marca,
+        Integer ano,
+        String cor
+) {
+
+    public static ClassificacaoVeiculo de(Veiculo veiculo) {
+        return new ClassificacaoVeiculo(veiculo.getMarca(), veiculo.getAno(), veiculo.getCor());
+    }
+}
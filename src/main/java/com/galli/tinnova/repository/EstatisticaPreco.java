@@ -0,0 +1,15 @@
+package com.galli.tinnova.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Agregado de preços (em USD) de um grupo de veículos ativos, calculado numa única
+ * passada pelo banco. Guarda a soma em vez da média para que a média seja exata.
+ */
+public record EstatisticaPreco(
+        String grupo,
+        Long quantidade,
+        BigDecimal minimo,
+        BigDecimal maximo,
+        BigDecimal soma
+) {}
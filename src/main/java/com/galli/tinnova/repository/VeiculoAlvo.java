@@ -0,0 +1,17 @@
+package com.galli.tinnova.repository;
+
+/**
+ * Veículo selecionado para uma alteração em massa; marca, ano e cor são usados para
+ * atualizar a contagem por marca e invalidar as páginas da listagem em cache.
+ */
+public record VeiculoAlvo(
+        Long id,
+        String marca,
+        Integer ano,
+        String cor
+) {
+
+    public ClassificacaoVeiculo classificacao() {
+        return new ClassificacaoVeiculo(marca, ano, cor);
+    }
+}
@@ -0,0 +1,30 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Atualizações de veículo feitas com um único {@code UPDATE}, sem carregar a entidade.
+ */
+public interface VeiculoAtualizacaoRepository {
+
+    /**
+     * Altera apenas os atributos informados de um veículo ativo e incrementa a versão.
+     *
+     * @param valores        nome do atributo da entidade e novo valor
+     * @param versoesAceitas se não for nulo, o UPDATE só afeta o registro em uma dessas versões
+     * @return quantidade de registros alterados (0 ou 1)
+     */
+    int atualizarCampos(Long id, Map<String, Object> valores, Collection<Long> versoesAceitas);
+
+    /**
+     * Próximo bloco de veículos que atendem ao filtro, em ordem de id, trazendo só id, marca, ano e cor.
+     *
+     * @param aposId id do último veículo do bloco anterior, ou {@code null} no primeiro bloco
+     */
+    List<VeiculoAlvo> buscarAlvos(Specification<Veiculo> filtro, Long aposId, int limite);
+}
@@ -0,0 +1,75 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class VeiculoAtualizacaoRepositoryImpl implements VeiculoAtualizacaoRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int atualizarCampos(Long id, Map<String, Object> valores, Collection<Long> versoesAceitas) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Veiculo> update = cb.createCriteriaUpdate(Veiculo.class);
+        Root<Veiculo> veiculo = update.from(Veiculo.class);
+
+        valores.forEach(update::set);
+        update.set(veiculo.<Long>get("versao"), cb.sum(veiculo.get("versao"), 1L));
+
+        Predicate condicao = cb.and(
+                cb.equal(veiculo.get("id"), id),
+                cb.isTrue(veiculo.get("ativo"))
+        );
+        if (versoesAceitas != null) {
+            condicao = cb.and(condicao, veiculo.get("versao").in(versoesAceitas));
+        }
+        update.where(condicao);
+
+        // mesmo efeito de @Modifying(flushAutomatically = true, clearAutomatically = true):
+        // nada pendente é perdido e nenhuma entidade em memória fica com o estado antigo
+        entityManager.flush();
+        int alterados = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return alterados;
+    }
+
+    @Override
+    public List<VeiculoAlvo> buscarAlvos(Specification<Veiculo> filtro, Long aposId, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VeiculoAlvo> query = cb.createQuery(VeiculoAlvo.class);
+        Root<Veiculo> veiculo = query.from(Veiculo.class);
+
+        Predicate condicao = filtro.toPredicate(veiculo, query, cb);
+        if (aposId != null) {
+            condicao = cb.and(condicao, cb.greaterThan(veiculo.get("id"), aposId));
+        }
+
+        query.select(cb.construct(
+                        VeiculoAlvo.class,
+                        veiculo.get("id"),
+                        veiculo.get("marca"),
+                        veiculo.get("ano"),
+                        veiculo.get("cor")
+                ))
+                .where(condicao)
+                .orderBy(cb.asc(veiculo.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
@@ -2,39 +2,142 @@ package com.galli.tinnova.repository;
 
 import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
 import com.galli.tinnova.entity.Veiculo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
+public interface VeiculoRepository extends JpaRepository<Veiculo, Long>, JpaSpecificationExecutor<Veiculo>,
+        VeiculoAtualizacaoRepository {
 
     boolean existsByPlaca(String placa);
 
+    boolean existsByIdAndAtivoTrue(Long id);
+
     Optional<Veiculo> findByIdAndAtivoTrue(Long id);
 
     @Query("""
-        SELECT v FROM Veiculo v
-        WHERE v.ativo = true
-          AND (:marca IS NULL OR v.marca = :marca)
-          AND (:ano IS NULL OR v.ano = :ano)
-          AND (:cor IS NULL OR v.cor = :cor)
-          AND (:minPreco IS NULL OR v.precoUsd >= :minPreco)
-          AND (:maxPreco IS NULL OR v.precoUsd <= :maxPreco)
-    """)
-    Page<Veiculo> filtrar(
-            @Param("marca") String marca,
-            @Param("ano") Integer ano,
-            @Param("cor") String cor,
-            @Param("minPreco") BigDecimal minPreco,
-            @Param("maxPreco") BigDecimal maxPreco,
+        select new com.galli.tinnova.repository.VeiculoResumo(
+            v.id, v.marca, v.modelo, v.ano, v.cor, v.placa, v.precoUsd, v.versao
+        )
+        from Veiculo v
+        where v.id = :id and v.ativo = true
+    """)
+    Optional<VeiculoResumo> buscarResumo(@Param("id") Long id);
+
+    @Query("""
+        select new com.galli.tinnova.repository.VeiculoResumo(
+            v.id, v.marca, v.modelo, v.ano, v.cor, v.placa, v.precoUsd, v.versao
+        )
+        from Veiculo v
+        where v.id in :ids and v.ativo = true
+    """)
+    List<VeiculoResumo> buscarResumos(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        select new com.galli.tinnova.repository.ClassificacaoVeiculo(v.marca, v.ano, v.cor)
+        from Veiculo v
+        where v.id = :id
+    """)
+    Optional<ClassificacaoVeiculo> buscarClassificacao(@Param("id") Long id);
+
+    /**
+     * Soft delete em um único UPDATE, sem carregar o veículo.
+     *
+     * @return 1 se o veículo estava ativo, 0 caso contrário
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        update Veiculo v
+        set v.ativo = false, v.versao = v.versao + 1
+        where v.id = :id and v.ativo = true
+    """)
+    int desativar(@Param("id") Long id);
+
+    /**
+     * Como {@link #desativar(Long)}, mas só se o veículo estiver em uma das versões informadas.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        update Veiculo v
+        set v.ativo = false, v.versao = v.versao + 1
+        where v.id = :id and v.ativo = true and v.versao in :versoes
+    """)
+    int desativarNasVersoes(@Param("id") Long id, @Param("versoes") Collection<Long> versoes);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        update Veiculo v
+        set v.ativo = false, v.versao = v.versao + 1
+        where v.id in :ids and v.ativo = true
+    """)
+    int desativarTodos(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Multiplica o preço em USD dos veículos ativos informados por {@code fator},
+     * arredondando para centavos. O cast evita que o banco infira o tipo do parâmetro
+     * pela coluna ({@code numeric(38, 2)}) e corte o fator em duas casas. Veículos cujo
+     * preço arredondado ficaria zero não são alterados nem contados.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        update Veiculo v
+        set v.precoUsd = round(v.precoUsd * cast(:fator as BigDecimal(12, 6)), 2), v.versao = v.versao + 1
+        where v.id in :ids and v.ativo = true
+          and round(v.precoUsd * cast(:fator as BigDecimal(12, 6)), 2) > 0
+    """)
+    int reajustarPrecos(@Param("ids") Collection<Long> ids, @Param("fator") BigDecimal fator);
+
+    @Query("select v.placa from Veiculo v where v.placa in :placas")
+    Set<String> buscarPlacasExistentes(@Param("placas") Collection<String> placas);
+
+    /**
+     * Lista veículos ativos aplicando apenas os filtros informados. Cada combinação
+     * de filtros gera um SQL próprio, sem {@code :param IS NULL OR ...}, o que permite
+     * ao banco usar índices e reaproveitar o plano do prepared statement.
+     */
+    default Page<Veiculo> filtrar(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco,
             Pageable pageable
-    );
+    ) {
+        return findAll(
+                VeiculoSpecifications.filtrar(marca, ano, cor, minPreco, maxPreco),
+                pageable
+        );
+    }
+
+    /**
+     * Percorre todos os veículos ativos com um cursor forward-only; precisa ser
+     * consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select v from Veiculo v where v.ativo = true order by v.id")
+    Stream<Veiculo> streamAtivos();
 
     @Query("""
         select new com.galli.tinnova.dto.response.VeiculoPorMarcaResponse(
@@ -46,4 +149,49 @@ public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
         group by v.marca
     """)
     List<VeiculoPorMarcaResponse> relatorioPorMarca();
+
+    @Query("""
+        select new com.galli.tinnova.repository.EstatisticaPreco(
+            v.marca,
+            count(v),
+            min(v.precoUsd),
+            max(v.precoUsd),
+            sum(v.precoUsd)
+        )
+        from Veiculo v
+        where v.ativo = true
+        group by v.marca
+        order by v.marca
+    """)
+    List<EstatisticaPreco> estatisticasPorMarca();
+
+    @Query("""
+        select new com.galli.tinnova.repository.EstatisticaPreco(
+            cast(v.ano as String),
+            count(v),
+            min(v.precoUsd),
+            max(v.precoUsd),
+            sum(v.precoUsd)
+        )
+        from Veiculo v
+        where v.ativo = true
+        group by v.ano
+        order by v.ano
+    """)
+    List<EstatisticaPreco> estatisticasPorAno();
+
+    @Query("""
+        select new com.galli.tinnova.repository.EstatisticaPreco(
+            v.cor,
+            count(v),
+            min(v.precoUsd),
+            max(v.precoUsd),
+            sum(v.precoUsd)
+        )
+        from Veiculo v
+        where v.ativo = true
+        group by v.cor
+        order by v.cor
+    """)
+    List<EstatisticaPreco> estatisticasPorCor();
 }
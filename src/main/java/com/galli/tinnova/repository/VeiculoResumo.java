@@ -0,0 +1,23 @@
+package com.galli.tinnova.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Dados de um veículo ativo guardados no cache de detalhe; o preço em BRL não entra,
+ * porque depende da cotação do momento da leitura.
+ */
+public record VeiculoResumo(
+        Long id,
+        String marca,
+        String modelo,
+        Integer ano,
+        String cor,
+        String placa,
+        BigDecimal precoUsd,
+        Long versao
+) {
+
+    public ClassificacaoVeiculo classificacao() {
+        return new ClassificacaoVeiculo(marca, ano, cor);
+    }
+}
@@ -0,0 +1,55 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class VeiculoSpecifications {
+
+    private VeiculoSpecifications() {
+    }
+
+    /**
+     * Monta o filtro de veículos ativos adicionando apenas os predicados
+     * efetivamente informados, sem cláusulas do tipo {@code :param IS NULL OR ...}.
+     */
+    public static Specification<Veiculo> filtrar(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco
+    ) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            predicates.add(cb.isTrue(root.<Boolean>get("ativo")));
+
+            if (marca != null) {
+                predicates.add(cb.equal(root.get("marca"), marca));
+            }
+
+            if (ano != null) {
+                predicates.add(cb.equal(root.get("ano"), ano));
+            }
+
+            if (cor != null) {
+                predicates.add(cb.equal(root.get("cor"), cor));
+            }
+
+            if (minPreco != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("precoUsd"), minPreco));
+            }
+
+            if (maxPreco != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("precoUsd"), maxPreco));
+            }
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
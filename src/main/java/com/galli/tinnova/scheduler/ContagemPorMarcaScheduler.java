@@ -0,0 +1,31 @@
+package com.galli.tinnova.scheduler;
+
+import com.galli.tinnova.service.relatorio.ContagemPorMarca;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verificação de consistência do relatório por marca: compara periodicamente as contagens
+ * mantidas em memória com um {@code GROUP BY} no banco e corrige as divergências.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContagemPorMarcaScheduler {
+
+    private final ContagemPorMarca contagemPorMarca;
+
+    @Scheduled(
+            initialDelayString = "${veiculos.relatorio.reconciliacao:PT5M}",
+            fixedDelayString = "${veiculos.relatorio.reconciliacao:PT5M}"
+    )
+    public void reconciliar() {
+        try {
+            contagemPorMarca.reconciliar();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao reconciliar contagem por marca: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.galli.tinnova.scheduler;
+
+import com.galli.tinnova.service.DollarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresh-ahead da cotação USD → BRL: regrava o cache antes do TTL de 10 minutos vencer,
+ * de modo que as requisições não paguem a chamada aos provedores quando a entrada expira.
+ * <p>
+ * Se a atualização falhar a entrada atual continua valendo até expirar; a próxima
+ * execução tenta de novo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "cotacao.refresh-ahead.habilitado", havingValue = "true", matchIfMissing = true)
+public class CotacaoRefreshScheduler {
+
+    private final DollarService dollarService;
+
+    @Scheduled(
+            initialDelayString = "${cotacao.refresh-ahead.intervalo:PT8M}",
+            fixedDelayString = "${cotacao.refresh-ahead.intervalo:PT8M}"
+    )
+    public void atualizar() {
+        try {
+            dollarService.atualizarUsdToBrl();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao atualizar cotação USD → BRL em segundo plano: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.galli.tinnova.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia uma ação para depois do commit da transação corrente, ou executa na hora fora de
+ * transação. Usado para efeitos fora do banco (cache, contadores em memória) que não devem
+ * valer para uma escrita revertida nem ser desfeitos por uma leitura anterior ao commit.
+ * <p>
+ * Uma falha na ação não desfaz a escrita já confirmada; quem chama registra e segue.
+ */
+public final class AposCommit {
+
+    private AposCommit() {
+    }
+
+    public static void executar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -4,4 +4,9 @@ import java.math.BigDecimal;
 
 public interface DollarService {
     BigDecimal getUsdToBrl();
+
+    /**
+     * Consulta os provedores e regrava a cotação no cache, sem fallback para valor antigo.
+     */
+    BigDecimal atualizarUsdToBrl();
 }
@@ -0,0 +1,30 @@
+package com.galli.tinnova.service;
+
+import com.galli.tinnova.dto.response.TokensResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+
+    /**
+     * Autentica fora da thread da requisição e devolve o access token e o refresh token.
+     *
+     * @throws com.galli.tinnova.exception.TooManyRequestsException se o usuário ou o IP excederam o limite de tentativas
+     * @throws com.galli.tinnova.exception.ServiceUnavailableException se a fila de logins estiver cheia
+     */
+    CompletableFuture<TokensResponse> login(String username, String password, String ip);
+
+    /**
+     * Troca um refresh token por um novo par. O refresh token usado é revogado; reapresentá-lo
+     * é recusado.
+     *
+     * @throws org.springframework.security.authentication.BadCredentialsException se o token for inválido,
+     *         não for um refresh token ou já tiver sido usado
+     */
+    TokensResponse renovar(String refreshToken);
+
+    /**
+     * Revoga o refresh token e, se informado, o access token da sessão.
+     */
+    void logout(String refreshToken, String accessToken);
+}
@@ -0,0 +1,41 @@
+package com.galli.tinnova.service;
+
+import com.galli.tinnova.dto.request.SelecaoVeiculosRequest;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+public interface VeiculoLoteService {
+
+    enum Formato {
+        NDJSON,
+        CSV
+    }
+
+    void importar(
+            BufferedReader leitor,
+            Formato formato,
+            Consumer<ResultadoImportacaoResponse> resultado
+    ) throws IOException;
+
+    void exportar(Formato formato, OutputStream saida) throws IOException;
+
+    /**
+     * Soft delete dos veículos selecionados, em blocos com um UPDATE cada.
+     *
+     * @return quantidade de veículos removidos
+     */
+    long removerEmMassa(SelecaoVeiculosRequest selecao);
+
+    /**
+     * Reajusta o preço dos veículos selecionados em {@code percentual}%, em blocos
+     * com um UPDATE cada.
+     *
+     * @return quantidade de veículos reajustados
+     */
+    long reajustarPreco(SelecaoVeiculosRequest selecao, BigDecimal percentual);
+}
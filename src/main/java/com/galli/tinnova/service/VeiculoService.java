@@ -1,5 +1,7 @@
 package com.galli.tinnova.service;
 
+import com.galli.tinnova.dto.response.CursorPageResponse;
+import com.galli.tinnova.dto.response.EstatisticaPrecoResponse;
 import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
 import com.galli.tinnova.dto.response.VeiculoResponse;
 import com.galli.tinnova.entity.Veiculo;
@@ -9,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface VeiculoService {
 
@@ -21,17 +24,48 @@ public interface VeiculoService {
             Pageable pageable
     );
 
+    CursorPageResponse<VeiculoResponse> listarPorCursor(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco,
+            String cursor,
+            Pageable pageable
+    );
+
     Veiculo buscarPorId(Long id);
 
     Veiculo criar(Veiculo veiculo);
 
-    Veiculo atualizar(Long id, Veiculo veiculo);
+    /**
+     * @param versoesAceitas versões informadas no {@code If-Match}; {@code null} atualiza
+     *                       sem condição
+     * @throws com.galli.tinnova.exception.PreconditionFailedException se a versão atual
+     *                                                                 não estiver entre elas
+     */
+    Veiculo atualizar(Long id, Veiculo veiculo, Set<Long> versoesAceitas);
 
-    Veiculo atualizarParcial(Long id, Map<String, Object> campos);
+    /**
+     * @param versoesAceitas versões informadas no {@code If-Match}; {@code null} atualiza
+     *                       sem condição
+     */
+    Veiculo atualizarParcial(Long id, Map<String, Object> campos, Set<Long> versoesAceitas);
 
-    void remover(Long id);
+    /**
+     * @param versoesAceitas versões informadas no {@code If-Match}; {@code null} remove
+     *                       sem condição
+     */
+    void remover(Long id, Set<Long> versoesAceitas);
 
     VeiculoResponse detalhar(Long id);
 
     List<VeiculoPorMarcaResponse> relatorioPorMarca();
+
+    /**
+     * Quantidade e preço mínimo, máximo e médio (USD e BRL) dos veículos ativos, por grupo.
+     *
+     * @param agrupamento {@code marca}, {@code ano} ou {@code cor}
+     */
+    List<EstatisticaPrecoResponse> estatisticas(String agrupamento);
 }
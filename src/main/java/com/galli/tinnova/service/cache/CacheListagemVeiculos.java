@@ -0,0 +1,307 @@
+package com.galli.tinnova.service.cache;
+
+import com.galli.tinnova.config.cache.CacheEmLote;
+import com.galli.tinnova.config.cache.CodecCache;
+import com.galli.tinnova.config.cache.DeclaracaoCache;
+import com.galli.tinnova.config.cache.PropriedadesCache;
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.VeiculoResumo;
+import com.galli.tinnova.service.AposCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache das páginas da listagem filtrada (chave: filtros normalizados + página, tamanho e
+ * ordenação). Cada página guarda só os ids e o total; o conteúdo vem do {@link CacheVeiculos}.
+ * <p>
+ * Cada página recebe uma etiqueta conforme o filtro de igualdade mais seletivo:
+ * {@code marca:X}, senão {@code ano:X}, senão {@code cor:X}, senão {@code *}. No Redis, um
+ * conjunto por etiqueta guarda as chaves das páginas. Uma escrita num veículo descarta só as
+ * páginas das etiquetas da sua marca, ano e cor (antes e depois da alteração) e as de
+ * {@code *}; a listagem de outra marca continua em cache.
+ * <p>
+ * Cada etiqueta tem também uma geração, incrementada a cada invalidação. A página montada
+ * numa falta só fica em cache se a geração da etiqueta não mudou durante a consulta; assim
+ * uma consulta que leu o dado antigo não sobrevive a uma invalidação concorrente.
+ * <p>
+ * Se o Redis estiver indisponível a listagem vai direto ao banco, como se não houvesse cache.
+ */
+@Slf4j
+@Component
+public class CacheListagemVeiculos {
+
+    public static final String CACHE = "veiculos-listagem";
+
+    /**
+     * Formato da {@link PaginaEmCache} no Redis: total e ids como inteiros variáveis.
+     */
+    public static final CodecCache<PaginaEmCache> CODEC = CodecCache.de(
+            PaginaEmCache.class,
+            (pagina, saida) -> {
+                CodecCache.escreverVarLong(pagina.total(), saida);
+                CodecCache.escreverVarLong(pagina.ids().size(), saida);
+                for (Long id : pagina.ids()) {
+                    CodecCache.escreverVarLong(id, saida);
+                }
+            },
+            entrada -> {
+                long total = CodecCache.lerVarLong(entrada);
+                int tamanho = Math.toIntExact(CodecCache.lerVarLong(entrada));
+                List<Long> ids = new ArrayList<>(tamanho);
+                for (int i = 0; i < tamanho; i++) {
+                    ids.add(CodecCache.lerVarLong(entrada));
+                }
+                return new PaginaEmCache(ids, total);
+            }
+    );
+
+    @Bean
+    static DeclaracaoCache declaracaoCacheListagem() {
+        return DeclaracaoCache.com(CACHE, CODEC);
+    }
+
+    static final String METRICA_LEITURAS = "veiculos.listagem.cache.gets";
+    static final String METRICA_ACERTO = "veiculos.listagem.cache.hit.ratio";
+
+    private static final String TODAS = "*";
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheVeiculos cacheVeiculos;
+    private final Duration ttlEtiquetas;
+    private final String prefixoEtiqueta;
+    private final String prefixoGeracao;
+
+    private final Counter acertos;
+    private final Counter faltas;
+
+    public CacheListagemVeiculos(
+            CacheManager cacheManager,
+            StringRedisTemplate redisTemplate,
+            CacheVeiculos cacheVeiculos,
+            MeterRegistry meterRegistry,
+            PropriedadesCache propriedades
+    ) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.cacheVeiculos = cacheVeiculos;
+        this.ttlEtiquetas = propriedades.ttlEtiquetas(CACHE);
+        this.prefixoEtiqueta = propriedades.prefixoChaves(CACHE) + "etiqueta:";
+        this.prefixoGeracao = propriedades.prefixoChaves(CACHE) + "geracao:";
+
+        this.acertos = contador(meterRegistry, "hit");
+        this.faltas = contador(meterRegistry, "miss");
+        Gauge.builder(METRICA_ACERTO, this, CacheListagemVeiculos::taxaDeAcerto)
+                .description("Fração das leituras da listagem atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Página da listagem; {@code consulta} só é executada numa falta. Requisições sem
+     * paginação não passam pelo cache.
+     */
+    public Page<VeiculoResumo> buscar(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco,
+            Pageable pageable,
+            Supplier<Page<Veiculo>> consulta
+    ) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null || pageable.isUnpaged()) {
+            return consulta.get().map(VeiculoMapper::toResumo);
+        }
+
+        String chave = chave(marca, ano, cor, minPreco, maxPreco, pageable);
+        String etiqueta = etiqueta(marca, ano, cor);
+
+        try {
+            PaginaEmCache emCache = cache.get(chave, PaginaEmCache.class);
+            if (emCache != null) {
+                List<VeiculoResumo> veiculos = cacheVeiculos.buscarTodos(emCache.ids());
+                // um veículo da página sumiu sem que a página fosse descartada: remonta
+                if (veiculos.size() == emCache.ids().size()) {
+                    acertos.increment();
+                    return new PageImpl<>(veiculos, pageable, emCache.total());
+                }
+            }
+            faltas.increment();
+
+            String geracao = redisTemplate.opsForValue().get(prefixoGeracao + etiqueta);
+            Page<VeiculoResumo> pagina = consulta.get().map(VeiculoMapper::toResumo);
+            guardar(cache, chave, etiqueta, geracao, pagina);
+            return pagina;
+        } catch (DataAccessException e) {
+            log.debug("Cache da listagem indisponível, lendo do banco: {}", e.getMessage());
+            return consulta.get().map(VeiculoMapper::toResumo);
+        }
+    }
+
+    /**
+     * Descarta as páginas que podem conter veículos com as classificações informadas.
+     * Dentro de uma transação o descarte só acontece após o commit.
+     */
+    public void invalidar(Collection<ClassificacaoVeiculo> classificacoes) {
+        Set<String> etiquetas = classificacoes.stream()
+                .filter(Objects::nonNull)
+                .flatMap(c -> etiquetas(c).stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (etiquetas.isEmpty()) {
+            return;
+        }
+        etiquetas.add(TODAS);
+
+        AposCommit.executar(() -> descartar(etiquetas));
+    }
+
+    public void invalidar(ClassificacaoVeiculo... classificacoes) {
+        invalidar(Arrays.asList(classificacoes));
+    }
+
+    static String chave(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco,
+            Pageable pageable
+    ) {
+        String ordenacao = pageable.getSort().stream()
+                .map(ordem -> codificar(ordem.getProperty()) + ":" + ordem.getDirection()
+                        + (ordem.isIgnoreCase() ? ":i" : ""))
+                .collect(Collectors.joining(","));
+
+        return "marca=" + codificar(marca)
+                + "&ano=" + (ano != null ? ano : "")
+                + "&cor=" + codificar(cor)
+                + "&min=" + decimal(minPreco)
+                + "&max=" + decimal(maxPreco)
+                + "&pagina=" + pageable.getPageNumber()
+                + "&tamanho=" + pageable.getPageSize()
+                + "&ordem=" + ordenacao;
+    }
+
+    static String etiqueta(String marca, Integer ano, String cor) {
+        if (marca != null) {
+            return "marca:" + marca;
+        }
+        if (ano != null) {
+            return "ano:" + ano;
+        }
+        if (cor != null) {
+            return "cor:" + cor;
+        }
+        return TODAS;
+    }
+
+    double taxaDeAcerto() {
+        double total = acertos.count() + faltas.count();
+        return total == 0 ? 0 : acertos.count() / total;
+    }
+
+    private void guardar(Cache cache, String chave, String etiqueta, String geracao, Page<VeiculoResumo> pagina) {
+        String conjunto = prefixoEtiqueta + etiqueta;
+        redisTemplate.opsForSet().add(conjunto, chave);
+        redisTemplate.expire(conjunto, ttlEtiquetas);
+
+        List<Long> ids = new ArrayList<>(pagina.getNumberOfElements());
+        pagina.forEach(veiculo -> ids.add(veiculo.id()));
+        cache.put(chave, new PaginaEmCache(ids, pagina.getTotalElements()));
+
+        // invalidada durante a consulta: a página pode ter lido o dado antigo
+        if (!Objects.equals(geracao, redisTemplate.opsForValue().get(prefixoGeracao + etiqueta))) {
+            cache.evict(chave);
+        }
+    }
+
+    private void descartar(Set<String> etiquetas) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+
+        try {
+            for (String etiqueta : etiquetas) {
+                // a geração sobe antes de ler o conjunto: quem guardar uma página depois disso
+                // vê a geração nova e a descarta
+                redisTemplate.opsForValue().increment(prefixoGeracao + etiqueta);
+
+                String conjunto = prefixoEtiqueta + etiqueta;
+                Set<String> chaves = redisTemplate.opsForSet().members(conjunto);
+                if (chaves == null || chaves.isEmpty()) {
+                    continue;
+                }
+                // remove só as chaves lidas, preservando as adicionadas no meio do caminho
+                redisTemplate.opsForSet().remove(conjunto, chaves.toArray());
+                CacheEmLote.descartar(cache, chaves);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Falha ao invalidar a listagem de veículos em cache: {}", e.getMessage());
+        }
+    }
+
+    private static Set<String> etiquetas(ClassificacaoVeiculo classificacao) {
+        Set<String> etiquetas = new LinkedHashSet<>();
+        if (classificacao.marca() != null) {
+            etiquetas.add("marca:" + classificacao.marca());
+        }
+        if (classificacao.ano() != null) {
+            etiquetas.add("ano:" + classificacao.ano());
+        }
+        if (classificacao.cor() != null) {
+            etiquetas.add("cor:" + classificacao.cor());
+        }
+        return etiquetas;
+    }
+
+    private static String codificar(String valor) {
+        return valor != null ? URLEncoder.encode(valor, StandardCharsets.UTF_8) : "";
+    }
+
+    // 100, 100.0 e 1E+2 são o mesmo filtro
+    private static String decimal(BigDecimal valor) {
+        return valor != null ? valor.stripTrailingZeros().toPlainString() : "";
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder(METRICA_LEITURAS)
+                .description("Leituras da listagem de veículos em cache")
+                .tag("result", resultado)
+                .register(registry);
+    }
+
+    /**
+     * Página em cache: ids na ordem da listagem e o total de elementos do filtro.
+     */
+    public record PaginaEmCache(List<Long> ids, long total) {
+    }
+}
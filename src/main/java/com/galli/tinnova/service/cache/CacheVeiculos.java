@@ -0,0 +1,278 @@
+package com.galli.tinnova.service.cache;
+
+import com.galli.tinnova.config.cache.CacheEmLote;
+import com.galli.tinnova.config.cache.CodecCache;
+import com.galli.tinnova.config.cache.DeclaracaoCache;
+import com.galli.tinnova.config.cache.PropriedadesCache;
+import com.galli.tinnova.exception.NotFoundException;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoResumo;
+import com.galli.tinnova.service.AposCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache de leitura do detalhe de veículos ativos (chave: id), nas duas camadas do
+ * {@link CacheManager}. Na falta, o veículo é lido com uma projeção só das colunas do
+ * detalhe. Toda escrita em veículos chama {@link #invalidar}, que descarta as entradas
+ * afetadas depois do commit.
+ * <p>
+ * Descartar depois do commit não basta: uma leitura que consultou o banco antes do commit
+ * pode gravar o valor antigo depois do descarte, e ele ficaria o TTL inteiro servindo uma
+ * versão (e um ETag) vencida. Por isso cada id tem uma geração no Redis, incrementada a cada
+ * descarte; o valor carregado numa falta é descartado de novo se a geração mudou durante a
+ * consulta, como nas páginas do {@link CacheListagemVeiculos}.
+ * <p>
+ * Se o Redis estiver indisponível a leitura vai direto ao banco, como se não houvesse cache.
+ */
+@Slf4j
+@Component
+public class CacheVeiculos {
+
+    public static final String CACHE = "veiculos";
+
+    // bem acima do tempo de uma consulta; depois disso nenhuma leitura em curso depende dela
+    private static final Duration TTL_GERACAO = Duration.ofHours(1);
+
+    /**
+     * Formato do {@link VeiculoResumo} no Redis.
+     */
+    public static final CodecCache<VeiculoResumo> CODEC = CodecCache.de(
+            VeiculoResumo.class,
+            (veiculo, saida) -> {
+                CodecCache.escreverLongo(veiculo.id(), saida);
+                CodecCache.escreverTexto(veiculo.marca(), saida);
+                CodecCache.escreverTexto(veiculo.modelo(), saida);
+                CodecCache.escreverInteiro(veiculo.ano(), saida);
+                CodecCache.escreverTexto(veiculo.cor(), saida);
+                CodecCache.escreverTexto(veiculo.placa(), saida);
+                CodecCache.escreverDecimal(veiculo.precoUsd(), saida);
+                CodecCache.escreverLongo(veiculo.versao(), saida);
+            },
+            entrada -> new VeiculoResumo(
+                    CodecCache.lerLongo(entrada),
+                    CodecCache.lerTexto(entrada),
+                    CodecCache.lerTexto(entrada),
+                    CodecCache.lerInteiro(entrada),
+                    CodecCache.lerTexto(entrada),
+                    CodecCache.lerTexto(entrada),
+                    CodecCache.lerDecimal(entrada),
+                    CodecCache.lerLongo(entrada)
+            )
+    );
+
+    @Bean
+    static DeclaracaoCache declaracaoCacheVeiculos() {
+        return DeclaracaoCache.com(CACHE, CODEC);
+    }
+
+    private final VeiculoRepository repository;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final String prefixoGeracao;
+
+    public CacheVeiculos(VeiculoRepository repository,
+                         CacheManager cacheManager,
+                         StringRedisTemplate redisTemplate,
+                         PropriedadesCache propriedades) {
+        this.repository = repository;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.prefixoGeracao = propriedades.prefixoChaves(CACHE) + "geracao:";
+    }
+
+    /**
+     * @throws NotFoundException se não houver veículo ativo com o id
+     */
+    public VeiculoResumo buscar(Long id) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return carregar(id);
+        }
+
+        try {
+            Carga carga = new Carga(id);
+            VeiculoResumo resumo = cache.get(id, carga);
+            if (carga.executada) {
+                descartarSeInvalidados(cache, Collections.singletonMap(id, carga.geracao));
+            }
+            return resumo;
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof DataAccessException causa) {
+                log.debug("Cache de veículos indisponível, lendo do banco: {}", causa.getMessage());
+                return carregar(id);
+            }
+            // exceção do próprio carregamento, como o NotFoundException
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        } catch (DataAccessException e) {
+            log.debug("Cache de veículos indisponível, lendo do banco: {}", e.getMessage());
+            return carregar(id);
+        }
+    }
+
+    /**
+     * Busca vários veículos de uma vez: os que estão em cache vêm de lá numa única ida ao
+     * Redis e os demais são lidos numa única consulta e guardados. Devolve na ordem de {@code ids}, sem os
+     * veículos que não existem mais ou foram desativados.
+     */
+    public List<VeiculoResumo> buscarTodos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return ordenar(ids, repository.buscarResumos(ids));
+        }
+
+        try {
+            Map<Long, VeiculoResumo> encontrados = CacheEmLote.buscar(cache, ids, VeiculoResumo.class);
+            List<Long> faltantes = ids.stream().filter(id -> !encontrados.containsKey(id)).distinct().toList();
+
+            if (!faltantes.isEmpty()) {
+                List<String> geracoes = geracoes(faltantes);
+                Map<Long, String> geracaoPorId = new HashMap<>(faltantes.size());
+                for (int i = 0; i < faltantes.size(); i++) {
+                    geracaoPorId.put(faltantes.get(i), geracoes.get(i));
+                }
+
+                Map<Long, String> guardados = new HashMap<>(faltantes.size());
+                for (VeiculoResumo resumo : repository.buscarResumos(faltantes)) {
+                    cache.put(resumo.id(), resumo);
+                    encontrados.put(resumo.id(), resumo);
+                    guardados.put(resumo.id(), geracaoPorId.get(resumo.id()));
+                }
+                descartarSeInvalidados(cache, guardados);
+            }
+
+            return ids.stream().map(encontrados::get).filter(Objects::nonNull).toList();
+        } catch (DataAccessException e) {
+            log.debug("Cache de veículos indisponível, lendo do banco: {}", e.getMessage());
+            return ordenar(ids, repository.buscarResumos(ids));
+        }
+    }
+
+    public void invalidar(Long id) {
+        invalidar(List.of(id));
+    }
+
+    /**
+     * Descarta os veículos do cache e avança a geração de cada um. Dentro de uma transação
+     * isso só acontece após o commit.
+     */
+    public void invalidar(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        AposCommit.executar(() -> descartar(ids));
+    }
+
+    private VeiculoResumo carregar(Long id) {
+        return repository.buscarResumo(id)
+                .orElseThrow(() -> new NotFoundException("Veículo não encontrado"));
+    }
+
+    /**
+     * Descarta as entradas recém-guardadas cuja geração mudou desde antes da consulta ao banco.
+     */
+    private void descartarSeInvalidados(Cache cache, Map<Long, String> antes) {
+        if (antes.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(antes.keySet());
+        List<String> depois = geracoes(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            if (!Objects.equals(antes.get(ids.get(i)), depois.get(i))) {
+                cache.evict(ids.get(i));
+            }
+        }
+    }
+
+    private List<String> geracoes(List<Long> ids) {
+        return redisTemplate.opsForValue().multiGet(ids.stream().map(this::chaveGeracao).toList());
+    }
+
+    private void avancarGeracoes(Collection<Long> ids) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                for (Long id : ids) {
+                    redis.opsForValue().increment(chaveGeracao(id));
+                    redis.expire(chaveGeracao(id), TTL_GERACAO);
+                }
+                return null;
+            }
+        });
+    }
+
+    private String chaveGeracao(Long id) {
+        return prefixoGeracao + id;
+    }
+
+    private static List<VeiculoResumo> ordenar(List<Long> ids, List<VeiculoResumo> resumos) {
+        Map<Long, VeiculoResumo> porId = new HashMap<>(resumos.size());
+        resumos.forEach(resumo -> porId.put(resumo.id(), resumo));
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    private void descartar(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+
+        try {
+            // a geração sobe antes do descarte: quem guardar o valor antigo depois disso
+            // vê a geração nova e o descarta
+            avancarGeracoes(ids);
+            CacheEmLote.descartar(cache, ids);
+        } catch (DataAccessException e) {
+            log.warn("Falha ao invalidar {} veículo(s) no cache: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Carga de um veículo na falta, guardando a geração lida antes da consulta ao banco.
+     */
+    private final class Carga implements Callable<VeiculoResumo> {
+
+        private final Long id;
+        private boolean executada;
+        private String geracao;
+
+        private Carga(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public VeiculoResumo call() {
+            geracao = redisTemplate.opsForValue().get(chaveGeracao(id));
+            executada = true;
+            return carregar(id);
+        }
+    }
+}
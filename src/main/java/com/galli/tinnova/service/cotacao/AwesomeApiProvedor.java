@@ -0,0 +1,57 @@
+package com.galli.tinnova.service.cotacao;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Component
+@Order(1)
+public class AwesomeApiProvedor extends ProvedorCotacaoHttp {
+
+    public AwesomeApiProvedor(RestClient.Builder builder,
+                              @Value("${cotacao.provedores.awesomeapi.url:https://economia.awesomeapi.com.br}") String url,
+                              @Value("${cotacao.provedores.awesomeapi.connect-timeout:1s}") Duration connectTimeout,
+                              @Value("${cotacao.provedores.awesomeapi.read-timeout:2s}") Duration readTimeout) {
+        super(builder, url, connectTimeout, readTimeout);
+    }
+
+    @Override
+    public String nome() {
+        return "AwesomeAPI";
+    }
+
+    @Override
+    public BigDecimal buscarUsdBrl() {
+        Resposta resposta =
+                restClient.get()
+                        .uri("/json/last/USD-BRL")
+                        .retrieve()
+                        .body(Resposta.class);
+
+        return extrair(resposta);
+    }
+
+    static BigDecimal extrair(Resposta resposta) {
+        if (resposta == null || resposta.usdbrl() == null) {
+            throw new IllegalStateException("Resposta inválida da AwesomeAPI");
+        }
+        return validar(resposta.usdbrl().bid(), "AwesomeAPI");
+    }
+
+    /**
+     * Só os campos usados; o restante do payload é ignorado pelo Jackson sem materializar.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Resposta(@JsonProperty("USDBRL") Cotacao usdbrl) {
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        record Cotacao(BigDecimal bid) {
+        }
+    }
+}
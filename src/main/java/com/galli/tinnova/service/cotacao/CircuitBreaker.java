@@ -0,0 +1,71 @@
+package com.galli.tinnova.service.cotacao;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por provedor. Depois de {@code limiteFalhas} falhas seguidas o circuito
+ * abre e o provedor deixa de ser chamado por {@code tempoAberto}; passado esse tempo uma
+ * única chamada de teste é liberada (semiaberto): sucesso fecha o circuito, falha reabre.
+ */
+public class CircuitBreaker {
+
+    public enum Estado { FECHADO, ABERTO, SEMIABERTO }
+
+    private final int limiteFalhas;
+    private final long tempoAbertoNanos;
+    private final LongSupplier relogio;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoDesde;
+
+    public CircuitBreaker(int limiteFalhas, Duration tempoAberto) {
+        this(limiteFalhas, tempoAberto, System::nanoTime);
+    }
+
+    CircuitBreaker(int limiteFalhas, Duration tempoAberto, LongSupplier relogio) {
+        if (limiteFalhas < 1) {
+            throw new IllegalArgumentException("limiteFalhas deve ser maior que zero");
+        }
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAbertoNanos = tempoAberto.toNanos();
+        this.relogio = relogio;
+    }
+
+    /**
+     * Indica se uma chamada pode ser feita agora. No estado semiaberto só a primeira
+     * chamada após o tempo de espera é liberada.
+     */
+    public synchronized boolean permiteChamada() {
+        return switch (estado) {
+            case FECHADO -> true;
+            case SEMIABERTO -> false;
+            case ABERTO -> {
+                if (relogio.getAsLong() - abertoDesde < tempoAbertoNanos) {
+                    yield false;
+                }
+                estado = Estado.SEMIABERTO;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void registrarSucesso() {
+        estado = Estado.FECHADO;
+        falhasSeguidas = 0;
+    }
+
+    public synchronized void registrarFalha() {
+        falhasSeguidas++;
+
+        if (estado == Estado.SEMIABERTO || falhasSeguidas >= limiteFalhas) {
+            estado = Estado.ABERTO;
+            abertoDesde = relogio.getAsLong();
+        }
+    }
+
+    public synchronized Estado estado() {
+        return estado;
+    }
+}
@@ -0,0 +1,58 @@
+package com.galli.tinnova.service.cotacao;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Component
+@Order(2)
+public class FrankfurterProvedor extends ProvedorCotacaoHttp {
+
+    public FrankfurterProvedor(RestClient.Builder builder,
+                               @Value("${cotacao.provedores.frankfurter.url:https://api.frankfurter.app}") String url,
+                               @Value("${cotacao.provedores.frankfurter.connect-timeout:1s}") Duration connectTimeout,
+                               @Value("${cotacao.provedores.frankfurter.read-timeout:2s}") Duration readTimeout) {
+        super(builder, url, connectTimeout, readTimeout);
+    }
+
+    @Override
+    public String nome() {
+        return "Frankfurter";
+    }
+
+    @Override
+    public BigDecimal buscarUsdBrl() {
+        Resposta resposta =
+                restClient.get()
+                        .uri("/latest?from=USD&to=BRL")
+                        .retrieve()
+                        .body(Resposta.class);
+
+        return extrair(resposta);
+    }
+
+    static BigDecimal extrair(Resposta resposta) {
+        if (resposta == null || resposta.rates() == null) {
+            throw new IllegalStateException("Resposta inválida da Frankfurter");
+        }
+        return validar(resposta.rates().brl(), "Frankfurter");
+    }
+
+    /**
+     * Só os campos usados; o restante do payload é ignorado pelo Jackson sem materializar.
+     * {@code BRL} é lido direto como {@link BigDecimal}, sem passar por {@code Double}.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Resposta(Taxas rates) {
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        record Taxas(@JsonProperty("BRL") BigDecimal brl) {
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.galli.tinnova.service.cotacao;
+
+import java.math.BigDecimal;
+
+/**
+ * Fonte externa da cotação USD → BRL. As implementações são ordenadas com {@code @Order}:
+ * a primeira é a principal e as seguintes entram como hedge.
+ */
+public interface ProvedorCotacao {
+
+    String nome();
+
+    /**
+     * @throws RuntimeException se o provedor não responder a tempo ou devolver algo inválido
+     */
+    BigDecimal buscarUsdBrl();
+}
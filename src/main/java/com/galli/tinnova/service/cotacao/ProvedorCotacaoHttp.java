@@ -0,0 +1,40 @@
+package com.galli.tinnova.service.cotacao;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Base dos provedores HTTP: cada um tem o próprio {@link RestClient}, com URL base e
+ * timeouts de conexão e leitura próprios.
+ */
+public abstract class ProvedorCotacaoHttp implements ProvedorCotacao {
+
+    protected final RestClient restClient;
+
+    protected ProvedorCotacaoHttp(RestClient.Builder builder,
+                                  String url,
+                                  Duration connectTimeout,
+                                  Duration readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+
+        this.restClient = builder.clone()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * Rejeita cotação ausente ou não positiva, que o Jackson aceitaria sem reclamar.
+     */
+    protected static BigDecimal validar(BigDecimal cotacao, String provedor) {
+        if (cotacao == null || cotacao.signum() <= 0) {
+            throw new IllegalStateException("Resposta inválida da " + provedor);
+        }
+        return cotacao;
+    }
+}
@@ -1,72 +1,223 @@
 package com.galli.tinnova.service.impl;
 
+import com.galli.tinnova.config.cache.CodecCache;
+import com.galli.tinnova.config.cache.DeclaracaoCache;
 import com.galli.tinnova.service.DollarService;
+import com.galli.tinnova.service.cotacao.CircuitBreaker;
+import com.galli.tinnova.service.cotacao.ProvedorCotacao;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
 import java.math.BigDecimal;
-import java.util.Map;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 public class DollarServiceImpl implements DollarService {
 
-    private final RestClient restClient;
+    public static final String CACHE = "usd-brl";
 
-    public DollarServiceImpl(RestClient.Builder builder) {
-        this.restClient = builder.build();
+    @Bean
+    static DeclaracaoCache declaracaoCacheCotacao() {
+        return DeclaracaoCache.com(CACHE, CodecCache.DECIMAL);
     }
 
+    private final CacheManager cacheManager;
+    private final List<ProvedorCotacao> provedores;
+    private final List<CircuitBreaker> circuitBreakers;
+    private final Duration atrasoHedge;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(tarefa -> {
+        Thread thread = new Thread(tarefa, "cotacao-provedor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // carga em andamento, compartilhada por quem chegar enquanto ela não termina
+    private final AtomicReference<CompletableFuture<BigDecimal>> cargaEmAndamento = new AtomicReference<>();
+
+    // última cotação obtida com sucesso, servida quando os dois provedores falham
+    private final AtomicReference<BigDecimal> ultimaCotacao = new AtomicReference<>();
+
+    public DollarServiceImpl(CacheManager cacheManager,
+                             List<ProvedorCotacao> provedores,
+                             @Value("${cotacao.hedge.atraso:300ms}") Duration atrasoHedge,
+                             @Value("${cotacao.circuit-breaker.limite-falhas:5}") int limiteFalhas,
+                             @Value("${cotacao.circuit-breaker.tempo-aberto:30s}") Duration tempoAberto) {
+        this.cacheManager = cacheManager;
+        this.provedores = List.copyOf(provedores);
+        this.circuitBreakers = provedores.stream()
+                .map(provedor -> new CircuitBreaker(limiteFalhas, tempoAberto))
+                .toList();
+        this.atrasoHedge = atrasoHedge;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Cotação em cache ou, na falta, consultada nos provedores. Se todos falharem, devolve a
+     * última cotação conhecida sem guardá-la: em cache ela valeria o TTL inteiro, mesmo com
+     * os provedores de volta, e a próxima leitura já tenta de novo.
+     */
     @Override
-    @Cacheable(value = "usd-brl", unless = "#result == null")
     public BigDecimal getUsdToBrl() {
-        log.info("🔍 Buscando cotação USD → BRL");
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            try {
+                return buscarCotacao();
+            } catch (RuntimeException e) {
+                return ultimaCotacaoOu(e);
+            }
+        }
 
         try {
-            BigDecimal valor = getFromAwesomeApi();
-            log.info("Cotação obtida da AwesomeAPI: {}", valor);
+            return cache.get(SimpleKey.EMPTY, this::buscarCotacao);
+        } catch (Cache.ValueRetrievalException e) {
+            return ultimaCotacaoOu(e.getCause() instanceof RuntimeException causa ? causa : e);
+        }
+    }
 
-            return valor;
-        } catch (Exception e) {
-            log.warn("Falha na AwesomeAPI, usando Frankfurter. Motivo: {}", e.getMessage());
-            BigDecimal fallback = getFromFrankfurter();
-            log.info("Cotação obtida da Frankfurter: {}", fallback);
+    @Override
+    public BigDecimal atualizarUsdToBrl() {
+        BigDecimal valor = buscarCotacao();
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            cache.put(SimpleKey.EMPTY, valor);
+        }
+        return valor;
+    }
+
+    private BigDecimal ultimaCotacaoOu(RuntimeException erro) {
+        BigDecimal anterior = ultimaCotacao.get();
+        if (anterior == null) {
+            throw erro;
+        }
+
+        log.warn("Provedores de cotação indisponíveis, usando última cotação conhecida {}. Motivo: {}",
+                anterior, erro.getMessage());
+        return anterior;
+    }
 
-            return fallback;
+    /**
+     * Consulta os provedores garantindo uma única chamada por vez: quem chega durante uma
+     * carga em andamento espera e recebe o mesmo resultado.
+     */
+    BigDecimal buscarCotacao() {
+        CompletableFuture<BigDecimal> carga = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> emAndamento = cargaEmAndamento.compareAndExchange(null, carga);
+
+        if (emAndamento != null) {
+            return aguardar(emAndamento);
+        }
+
+        try {
+            BigDecimal valor = consultarProvedores();
+            ultimaCotacao.set(valor);
+            carga.complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            carga.completeExceptionally(e);
+            throw e;
+        } finally {
+            cargaEmAndamento.set(null);
         }
     }
 
-    BigDecimal getFromAwesomeApi() {
-        Map<String, Object> response =
-                restClient.get()
-                        .uri("https://economia.awesomeapi.com.br/json/last/USD-BRL")
-                        .retrieve()
-                        .body(Map.class);
+    /**
+     * Hedge entre provedores: dispara o principal e, se ele não responder dentro de
+     * {@code atrasoHedge} ou falhar antes disso, dispara o próximo. Vale a primeira
+     * resposta válida; provedores com circuito aberto são pulados.
+     */
+    private BigDecimal consultarProvedores() {
+        log.info("🔍 Buscando cotação USD → BRL");
+
+        CompletableFuture<BigDecimal> resultado = new CompletableFuture<>();
+        Consulta consulta = new Consulta(resultado, new AtomicInteger(provedores.size()), new CopyOnWriteArrayList<>());
+
+        disparar(0, consulta);
+        return aguardar(resultado);
+    }
+
+    private void disparar(int indice, Consulta consulta) {
+        if (indice >= provedores.size() || consulta.resultado().isDone()) {
+            return;
+        }
+
+        ProvedorCotacao provedor = provedores.get(indice);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(indice);
 
-        if (response == null || !response.containsKey("USDBRL")) {
-            throw new IllegalStateException("Resposta inválida da AwesomeAPI");
+        if (!circuitBreaker.permiteChamada()) {
+            log.debug("Circuito aberto para {}, pulando provedor", provedor.nome());
+            registrarFalha(consulta, provedor.nome() + ": circuito aberto");
+            disparar(indice + 1, consulta);
+            return;
         }
 
-        Map<String, String> usdbrl = (Map<String, String>) response.get("USDBRL");
-        return new BigDecimal(usdbrl.get("bid"));
+        CompletableFuture<Void> proximo = new CompletableFuture<>();
+        proximo.thenRun(() -> disparar(indice + 1, consulta));
+        CompletableFuture.delayedExecutor(atrasoHedge.toMillis(), TimeUnit.MILLISECONDS, executor)
+                .execute(() -> proximo.complete(null));
+
+        CompletableFuture.supplyAsync(provedor::buscarUsdBrl, executor)
+                .whenComplete((valor, erro) -> {
+                    if (erro == null && valor != null) {
+                        circuitBreaker.registrarSucesso();
+                        if (consulta.resultado().complete(valor)) {
+                            log.info("Cotação obtida da {}: {}", provedor.nome(), valor);
+                        }
+                        return;
+                    }
+
+                    circuitBreaker.registrarFalha();
+                    Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                    String motivo = causa != null ? causa.getMessage() : "resposta vazia";
+                    log.warn("Falha na {}. Motivo: {}", provedor.nome(), motivo);
+
+                    registrarFalha(consulta, provedor.nome() + ": " + motivo);
+                    proximo.complete(null);
+                });
     }
 
-    BigDecimal getFromFrankfurter() {
-        Map<String, Object> response =
-                restClient.get()
-                        .uri("https://api.frankfurter.app/latest?from=USD&to=BRL")
-                        .retrieve()
-                        .body(Map.class);
+    private void registrarFalha(Consulta consulta, String falha) {
+        consulta.falhas().add(falha);
 
-        if (response == null || !response.containsKey("rates")) {
-            throw new IllegalStateException("Resposta inválida da Frankfurter");
+        if (consulta.pendentes().decrementAndGet() == 0) {
+            consulta.resultado().completeExceptionally(
+                    new IllegalStateException("Nenhum provedor de cotação respondeu: " + consulta.falhas()));
         }
+    }
 
-        Map<String, BigDecimal> rates =
-                (Map<String, BigDecimal>) response.get("rates");
+    private BigDecimal aguardar(CompletableFuture<BigDecimal> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
 
-        return rates.get("BRL");
+    private record Consulta(CompletableFuture<BigDecimal> resultado,
+                            AtomicInteger pendentes,
+                            List<String> falhas) {
     }
 }
@@ -0,0 +1,221 @@
+package com.galli.tinnova.service.impl;
+
+import com.galli.tinnova.config.security.JwtService;
+import com.galli.tinnova.config.security.RevogacaoTokenService;
+import com.galli.tinnova.config.security.TokenBucket;
+import com.galli.tinnova.dto.response.TokensResponse;
+import com.galli.tinnova.exception.ServiceUnavailableException;
+import com.galli.tinnova.exception.TooManyRequestsException;
+import com.galli.tinnova.service.LoginService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Login com o hash BCrypt fora das threads do Tomcat: as autenticações rodam num pool
+ * dedicado e limitado, com fila também limitada, para que uma rajada de logins não
+ * consuma as threads que atendem os endpoints de veículos.
+ * <p>
+ * Antes de enfileirar, cada tentativa consome uma ficha do token bucket do usuário e do IP.
+ * <p>
+ * O login devolve um access token de vida curta e um refresh token de vida longa. Cada
+ * renovação revoga o refresh token usado e emite um par novo (rotação), então um refresh
+ * token vazado só serve uma vez.
+ */
+@Slf4j
+@Service
+public class LoginServiceImpl implements LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final JwtService jwtService;
+    private final RevogacaoTokenService revogacaoTokenService;
+    private final ThreadPoolExecutor executor;
+
+    private final Cache<String, TokenBucket> limitesPorUsuario;
+    private final Cache<String, TokenBucket> limitesPorIp;
+    private final LimiteConfig limiteUsuario;
+    private final LimiteConfig limiteIp;
+
+    private final Timer tempoHash;
+    private final Counter rejeitadosUsuario;
+    private final Counter rejeitadosIp;
+    private final Counter rejeitadosFila;
+
+    public LoginServiceImpl(
+            AuthenticationManager authenticationManager,
+            JwtService jwtService,
+            RevogacaoTokenService revogacaoTokenService,
+            MeterRegistry meterRegistry,
+            @Value("${auth.login.threads:2}") int threads,
+            @Value("${auth.login.fila:50}") int tamanhoFila,
+            @Value("${auth.login.limite.usuario.capacidade:5}") long capacidadeUsuario,
+            @Value("${auth.login.limite.usuario.reposicao:12s}") Duration reposicaoUsuario,
+            @Value("${auth.login.limite.ip.capacidade:20}") long capacidadeIp,
+            @Value("${auth.login.limite.ip.reposicao:3s}") Duration reposicaoIp
+    ) {
+        this.authenticationManager = authenticationManager;
+        this.jwtService = jwtService;
+        this.revogacaoTokenService = revogacaoTokenService;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "login-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.limiteUsuario = new LimiteConfig(capacidadeUsuario, reposicaoUsuario);
+        this.limiteIp = new LimiteConfig(capacidadeIp, reposicaoIp);
+        this.limitesPorUsuario = buckets();
+        this.limitesPorIp = buckets();
+
+        this.tempoHash = Timer.builder("auth.login.hash")
+                .description("Tempo de autenticação, dominado pelo hash da senha")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.fila", executor, pool -> pool.getQueue().size())
+                .description("Logins aguardando uma thread de autenticação")
+                .register(meterRegistry);
+        this.rejeitadosUsuario = rejeitados(meterRegistry, "limite-usuario");
+        this.rejeitadosIp = rejeitados(meterRegistry, "limite-ip");
+        this.rejeitadosFila = rejeitados(meterRegistry, "fila-cheia");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<TokensResponse> login(String username, String password, String ip) {
+        String usuario = username == null ? "" : username.toLowerCase(Locale.ROOT);
+
+        if (!limitesPorIp.get(ip, chave -> limiteIp.criar()).tentarConsumir()) {
+            rejeitadosIp.increment();
+            throw new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde");
+        }
+        if (!limitesPorUsuario.get(usuario, chave -> limiteUsuario.criar()).tentarConsumir()) {
+            rejeitadosUsuario.increment();
+            throw new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde");
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> autenticar(username, password), executor);
+        } catch (RejectedExecutionException e) {
+            rejeitadosFila.increment();
+            log.warn("Fila de login cheia ({} aguardando)", executor.getQueue().size());
+            throw new ServiceUnavailableException("Serviço de login sobrecarregado, tente novamente");
+        }
+    }
+
+    @Override
+    public TokensResponse renovar(String refreshToken) {
+        JwtService.DadosToken dados = refreshValido(refreshToken);
+
+        // revogar é atômico no Redis: de duas renovações com o mesmo token só uma passa
+        if (!revogacaoTokenService.revogar(dados.jti(), dados.expiraEm())) {
+            log.warn("Refresh token reutilizado para o usuário {}", dados.username());
+            throw new BadCredentialsException("Refresh token já utilizado");
+        }
+        return emitir(dados.username(), dados.role());
+    }
+
+    @Override
+    public void logout(String refreshToken, String accessToken) {
+        JwtService.DadosToken refresh = refreshValido(refreshToken);
+        revogacaoTokenService.revogar(refresh.jti(), refresh.expiraEm());
+
+        if (accessToken == null) {
+            return;
+        }
+        try {
+            JwtService.DadosToken acesso = jwtService.parse(accessToken);
+            if (acesso.jti() != null && acesso.username().equals(refresh.username())) {
+                revogacaoTokenService.revogar(acesso.jti(), acesso.expiraEm());
+            }
+        } catch (JwtException e) {
+            // access token inválido ou expirado já não autentica
+        }
+    }
+
+    private JwtService.DadosToken refreshValido(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+
+        JwtService.DadosToken dados;
+        try {
+            dados = jwtService.parse(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+
+        if (!dados.refresh() || dados.jti() == null || revogacaoTokenService.estaRevogado(dados.jti())) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        return dados;
+    }
+
+    private TokensResponse autenticar(String username, String password) {
+        Authentication auth = tempoHash.record(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password)
+        ));
+
+        String role = auth.getAuthorities().iterator().next().getAuthority().replace("ROLE_", "");
+        return emitir(username, role);
+    }
+
+    private TokensResponse emitir(String username, String role) {
+        return new TokensResponse(
+                jwtService.gerarToken(username, role),
+                jwtService.gerarRefreshToken(username, role)
+        );
+    }
+
+    private static Cache<String, TokenBucket> buckets() {
+        return Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+    }
+
+    private static Counter rejeitados(MeterRegistry registry, String motivo) {
+        return Counter.builder("auth.login.rejeitados")
+                .description("Logins recusados antes da autenticação")
+                .tag("motivo", motivo)
+                .register(registry);
+    }
+
+    private record LimiteConfig(long capacidade, Duration reposicao) {
+
+        TokenBucket criar() {
+            return new TokenBucket(capacidade, reposicao);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.galli.tinnova.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galli.tinnova.dto.request.SelecaoVeiculosRequest;
+import com.galli.tinnova.dto.request.VeiculoRequest;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse.Status;
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.mapper.VeiculoCsvMapper;
+import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.VeiculoAlvo;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoSpecifications;
+import com.galli.tinnova.service.DollarService;
+import com.galli.tinnova.service.VeiculoLoteService;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.ContagemPorMarca;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Importação em lote lendo o corpo linha a linha, sem carregá-lo inteiro em memória.
+ * As linhas válidas são agrupadas em blocos: para cada bloco, as placas são
+ * verificadas com uma única consulta e os veículos são gravados em batch JDBC
+ * numa transação própria. A cotação do dólar é obtida uma vez por importação.
+ * A exportação percorre a tabela com um cursor e escreve cada linha direto
+ * na saída, com memória constante.
+ * <p>
+ * Remoção e reajuste em massa também trabalham em blocos do mesmo tamanho: cada bloco
+ * seleciona só id, marca, ano e cor dos alvos e os altera com um único UPDATE, numa transação própria.
+ */
+@Slf4j
+@Service
+public class VeiculoLoteServiceImpl implements VeiculoLoteService {
+
+    private final VeiculoRepository repository;
+    private final DollarService dollarService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ContagemPorMarca contagemPorMarca;
+    private final EstatisticasVeiculos estatisticasVeiculos;
+    private final CacheVeiculos cacheVeiculos;
+    private final CacheListagemVeiculos cacheListagem;
+    private final int tamanhoLote;
+
+    public VeiculoLoteServiceImpl(
+            VeiculoRepository repository,
+            DollarService dollarService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            ContagemPorMarca contagemPorMarca,
+            EstatisticasVeiculos estatisticasVeiculos,
+            CacheVeiculos cacheVeiculos,
+            CacheListagemVeiculos cacheListagem,
+            @Value("${veiculos.importacao.tamanho-lote:500}") int tamanhoLote
+    ) {
+        this.repository = repository;
+        this.dollarService = dollarService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.contagemPorMarca = contagemPorMarca;
+        this.estatisticasVeiculos = estatisticasVeiculos;
+        this.cacheVeiculos = cacheVeiculos;
+        this.cacheListagem = cacheListagem;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public void importar(
+            BufferedReader leitor,
+            Formato formato,
+            Consumer<ResultadoImportacaoResponse> resultado
+    ) throws IOException {
+        BigDecimal dolar = dollarService.getUsdToBrl();
+
+        if (dolar == null || dolar.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalStateException("Não foi possível obter a cotação do dólar");
+        }
+
+        long numero = 0;
+        Map<String, Integer> cabecalho = null;
+
+        if (formato == Formato.CSV) {
+            String primeira = leitor.readLine();
+            numero++;
+
+            if (primeira == null) {
+                return;
+            }
+
+            cabecalho = VeiculoCsvMapper.cabecalho(primeira);
+        }
+
+        List<Linha> pendentes = new ArrayList<>(tamanhoLote);
+        String texto;
+
+        while ((texto = leitor.readLine()) != null) {
+            numero++;
+
+            if (texto.isBlank()) {
+                continue;
+            }
+
+            VeiculoRequest request;
+            try {
+                request = formato == Formato.CSV
+                        ? VeiculoCsvMapper.toRequest(cabecalho, texto)
+                        : objectMapper.readValue(texto, VeiculoRequest.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                resultado.accept(new ResultadoImportacaoResponse(
+                        numero, null, Status.INVALIDO, null, "Linha mal formatada"));
+                continue;
+            }
+
+            Set<ConstraintViolation<VeiculoRequest>> violacoes = validator.validate(request);
+            if (!violacoes.isEmpty()) {
+                resultado.accept(new ResultadoImportacaoResponse(
+                        numero, request.placa(), Status.INVALIDO, null, descrever(violacoes)));
+                continue;
+            }
+
+            pendentes.add(new Linha(numero, request));
+
+            if (pendentes.size() == tamanhoLote) {
+                persistir(pendentes, dolar).forEach(resultado);
+                pendentes.clear();
+            }
+        }
+
+        if (!pendentes.isEmpty()) {
+            persistir(pendentes, dolar).forEach(resultado);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Formato formato, OutputStream saida) throws IOException {
+        OutputStream buffer = new BufferedOutputStream(saida, 64 * 1024);
+
+        try (Stream<Veiculo> veiculos = repository.streamAtivos()) {
+            if (formato == Formato.CSV) {
+                exportarCsv(veiculos, buffer);
+            } else {
+                exportarNdjson(veiculos, buffer);
+            }
+        }
+
+        buffer.flush();
+    }
+
+    private void exportarCsv(Stream<Veiculo> veiculos, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write(VeiculoCsvMapper.CABECALHO_EXPORTACAO);
+        writer.write('\n');
+
+        for (Veiculo veiculo : (Iterable<Veiculo>) veiculos::iterator) {
+            VeiculoCsvMapper.escrever(veiculo, writer);
+            entityManager.detach(veiculo);
+        }
+
+        writer.flush();
+    }
+
+    private void exportarNdjson(Stream<Veiculo> veiculos, OutputStream saida) throws IOException {
+        JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida);
+        gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gerador.setRootValueSeparator(null);
+
+        for (Veiculo veiculo : (Iterable<Veiculo>) veiculos::iterator) {
+            gerador.writeStartObject();
+            gerador.writeNumberField("id", veiculo.getId());
+            gerador.writeStringField("marca", veiculo.getMarca());
+            gerador.writeStringField("modelo", veiculo.getModelo());
+            if (veiculo.getAno() == null) {
+                gerador.writeNullField("ano");
+            } else {
+                gerador.writeNumberField("ano", veiculo.getAno());
+            }
+            gerador.writeStringField("cor", veiculo.getCor());
+            gerador.writeStringField("placa", veiculo.getPlaca());
+            gerador.writeNumberField("precoUsd", veiculo.getPrecoUsd());
+            gerador.writeEndObject();
+            gerador.writeRaw('\n');
+
+            entityManager.detach(veiculo);
+        }
+
+        gerador.flush();
+    }
+
+    @Override
+    public long removerEmMassa(SelecaoVeiculosRequest selecao) {
+        AtomicBoolean divergiu = new AtomicBoolean();
+
+        long removidos = alterarEmMassa(selecao, alvos -> {
+            int alterados = repository.desativarTodos(ids(alvos));
+
+            if (alterados == alvos.size()) {
+                alvos.stream()
+                        .collect(Collectors.groupingBy(VeiculoAlvo::marca, Collectors.counting()))
+                        .forEach((marca, quantidade) -> contagemPorMarca.registrar(marca, -quantidade));
+            } else {
+                // parte do bloco foi removida por outra requisição entre a seleção e o UPDATE
+                divergiu.set(true);
+            }
+            return alterados;
+        });
+
+        if (divergiu.get()) {
+            contagemPorMarca.reconciliar();
+        }
+        return removidos;
+    }
+
+    @Override
+    public long reajustarPreco(SelecaoVeiculosRequest selecao, BigDecimal percentual) {
+        BigDecimal fator = BigDecimal.ONE.add(percentual.movePointLeft(2));
+        return alterarEmMassa(selecao, alvos -> repository.reajustarPrecos(ids(alvos), fator));
+    }
+
+    private long alterarEmMassa(SelecaoVeiculosRequest selecao, ToIntFunction<List<VeiculoAlvo>> alteracao) {
+        if (selecao.vazia()) {
+            throw new IllegalArgumentException("Informe ids ou ao menos um filtro");
+        }
+
+        Specification<Veiculo> filtro = VeiculoSpecifications.filtrar(
+                selecao.marca(),
+                selecao.ano(),
+                selecao.cor(),
+                selecao.minPreco(),
+                selecao.maxPreco()
+        );
+        long total = 0;
+
+        if (selecao.ids() != null && !selecao.ids().isEmpty()) {
+            List<Long> ids = selecao.ids().stream().distinct().toList();
+
+            for (int inicio = 0; inicio < ids.size(); inicio += tamanhoLote) {
+                List<Long> bloco = ids.subList(inicio, Math.min(inicio + tamanhoLote, ids.size()));
+                Specification<Veiculo> doBloco = filtro.and((root, query, cb) -> root.get("id").in(bloco));
+
+                total += alterarBloco(doBloco, null, alteracao).alterados();
+            }
+            return total;
+        }
+
+        // por filtro: avança pelo id, então um veículo que deixe de atender ao filtro
+        // depois de alterado (um reajuste com faixa de preço, por exemplo) não é revisitado
+        Bloco bloco;
+        Long ultimoId = null;
+        do {
+            bloco = alterarBloco(filtro, ultimoId, alteracao);
+            total += bloco.alterados();
+            ultimoId = bloco.ultimoId();
+        } while (bloco.selecionados() == tamanhoLote);
+
+        return total;
+    }
+
+    private Bloco alterarBloco(
+            Specification<Veiculo> filtro,
+            Long aposId,
+            ToIntFunction<List<VeiculoAlvo>> alteracao
+    ) {
+        Bloco bloco = transactionTemplate.execute(status -> {
+            List<VeiculoAlvo> alvos = repository.buscarAlvos(filtro, aposId, tamanhoLote);
+            if (alvos.isEmpty()) {
+                return new Bloco(0, 0, aposId);
+            }
+
+            int alterados = alteracao.applyAsInt(alvos);
+            // descartados após o commit do bloco
+            cacheVeiculos.invalidar(ids(alvos));
+            cacheListagem.invalidar(alvos.stream().map(VeiculoAlvo::classificacao).distinct().toList());
+            return new Bloco(alvos.size(), alterados, alvos.get(alvos.size() - 1).id());
+        });
+
+        if (bloco.alterados() > 0) {
+            estatisticasVeiculos.invalidar();
+        }
+        return bloco;
+    }
+
+    private static List<Long> ids(List<VeiculoAlvo> alvos) {
+        return alvos.stream().map(VeiculoAlvo::id).toList();
+    }
+
+    private List<ResultadoImportacaoResponse> persistir(List<Linha> linhas, BigDecimal dolar) {
+        try {
+            List<ResultadoImportacaoResponse> gravados = transactionTemplate.execute(status -> {
+                Set<String> existentes = repository.buscarPlacasExistentes(
+                        linhas.stream().map(l -> l.request().placa()).toList()
+                );
+
+                List<ResultadoImportacaoResponse> resultados = new ArrayList<>(linhas.size());
+                List<Linha> novas = new ArrayList<>(linhas.size());
+                List<Veiculo> veiculos = new ArrayList<>(linhas.size());
+                Set<String> placasDoLote = new HashSet<>();
+
+                for (Linha linha : linhas) {
+                    String placa = linha.request().placa();
+
+                    if (existentes.contains(placa) || !placasDoLote.add(placa)) {
+                        resultados.add(new ResultadoImportacaoResponse(
+                                linha.numero(), placa, Status.CONFLITO, null, "Já existe veículo com essa placa"));
+                        continue;
+                    }
+
+                    Veiculo veiculo = VeiculoMapper.toEntity(linha.request());
+                    veiculo.setPrecoUsd(veiculo.getPrecoUsd().divide(dolar, 2, RoundingMode.HALF_UP));
+                    veiculo.setAtivo(true);
+
+                    novas.add(linha);
+                    veiculos.add(veiculo);
+                }
+
+                repository.saveAll(veiculos);
+                repository.flush();
+                entityManager.clear();
+
+                // aplicado só após o commit do bloco
+                veiculos.stream()
+                        .collect(Collectors.groupingBy(Veiculo::getMarca, Collectors.counting()))
+                        .forEach(contagemPorMarca::registrar);
+                cacheListagem.invalidar(veiculos.stream().map(ClassificacaoVeiculo::de).distinct().toList());
+
+                for (int i = 0; i < novas.size(); i++) {
+                    resultados.add(new ResultadoImportacaoResponse(
+                            novas.get(i).numero(),
+                            veiculos.get(i).getPlaca(),
+                            Status.CRIADO,
+                            veiculos.get(i).getId(),
+                            null
+                    ));
+                }
+
+                resultados.sort(Comparator.comparingLong(ResultadoImportacaoResponse::linha));
+                return resultados;
+            });
+
+            // depois do commit do bloco, para que uma leitura concorrente não recoloque o valor antigo
+            estatisticasVeiculos.invalidar();
+            return gravados;
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar lote de {} veículos: {}", linhas.size(), e.getMessage());
+
+            return linhas.stream()
+                    .map(l -> new ResultadoImportacaoResponse(
+                            l.numero(), l.request().placa(), Status.ERRO, null, "Falha ao gravar o lote"))
+                    .toList();
+        }
+    }
+
+    private String descrever(Set<ConstraintViolation<VeiculoRequest>> violacoes) {
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record Linha(long numero, VeiculoRequest request) {}
+
+    private record Bloco(int selecionados, int alterados, Long ultimoId) {}
+}
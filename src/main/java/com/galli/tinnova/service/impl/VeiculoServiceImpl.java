@@ -1,25 +1,39 @@
 package com.galli.tinnova.service.impl;
 
+import com.galli.tinnova.dto.response.CursorPageResponse;
+import com.galli.tinnova.dto.response.EstatisticaPrecoResponse;
 import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
 import com.galli.tinnova.dto.response.VeiculoResponse;
 import com.galli.tinnova.entity.Veiculo;
 import com.galli.tinnova.exception.ConflictException;
 import com.galli.tinnova.exception.NotFoundException;
+import com.galli.tinnova.exception.PreconditionFailedException;
+import com.galli.tinnova.mapper.CursorMapper;
 import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.mapper.VeiculoPatch;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.EstatisticaPreco;
 import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoResumo;
+import com.galli.tinnova.repository.VeiculoSpecifications;
 import com.galli.tinnova.service.DollarService;
 import com.galli.tinnova.service.VeiculoService;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.ContagemPorMarca;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +41,10 @@ public class VeiculoServiceImpl implements VeiculoService {
 
     private final DollarService dollarService;
     private final VeiculoRepository repository;
+    private final ContagemPorMarca contagemPorMarca;
+    private final EstatisticasVeiculos estatisticasVeiculos;
+    private final CacheVeiculos cacheVeiculos;
+    private final CacheListagemVeiculos cacheListagem;
 
     @Override
     public Page<VeiculoResponse> listar(
@@ -37,15 +55,49 @@ public class VeiculoServiceImpl implements VeiculoService {
             BigDecimal maxPreco,
             Pageable pageable
     ) {
-        return repository.filtrar(
+        return cacheListagem.buscar(
                         marca,
                         ano,
                         cor,
                         minPreco,
                         maxPreco,
-                        pageable
+                        pageable,
+                        () -> repository.filtrar(marca, ano, cor, minPreco, maxPreco, pageable)
                 )
-                .map(VeiculoMapper::toResponse);
+                .map(veiculo -> VeiculoMapper.toResponse(veiculo, null));
+    }
+
+    @Override
+    public CursorPageResponse<VeiculoResponse> listarPorCursor(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco,
+            String cursor,
+            Pageable pageable
+    ) {
+        CursorMapper.Cursor posicao = CursorMapper.decode(cursor, pageable.getSort());
+        int tamanho = pageable.isPaged() ? pageable.getPageSize() : 20;
+
+        Window<Veiculo> window = repository.findBy(
+                VeiculoSpecifications.filtrar(marca, ano, cor, minPreco, maxPreco),
+                query -> query
+                        .sortBy(posicao.sort())
+                        .limit(tamanho)
+                        .scroll(posicao.posicao())
+        );
+
+        String proximoCursor = window.hasNext() && !window.isEmpty()
+                ? CursorMapper.encode(posicao.sort(), window.positionAt(window.size() - 1))
+                : null;
+
+        return new CursorPageResponse<>(
+                window.map(VeiculoMapper::toResponse).getContent(),
+                window.size(),
+                window.hasNext(),
+                proximoCursor
+        );
     }
 
     @Override
@@ -73,12 +125,17 @@ public class VeiculoServiceImpl implements VeiculoService {
         veiculo.setPrecoUsd(precoUsd);
         veiculo.setAtivo(true);
 
-        return repository.save(veiculo);
+        Veiculo salvo = repository.save(veiculo);
+        contagemPorMarca.registrar(salvo.getMarca(), 1);
+        cacheListagem.invalidar(ClassificacaoVeiculo.de(salvo));
+        estatisticasVeiculos.invalidar();
+        return salvo;
     }
 
     @Override
-    public Veiculo atualizar(Long id, Veiculo veiculo) {
+    public Veiculo atualizar(Long id, Veiculo veiculo, Set<Long> versoesAceitas) {
         Veiculo existente = buscarPorId(id);
+        verificarVersao(existente, versoesAceitas);
 
         if (!existente.getPlaca().equals(veiculo.getPlaca())
                 && repository.existsByPlaca(veiculo.getPlaca())) {
@@ -94,6 +151,9 @@ public class VeiculoServiceImpl implements VeiculoService {
         BigDecimal precoUsd =
                 veiculo.getPrecoUsd().divide(dolar, 2, RoundingMode.HALF_UP);
 
+        String marcaAnterior = existente.getMarca();
+        ClassificacaoVeiculo anterior = ClassificacaoVeiculo.de(existente);
+
         existente.setMarca(veiculo.getMarca());
         existente.setModelo(veiculo.getModelo());
         existente.setAno(veiculo.getAno());
@@ -101,65 +161,152 @@ public class VeiculoServiceImpl implements VeiculoService {
         existente.setPlaca(veiculo.getPlaca());
         existente.setPrecoUsd(converterParaUsd(veiculo.getPrecoUsd()));
 
-        return repository.save(existente);
+        Veiculo salvo = salvarVersionado(existente, versoesAceitas);
+        cacheVeiculos.invalidar(id);
+        cacheListagem.invalidar(anterior, ClassificacaoVeiculo.de(salvo));
+        contagemPorMarca.trocarMarca(marcaAnterior, salvo.getMarca());
+        estatisticasVeiculos.invalidar();
+        return salvo;
     }
 
     @Override
-    public Veiculo atualizarParcial(Long id, Map<String, Object> campos) {
-        Veiculo existente = buscarPorId(id);
+    public Veiculo atualizarParcial(Long id, Map<String, Object> campos, Set<Long> versoesAceitas) {
+        VeiculoPatch patch = VeiculoPatch.de(campos);
 
-        campos.forEach((key, value) -> {
-            if (key.equals("id") || key.equals("ativo")) {
-                throw new IllegalArgumentException("Campo não pode ser alterado: " + key);
-            }
+        if (patch.simples()) {
+            // só modelo e preço: nada a checar antes e a classificação não muda, um UPDATE basta
+            Map<String, Object> alteracoes = patch.alteracoes(this::converterParaUsd);
 
-            if (key.equals("precoBrl")) {
-                BigDecimal valorBrl = new BigDecimal(value.toString());
-                existente.setPrecoUsd(converterParaUsd(valorBrl));
-                return;
+            int alterados = repository.atualizarCampos(id, alteracoes, versoesAceitas);
+            if (alterados == 0) {
+                throw naoAlterado(id, versoesAceitas);
             }
+            cacheVeiculos.invalidar(id);
+            estatisticasVeiculos.invalidar();
 
-            if (key.equals("placa")) {
-                String novaPlaca = value.toString();
-                if (!existente.getPlaca().equals(novaPlaca) && repository.existsByPlaca(novaPlaca)) {
-                    throw new ConflictException("Já existe veículo com essa placa");
-                }
-            }
+            Veiculo atualizado = buscarPorId(id);
+            // o preço muda o resultado dos filtros por faixa de preço das páginas da classificação
+            cacheListagem.invalidar(ClassificacaoVeiculo.de(atualizado));
+            return atualizado;
+        }
 
-            Field field = ReflectionUtils.findField(Veiculo.class, key);
-            if (field == null) {
-                throw new IllegalArgumentException("Campo inválido: " + key);
-            }
+        Veiculo existente = buscarPorId(id);
+        verificarVersao(existente, versoesAceitas);
+        String marcaAnterior = existente.getMarca();
+        ClassificacaoVeiculo anterior = ClassificacaoVeiculo.de(existente);
 
-            field.setAccessible(true);
-            ReflectionUtils.setField(field, existente, value);
-        });
+        if (patch.placa() != null
+                && !existente.getPlaca().equals(patch.placa())
+                && repository.existsByPlaca(patch.placa())) {
+            throw new ConflictException("Já existe veículo com essa placa");
+        }
 
-        return repository.save(existente);
-    }
+        patch.aplicar(existente, this::converterParaUsd);
 
+        Veiculo salvo = salvarVersionado(existente, versoesAceitas);
+        cacheVeiculos.invalidar(id);
+        cacheListagem.invalidar(anterior, ClassificacaoVeiculo.de(salvo));
+        contagemPorMarca.trocarMarca(marcaAnterior, salvo.getMarca());
+        estatisticasVeiculos.invalidar();
+        return salvo;
+    }
 
     @Override
-    public void remover(Long id) {
-        Veiculo veiculo = buscarPorId(id);
-        veiculo.setAtivo(false);
-        repository.save(veiculo);
+    public void remover(Long id, Set<Long> versoesAceitas) {
+        int removidos = versoesAceitas != null
+                ? repository.desativarNasVersoes(id, versoesAceitas)
+                : repository.desativar(id);
+        if (removidos == 0) {
+            throw naoAlterado(id, versoesAceitas);
+        }
+        cacheVeiculos.invalidar(id);
+
+        // marca, ano e cor não mudam depois de desativado, então podem ser lidos após o UPDATE
+        repository.buscarClassificacao(id).ifPresent(classificacao -> {
+            contagemPorMarca.registrar(classificacao.marca(), -1);
+            cacheListagem.invalidar(classificacao);
+        });
+        estatisticasVeiculos.invalidar();
     }
 
     @Override
     public VeiculoResponse detalhar(Long id) {
-        Veiculo veiculo = repository.findByIdAndAtivoTrue(id)
-                .orElseThrow(() -> new NotFoundException("Veículo não encontrado"));
+        VeiculoResumo veiculo = cacheVeiculos.buscar(id);
 
+        // a cotação muda sem que o veículo mude, então o BRL é calculado a cada leitura
         BigDecimal dolar = dollarService.getUsdToBrl();
-        BigDecimal precoBrl = veiculo.getPrecoUsd().multiply(dolar);
+        BigDecimal precoBrl = veiculo.precoUsd().multiply(dolar);
 
         return VeiculoMapper.toResponse(veiculo, precoBrl);
     }
 
     @Override
     public List<VeiculoPorMarcaResponse> relatorioPorMarca() {
-        return repository.relatorioPorMarca();
+        return contagemPorMarca.relatorio();
+    }
+
+    @Override
+    public List<EstatisticaPrecoResponse> estatisticas(String agrupamento) {
+        List<EstatisticaPreco> estatisticas =
+                estatisticasVeiculos.calcular(EstatisticasVeiculos.Agrupamento.de(agrupamento));
+
+        if (estatisticas.isEmpty()) {
+            return List.of();
+        }
+
+        BigDecimal dolar = dollarService.getUsdToBrl();
+
+        return estatisticas.stream()
+                .map(e -> {
+                    BigDecimal quantidade = BigDecimal.valueOf(e.quantidade());
+                    return new EstatisticaPrecoResponse(
+                            e.grupo(),
+                            e.quantidade(),
+                            e.minimo(),
+                            e.maximo(),
+                            e.soma().divide(quantidade, 2, RoundingMode.HALF_UP),
+                            paraBrl(e.minimo(), dolar),
+                            paraBrl(e.maximo(), dolar),
+                            e.soma().multiply(dolar).divide(quantidade, 2, RoundingMode.HALF_UP)
+                    );
+                })
+                .toList();
+    }
+
+    private static void verificarVersao(Veiculo veiculo, Set<Long> versoesAceitas) {
+        if (versoesAceitas != null && !versoesAceitas.contains(veiculo.getVersao())) {
+            throw new PreconditionFailedException("Veículo foi alterado por outra requisição");
+        }
+    }
+
+    /**
+     * Causa de um UPDATE que não afetou nenhum registro: veículo inexistente ou inativo
+     * (404) ou, com {@code If-Match}, versão fora das esperadas (412).
+     */
+    private RuntimeException naoAlterado(Long id, Set<Long> versoesAceitas) {
+        if (versoesAceitas != null && repository.existsByIdAndAtivoTrue(id)) {
+            return new PreconditionFailedException("Veículo foi alterado por outra requisição");
+        }
+        return new NotFoundException("Veículo não encontrado");
+    }
+
+    /**
+     * Salva checando a versão no UPDATE. Se outra escrita passou entre a leitura e o
+     * UPDATE, a falha vira 412 quando o cliente pediu {@code If-Match} e 409 caso contrário.
+     */
+    private Veiculo salvarVersionado(Veiculo veiculo, Set<Long> versoesAceitas) {
+        try {
+            return repository.save(veiculo);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            String mensagem = "Veículo foi alterado por outra requisição";
+            throw versoesAceitas != null
+                    ? new PreconditionFailedException(mensagem)
+                    : new ConflictException(mensagem);
+        }
+    }
+
+    private static BigDecimal paraBrl(BigDecimal valorUsd, BigDecimal dolar) {
+        return valorUsd.multiply(dolar).setScale(2, RoundingMode.HALF_UP);
     }
 
     private BigDecimal converterParaUsd(BigDecimal valorBrl) {
@@ -0,0 +1,214 @@
+package com.galli.tinnova.service.relatorio;
+
+import com.galli.tinnova.config.cache.AssinanteRedis;
+import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.service.AposCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quantidade de veículos ativos por marca, mantida em memória a cada escrita para que o
+ * relatório custe O(marcas) e não um {@code GROUP BY} sobre a tabela inteira.
+ * <p>
+ * Cada variação é aplicada depois do commit e publicada no canal {@link #CANAL_CONTAGEM}
+ * para os demais nós. {@link #reconciliar()} recarrega as contagens do banco e corrige
+ * qualquer divergência (mensagem perdida, escrita fora da aplicação); a primeira leitura
+ * do relatório faz a carga inicial.
+ * <p>
+ * Uma variação que chega durante a carga pode ou não estar no {@code GROUP BY}: ela é
+ * aplicada depois do commit, e as dos outros nós chegam ainda mais tarde. Por isso as marcas
+ * alteradas durante a carga mantêm a contagem em memória e ficam fora da comparação; se
+ * estiverem erradas, a reconciliação seguinte corrige.
+ */
+@Slf4j
+@Component
+public class ContagemPorMarca implements AssinanteRedis {
+
+    public static final String CANAL_CONTAGEM = "veiculos:contagem";
+
+    private static final String SEPARADOR = "|";
+
+    private final VeiculoRepository repository;
+    private final StringRedisTemplate redisTemplate;
+    private final Counter divergencias;
+
+    private final String origem = UUID.randomUUID().toString();
+
+    // null até a primeira carga
+    private volatile ConcurrentMap<String, AtomicLong> contagens;
+
+    // marcas alteradas durante uma reconciliação; null fora dela
+    private Set<String> alteradas;
+
+    private final Object trava = new Object();
+
+    public ContagemPorMarca(VeiculoRepository repository,
+                            StringRedisTemplate redisTemplate,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.redisTemplate = redisTemplate;
+        this.divergencias = Counter.builder("veiculos.relatorio.divergencias")
+                .description("Marcas cuja contagem em memória divergia do banco na reconciliação")
+                .register(meterRegistry);
+    }
+
+    public List<VeiculoPorMarcaResponse> relatorio() {
+        ConcurrentMap<String, AtomicLong> atual = contagens;
+        if (atual == null) {
+            reconciliar();
+            atual = contagens;
+        }
+
+        return atual.entrySet().stream()
+                .filter(e -> e.getValue().get() > 0)
+                .map(e -> new VeiculoPorMarcaResponse(e.getKey(), e.getValue().get()))
+                .sorted(Comparator.comparing(VeiculoPorMarcaResponse::marca))
+                .toList();
+    }
+
+    /**
+     * Registra a variação na contagem da marca. Dentro de uma transação a variação só é
+     * aplicada após o commit; num rollback nada muda.
+     */
+    public void registrar(String marca, long delta) {
+        if (marca == null || delta == 0) {
+            return;
+        }
+
+        AposCommit.executar(() -> aplicarEPublicar(marca, delta));
+    }
+
+    /**
+     * Move um veículo de marca; não faz nada se a marca não mudou.
+     */
+    public void trocarMarca(String anterior, String atual) {
+        if (anterior != null && anterior.equals(atual)) {
+            return;
+        }
+        registrar(anterior, -1);
+        registrar(atual, 1);
+    }
+
+    /**
+     * Recarrega as contagens do banco e devolve quantas marcas divergiam das mantidas em memória.
+     */
+    public synchronized int reconciliar() {
+        synchronized (trava) {
+            alteradas = new HashSet<>();
+        }
+
+        List<VeiculoPorMarcaResponse> banco;
+        try {
+            banco = repository.relatorioPorMarca();
+        } catch (RuntimeException e) {
+            synchronized (trava) {
+                alteradas = null;
+            }
+            throw e;
+        }
+
+        ConcurrentMap<String, AtomicLong> nova = new ConcurrentHashMap<>();
+        banco.forEach(linha -> nova.put(linha.marca(), new AtomicLong(linha.quantidade())));
+
+        int divergentes;
+        synchronized (trava) {
+            ConcurrentMap<String, AtomicLong> atual = contagens;
+            divergentes = atual == null ? 0 : contar(atual, nova, alteradas);
+            if (atual != null) {
+                for (String marca : alteradas) {
+                    AtomicLong memoria = atual.get(marca);
+                    nova.put(marca, new AtomicLong(memoria != null ? memoria.get() : 0));
+                }
+            }
+            alteradas = null;
+            contagens = nova;
+        }
+
+        if (divergentes > 0) {
+            divergencias.increment(divergentes);
+            log.warn("Contagem por marca divergia do banco em {} marca(s); corrigida", divergentes);
+        }
+        return divergentes;
+    }
+
+    @Override
+    public Topic topico() {
+        return new ChannelTopic(CANAL_CONTAGEM);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (partes.length != 3 || origem.equals(partes[0])) {
+            return;
+        }
+
+        try {
+            aplicar(partes[2], Long.parseLong(partes[1]));
+        } catch (NumberFormatException e) {
+            log.warn("Mensagem de contagem inválida: {}", partes[1]);
+        }
+    }
+
+    private void aplicarEPublicar(String marca, long delta) {
+        aplicar(marca, delta);
+
+        try {
+            redisTemplate.convertAndSend(CANAL_CONTAGEM, origem + SEPARADOR + delta + SEPARADOR + marca);
+        } catch (DataAccessException e) {
+            // os outros nós se corrigem na próxima reconciliação
+            log.debug("Falha ao publicar variação da contagem de {}: {}", marca, e.getMessage());
+        }
+    }
+
+    private void aplicar(String marca, long delta) {
+        synchronized (trava) {
+            if (alteradas != null) {
+                alteradas.add(marca);
+            }
+            ConcurrentMap<String, AtomicLong> atual = contagens;
+            if (atual != null) {
+                atual.computeIfAbsent(marca, m -> new AtomicLong()).addAndGet(delta);
+            }
+        }
+    }
+
+    private static int contar(Map<String, AtomicLong> memoria, Map<String, AtomicLong> banco, Set<String> ignoradas) {
+        int divergentes = 0;
+
+        for (Map.Entry<String, AtomicLong> entrada : memoria.entrySet()) {
+            if (ignoradas.contains(entrada.getKey())) {
+                continue;
+            }
+            AtomicLong esperado = banco.get(entrada.getKey());
+            if (entrada.getValue().get() != (esperado != null ? esperado.get() : 0)) {
+                divergentes++;
+            }
+        }
+        for (String marca : banco.keySet()) {
+            if (!memoria.containsKey(marca) && !ignoradas.contains(marca)) {
+                divergentes++;
+            }
+        }
+        return divergentes;
+    }
+}
@@ -0,0 +1,104 @@
+package com.galli.tinnova.service.relatorio;
+
+import com.galli.tinnova.config.cache.CodecCache;
+import com.galli.tinnova.config.cache.DeclaracaoCache;
+import com.galli.tinnova.repository.EstatisticaPreco;
+import com.galli.tinnova.repository.VeiculoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estatísticas de preço por marca, ano ou cor, cada agrupamento calculado numa única
+ * consulta e guardado em cache (chave: o agrupamento). Toda escrita em veículos chama
+ * {@link #invalidar()}, que remove as três chaves.
+ * <p>
+ * Só os valores em USD ficam em cache; a conversão para BRL é feita na leitura, com a
+ * cotação do momento.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EstatisticasVeiculos {
+
+    public static final String CACHE = "veiculos-estatisticas";
+
+    /**
+     * Formato da lista de {@link EstatisticaPreco} no Redis.
+     */
+    public static final CodecCache<ArrayList<EstatisticaPreco>> CODEC = CodecCache.lista(CodecCache.de(
+            EstatisticaPreco.class,
+            (estatistica, saida) -> {
+                CodecCache.escreverTexto(estatistica.grupo(), saida);
+                CodecCache.escreverLongo(estatistica.quantidade(), saida);
+                CodecCache.escreverDecimal(estatistica.minimo(), saida);
+                CodecCache.escreverDecimal(estatistica.maximo(), saida);
+                CodecCache.escreverDecimal(estatistica.soma(), saida);
+            },
+            entrada -> new EstatisticaPreco(
+                    CodecCache.lerTexto(entrada),
+                    CodecCache.lerLongo(entrada),
+                    CodecCache.lerDecimal(entrada),
+                    CodecCache.lerDecimal(entrada),
+                    CodecCache.lerDecimal(entrada)
+            )
+    ));
+
+    @Bean
+    static DeclaracaoCache declaracaoCacheEstatisticas() {
+        return DeclaracaoCache.com(CACHE, CODEC);
+    }
+
+    private final VeiculoRepository repository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(value = CACHE, key = "#agrupamento.name()", sync = true)
+    public List<EstatisticaPreco> calcular(Agrupamento agrupamento) {
+        List<EstatisticaPreco> estatisticas = switch (agrupamento) {
+            case MARCA -> repository.estatisticasPorMarca();
+            case ANO -> repository.estatisticasPorAno();
+            case COR -> repository.estatisticasPorCor();
+        };
+        // lista de tipo conhecido para o serializador do Redis
+        return new ArrayList<>(estatisticas);
+    }
+
+    public void invalidar() {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+
+        try {
+            for (Agrupamento agrupamento : Agrupamento.values()) {
+                cache.evict(agrupamento.name());
+            }
+        } catch (DataAccessException e) {
+            // a escrita já foi confirmada; a entrada antiga expira pelo TTL
+            log.warn("Falha ao invalidar estatísticas de veículos: {}", e.getMessage());
+        }
+    }
+
+    public enum Agrupamento {
+        MARCA,
+        ANO,
+        COR;
+
+        public static Agrupamento de(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Agrupamento inválido: " + valor + " (use marca, ano ou cor)");
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- H2 não suporta índices parciais: o ativo entra como primeira coluna.
+CREATE INDEX idx_veiculos_ativo_marca_ano ON veiculos (ativo, marca, ano);
+CREATE INDEX idx_veiculos_ativo_ano ON veiculos (ativo, ano);
+CREATE INDEX idx_veiculos_ativo_cor ON veiculos (ativo, cor);
+CREATE INDEX idx_veiculos_ativo_preco ON veiculos (ativo, preco_usd, id);
@@ -0,0 +1,5 @@
+-- Ids passam a vir de sequence com alocação em blocos de 50 (pooled-lo),
+-- o que permite ao Hibernate agrupar os INSERTs em batches JDBC.
+ALTER TABLE veiculos ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE veiculos_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Versão para lock otimista e ETag; registros existentes começam na versão 0.
+ALTER TABLE veiculos ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,5 @@
+-- Colunas aceitas como ordenação do cursor não podem ser nulas: o keyset compara
+-- (campo, id) > (valor, ultimoId) e um NULL não tem posição nessa comparação.
+ALTER TABLE veiculos ALTER COLUMN marca SET NOT NULL;
+ALTER TABLE veiculos ALTER COLUMN ano SET NOT NULL;
+ALTER TABLE veiculos ALTER COLUMN preco_usd SET NOT NULL;
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS veiculos (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    marca       VARCHAR(255),
+    modelo      VARCHAR(255),
+    ano         INTEGER,
+    cor         VARCHAR(255),
+    placa       VARCHAR(255) NOT NULL,
+    preco_usd   NUMERIC(38, 2),
+    ativo       BOOLEAN,
+    CONSTRAINT uk_veiculos_placa UNIQUE (placa)
+);
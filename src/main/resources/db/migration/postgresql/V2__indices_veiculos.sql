@@ -0,0 +1,37 @@
+-- Índices da tabela veiculos para PostgreSQL.
+--
+-- Todas as consultas de leitura filtram por ativo = true, então os índices são
+-- parciais: ficam menores e não carregam veículos removidos (soft delete).
+-- CONCURRENTLY evita bloquear escritas durante a criação em produção; por isso
+-- este script contém apenas CREATE INDEX e o Flyway o executa fora de transação.
+
+-- filtrar por marca (e marca + ano) e relatorioPorMarca (GROUP BY marca)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_veiculos_ativo_marca_ano
+    ON veiculos (marca, ano)
+    WHERE ativo = true;
+
+-- filtrar por ano
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_veiculos_ativo_ano
+    ON veiculos (ano)
+    WHERE ativo = true;
+
+-- filtrar por cor
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_veiculos_ativo_cor
+    ON veiculos (cor)
+    WHERE ativo = true;
+
+-- faixa de preço e paginação por cursor ordenada por precoUsd (desempate por id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_veiculos_ativo_preco
+    ON veiculos (preco_usd, id)
+    WHERE ativo = true;
+
+-- Verificação dos planos (antes: Seq Scan on veiculos; depois: Index/Bitmap Index Scan):
+--
+-- EXPLAIN SELECT * FROM veiculos WHERE ativo = true AND marca = 'Ford' AND ano = 2020;
+--   -> Index Scan using idx_veiculos_ativo_marca_ano on veiculos
+--
+-- EXPLAIN SELECT * FROM veiculos WHERE ativo = true AND preco_usd BETWEEN 10000 AND 20000;
+--   -> Index Scan using idx_veiculos_ativo_preco on veiculos
+--
+-- EXPLAIN SELECT marca, count(*) FROM veiculos WHERE ativo = true GROUP BY marca;
+--   -> GroupAggregate -> Index Only Scan using idx_veiculos_ativo_marca_ano on veiculos
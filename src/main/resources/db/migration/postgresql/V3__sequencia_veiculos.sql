@@ -0,0 +1,9 @@
+-- Ids passam a vir de sequence com alocação em blocos de 50 (pooled-lo),
+-- o que permite ao Hibernate agrupar os INSERTs em batches JDBC.
+ALTER TABLE veiculos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS veiculos_seq INCREMENT BY 50;
+
+-- Com pooled-lo o valor da sequence é o primeiro id do bloco, então basta
+-- continuar a partir do maior id existente.
+SELECT setval('veiculos_seq', COALESCE((SELECT MAX(id) FROM veiculos), 0) + 1, false);
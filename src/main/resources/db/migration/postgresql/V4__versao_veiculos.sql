@@ -0,0 +1,3 @@
+-- Versão para lock otimista e ETag; registros existentes começam na versão 0.
+-- Com DEFAULT constante o PostgreSQL 11+ adiciona a coluna sem reescrever a tabela.
+ALTER TABLE veiculos ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
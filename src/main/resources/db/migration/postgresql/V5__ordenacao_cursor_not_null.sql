@@ -0,0 +1,7 @@
+-- Colunas aceitas como ordenação do cursor não podem ser nulas: o keyset compara
+-- (campo, id) > (valor, ultimoId) e um NULL não tem posição nessa comparação.
+-- A API já exige os três campos; a migração falha se houver linhas gravadas por fora com NULL.
+ALTER TABLE veiculos
+    ALTER COLUMN marca SET NOT NULL,
+    ALTER COLUMN ano SET NOT NULL,
+    ALTER COLUMN preco_usd SET NOT NULL;
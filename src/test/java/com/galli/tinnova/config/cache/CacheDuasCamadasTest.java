@@ -0,0 +1,293 @@
+package com.galli.tinnova.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheDuasCamadasTest {
+
+    private static final String CHAVE = "usd-brl::SimpleKey []";
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final List<String> invalidacoes = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RedisCacheRemoto remoto;
+    private CacheDuasCamadas cache;
+
+    @BeforeEach
+    void setUp() {
+        remoto = mock(RedisCacheRemoto.class);
+        when(remoto.getName()).thenReturn("usd-brl");
+        when(remoto.chave(any())).thenReturn(CHAVE);
+        when(remoto.ttl(any(), any())).thenReturn(Duration.ofMinutes(10));
+
+        cache = new CacheDuasCamadas(
+                remoto,
+                (nome, chaves) -> invalidacoes.add(nome + "=" + (chaves != null ? String.join(",", chaves) : null)),
+                meterRegistry,
+                100,
+                relogio::get
+        );
+    }
+
+    @Test
+    void deveServirDoL1AposPrimeiraLeituraNoRedis() {
+        when(remoto.get("k")).thenReturn(new SimpleValueWrapper(new BigDecimal("5.12")));
+        when(remoto.tempoRestante(CHAVE)).thenReturn(Duration.ofMinutes(5));
+
+        assertThat(cache.get("k", BigDecimal.class)).isEqualByComparingTo("5.12");
+        assertThat(cache.get("k", BigDecimal.class)).isEqualByComparingTo("5.12");
+        assertThat(cache.get("k", BigDecimal.class)).isEqualByComparingTo("5.12");
+
+        verify(remoto, times(1)).get("k");
+        assertThat(contagem("l1", "hit")).isEqualTo(2);
+        assertThat(contagem("l1", "miss")).isEqualTo(1);
+        assertThat(contagem("l2", "hit")).isEqualTo(1);
+        assertThat(contagem("l2", "miss")).isZero();
+    }
+
+    @Test
+    void deveExpirarL1JuntoComAEntradaDoRedis() {
+        when(remoto.get("k")).thenReturn(new SimpleValueWrapper(new BigDecimal("5.12")));
+        when(remoto.tempoRestante(CHAVE)).thenReturn(Duration.ofSeconds(30));
+
+        cache.get("k");
+        avancar(Duration.ofSeconds(29));
+        cache.get("k");
+        verify(remoto, times(1)).get("k");
+
+        avancar(Duration.ofSeconds(2));
+        cache.get("k");
+        verify(remoto, times(2)).get("k");
+    }
+
+    @Test
+    void deveContarFaltaNasDuasCamadas() {
+        assertThat(cache.get("k")).isNull();
+
+        assertThat(contagem("l1", "miss")).isEqualTo(1);
+        assertThat(contagem("l2", "miss")).isEqualTo(1);
+        verify(remoto, never()).tempoRestante(any());
+    }
+
+    @Test
+    void nuloEmCacheDeveSerServidoSemChamarOLoader() {
+        when(remoto.isAllowNullValues()).thenReturn(true);
+        AtomicLong chamadas = new AtomicLong();
+        Callable<BigDecimal> loader = () -> {
+            chamadas.incrementAndGet();
+            return null;
+        };
+        when(remoto.get(eq("k"), any(Callable.class)))
+                .thenAnswer(inv -> inv.<Callable<?>>getArgument(1).call());
+
+        assertThat(cache.get("k", loader)).isNull();
+        assertThat(cache.get("k", loader)).isNull();
+
+        // o nulo carregado ficou no L1: nem o loader nem o Redis foram consultados de novo
+        assertThat(chamadas).hasValue(1);
+        verify(remoto, times(1)).get(eq("k"), any(Callable.class));
+        assertThat(cache.get("k")).isNotNull().extracting(ValueWrapper::get).isNull();
+    }
+
+    @Test
+    void nuloGuardadoNoRedisDeveSerAcerto() {
+        when(remoto.isAllowNullValues()).thenReturn(true);
+        when(remoto.get("k")).thenReturn(new SimpleValueWrapper(null));
+        when(remoto.tempoRestante(CHAVE)).thenReturn(Duration.ofMinutes(5));
+
+        assertThat(cache.get("k")).isNotNull().extracting(ValueWrapper::get).isNull();
+        assertThat(cache.get("k", () -> BigDecimal.ONE)).isNull();
+
+        verify(remoto, times(1)).get("k");
+        verify(remoto, never()).get(eq("k"), any(Callable.class));
+        assertThat(contagem("l2", "hit")).isEqualTo(1);
+        assertThat(contagem("l1", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void semCachearNulosONuloNaoDeveFicarNoL1() {
+        when(remoto.get(eq("k"), any(Callable.class))).thenReturn(null);
+
+        cache.get("k", () -> null);
+        cache.get("k", () -> null);
+
+        verify(remoto, times(2)).get(eq("k"), any(Callable.class));
+    }
+
+    @Test
+    void deveGravarNasDuasCamadasENotificarOsOutrosNos() {
+        cache.put("k", new BigDecimal("5.30"));
+
+        verify(remoto).put("k", new BigDecimal("5.30"));
+        assertThat(cache.get("k", BigDecimal.class)).isEqualByComparingTo("5.30");
+        verify(remoto, never()).get("k");
+        assertThat(invalidacoes).containsExactly("usd-brl=" + CHAVE);
+    }
+
+    @Test
+    void deveRemoverDasDuasCamadasENotificarOsOutrosNos() {
+        cache.put("k", new BigDecimal("5.30"));
+        cache.evict("k");
+
+        verify(remoto).evict("k");
+        assertThat(cache.get("k")).isNull();
+        assertThat(invalidacoes).containsExactly("usd-brl=" + CHAVE, "usd-brl=" + CHAVE);
+    }
+
+    @Test
+    void deveLimparONotificandoOCacheInteiro() {
+        cache.put("k", new BigDecimal("5.30"));
+        cache.clear();
+
+        verify(remoto).clear();
+        assertThat(cache.get("k")).isNull();
+        assertThat(invalidacoes).last().isEqualTo("usd-brl=null");
+    }
+
+    @Test
+    void deveLerVariasChavesComUmaIdaAoRedisSoParaAsFaltasDoL1() {
+        when(remoto.chave("a")).thenReturn("usd-brl::a");
+        when(remoto.chave("b")).thenReturn("usd-brl::b");
+        when(remoto.chave("c")).thenReturn("usd-brl::c");
+        cache.put("a", BigDecimal.ONE);
+        when(remoto.getVarias(List.of("usd-brl::b", "usd-brl::c"))).thenReturn(Map.of(
+                "usd-brl::b", new RedisCacheRemoto.EntradaRemota(BigDecimal.TEN, Duration.ofSeconds(30))));
+
+        assertThat(cache.getVarias(List.of("a", "b", "c")))
+                .containsOnly(Map.entry("a", BigDecimal.ONE), Map.entry("b", BigDecimal.TEN));
+
+        // b foi para o L1 com o TTL restante no Redis
+        assertThat(cache.get("b").get()).isEqualTo(BigDecimal.TEN);
+        avancar(Duration.ofSeconds(31));
+        assertThat(cache.get("b")).isNull();
+
+        verify(remoto, times(1)).getVarias(any());
+        verify(remoto, never()).get("a");
+        verify(remoto, never()).tempoRestante(any());
+        assertThat(medidor(CacheDuasCamadas.METRICA_LEITURAS, "result", "hit")).isEqualTo(3);
+        assertThat(contagem("l2", "miss")).isEqualTo(2);
+    }
+
+    @Test
+    void deveRemoverVariasChavesComUmComandoEUmaNotificacao() {
+        when(remoto.chave("a")).thenReturn("usd-brl::a");
+        when(remoto.chave("b")).thenReturn("usd-brl::b");
+        cache.put("a", BigDecimal.ONE);
+        cache.put("b", BigDecimal.TEN);
+        invalidacoes.clear();
+
+        cache.evictVarias(List.of("a", "b"));
+
+        verify(remoto).evictVarias(List.of("usd-brl::a", "usd-brl::b"));
+        verify(remoto, never()).evict(any());
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(invalidacoes).containsExactly("usd-brl=usd-brl::a,usd-brl::b");
+        assertThat(medidor(CacheDuasCamadas.METRICA_DESCARTES, "cause", "explicit")).isEqualTo(2);
+    }
+
+    @Test
+    void deveDescartarSoOL1AoReceberInvalidacao() {
+        when(remoto.get("k")).thenReturn(new SimpleValueWrapper(new BigDecimal("5.12")));
+
+        cache.get("k");
+        cache.invalidarLocal(CHAVE);
+        cache.get("k");
+
+        verify(remoto, times(2)).get("k");
+        verify(remoto, never()).evict(any());
+        assertThat(invalidacoes).isEmpty();
+    }
+
+    @Test
+    void deveCarregarComValueLoaderEGuardarNoL1() {
+        when(remoto.get(eq("k"), any(Callable.class))).thenReturn(new BigDecimal("5.12"));
+
+        BigDecimal valor = cache.get("k", () -> new BigDecimal("5.12"));
+        cache.get("k");
+
+        assertThat(valor).isEqualByComparingTo("5.12");
+        verify(remoto, times(1)).get("k");
+        assertThat(contagem("l1", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void deveContarLeiturasEscritasEDescartesSomandoAsCamadas() {
+        assertThat(cache.get("k")).isNull();
+        cache.put("k", new BigDecimal("5.30"));
+        cache.get("k");
+        assertThat(meterRegistry.get(CacheDuasCamadas.METRICA_TAMANHO).tag("cache", "usd-brl").gauge().value())
+                .isEqualTo(1);
+        cache.evict("k");
+
+        assertThat(medidor(CacheDuasCamadas.METRICA_LEITURAS, "result", "hit")).isEqualTo(1);
+        assertThat(medidor(CacheDuasCamadas.METRICA_LEITURAS, "result", "miss")).isEqualTo(1);
+        assertThat(meterRegistry.get(CacheDuasCamadas.METRICA_ESCRITAS).counter().count()).isEqualTo(1);
+        assertThat(medidor(CacheDuasCamadas.METRICA_DESCARTES, "cause", "explicit")).isEqualTo(1);
+    }
+
+    @Test
+    void deveContarDescartePorTamanhoNoL1() {
+        CacheDuasCamadas pequeno = new CacheDuasCamadas(remoto, (nome, chaves) -> {}, meterRegistry, 1, relogio::get);
+        when(remoto.chave("a")).thenReturn("usd-brl::a");
+        when(remoto.chave("b")).thenReturn("usd-brl::b");
+
+        pequeno.put("a", BigDecimal.ONE);
+        pequeno.put("b", BigDecimal.TEN);
+        ((Cache<?, ?>) pequeno.getNativeCache()).cleanUp();
+
+        assertThat(medidor(CacheDuasCamadas.METRICA_DESCARTES, "cause", "size")).isEqualTo(1);
+    }
+
+    @Test
+    void deveMedirTempoDeCargaComResultado() throws Exception {
+        when(remoto.get(eq("k"), any(Callable.class)))
+                .thenAnswer(inv -> inv.<Callable<?>>getArgument(1).call());
+
+        assertThatThrownBy(() -> cache.get("k", () -> {
+            throw new IllegalStateException("provedor fora do ar");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get("k", () -> new BigDecimal("5.12"));
+
+        assertThat(meterRegistry.get(CacheDuasCamadas.METRICA_CARGA).tag("result", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(CacheDuasCamadas.METRICA_CARGA).tag("result", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    private void avancar(Duration duracao) {
+        relogio.addAndGet(duracao.toNanos());
+    }
+
+    private double contagem(String camada, String resultado) {
+        return meterRegistry.get(CacheDuasCamadas.METRICA)
+                .tag("cache", "usd-brl")
+                .tag("tier", camada)
+                .tag("result", resultado)
+                .counter()
+                .count();
+    }
+
+    private double medidor(String nome, String tag, String valor) {
+        return meterRegistry.get(nome).tag("cache", "usd-brl").tag(tag, valor).counter().count();
+    }
+}
@@ -0,0 +1,105 @@
+package com.galli.tinnova.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheManagerDuasCamadasTest {
+
+    private static final String CHAVE = "usd-brl::SimpleKey []";
+    private static final String CANAL = "tinnova:cache:invalidacao";
+
+    private RedisCacheRemoto remoto;
+    private StringRedisTemplate redisTemplate;
+    private CacheManagerDuasCamadas cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoto = mock(RedisCacheRemoto.class);
+        when(remoto.getName()).thenReturn("usd-brl");
+        when(remoto.chave(any())).thenReturn(CHAVE);
+        when(remoto.ttl(any(), any())).thenReturn(Duration.ofMinutes(10));
+
+        RedisCacheManagerRemoto redisCacheManager = mock(RedisCacheManagerRemoto.class);
+        when(redisCacheManager.getCache("usd-brl")).thenReturn(remoto);
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        cacheManager = new CacheManagerDuasCamadas(
+                redisCacheManager, redisTemplate, new SimpleMeterRegistry(), nome -> 100, CANAL);
+    }
+
+    @Test
+    void deveAssinarOCanalConfigurado() {
+        assertThat(cacheManager.topico()).isEqualTo(new ChannelTopic(CANAL));
+    }
+
+    @Test
+    void deveReutilizarAMesmaInstanciaPorNome() {
+        assertThat(cacheManager.getCache("usd-brl")).isSameAs(cacheManager.getCache("usd-brl"));
+    }
+
+    @Test
+    void deveIgnorarInvalidacaoPublicadaPeloProprioNo() {
+        cacheManager.getCache("usd-brl").put("k", new BigDecimal("5.12"));
+
+        ArgumentCaptor<String> mensagem = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CANAL), mensagem.capture());
+
+        cacheManager.onMessage(mensagem(mensagem.getValue()), null);
+
+        assertThat(cacheManager.getCache("usd-brl").get("k").get()).isEqualTo(new BigDecimal("5.12"));
+        verify(remoto, never()).get("k");
+    }
+
+    @Test
+    void deveDescartarL1AoReceberInvalidacaoDeOutroNo() {
+        cacheManager.getCache("usd-brl").put("k", new BigDecimal("5.12"));
+
+        cacheManager.onMessage(mensagem("outro-no|usd-brl|" + CHAVE), null);
+
+        assertThat(cacheManager.getCache("usd-brl").get("k")).isNull();
+        verify(remoto).get("k");
+    }
+
+    @Test
+    void deveDescartarTodasAsChavesDeUmaInvalidacaoEmLote() {
+        when(remoto.chave("a")).thenReturn("usd-brl::a");
+        when(remoto.chave("b")).thenReturn("usd-brl::b");
+        cacheManager.getCache("usd-brl").put("a", BigDecimal.ONE);
+        cacheManager.getCache("usd-brl").put("b", BigDecimal.TEN);
+
+        cacheManager.onMessage(mensagem("outro-no|usd-brl|usd-brl::a\nusd-brl::b"), null);
+
+        assertThat(cacheManager.getCache("usd-brl").get("a")).isNull();
+        assertThat(cacheManager.getCache("usd-brl").get("b")).isNull();
+    }
+
+    @Test
+    void deveDescartarCacheInteiroAoReceberLimpeza() {
+        cacheManager.getCache("usd-brl").put("k", new BigDecimal("5.12"));
+
+        cacheManager.onMessage(mensagem("outro-no|usd-brl|*"), null);
+
+        assertThat(cacheManager.getCache("usd-brl").get("k")).isNull();
+    }
+
+    private DefaultMessage mensagem(String corpo) {
+        return new DefaultMessage(
+                CANAL.getBytes(StandardCharsets.UTF_8),
+                corpo.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.galli.tinnova.config.cache;
+
+import com.galli.tinnova.config.cache.ConfiguracaoCacheEndpoint.CacheEfetivo;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConfiguracaoCacheEndpointTest {
+
+    @Test
+    void deveListarConfiguracaoEfetivaDeCadaCache() {
+        PropriedadesCache propriedades = new Binder(new MapConfigurationPropertySource(Map.of(
+                "cache.padrao.prefixo", "tinnova:",
+                "cache.regioes.veiculos-listagem.ttl", "5m",
+                "cache.regioes.veiculos-listagem.tamanho-maximo-local", "2000"
+        ))).bindOrCreate("cache", PropriedadesCache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCacheNames()).thenReturn(List.of("outro"));
+
+        Map<String, CacheEfetivo> caches = new ConfiguracaoCacheEndpoint(propriedades, cacheManager, List.of(
+                DeclaracaoCache.com("usd-brl", CodecCache.DECIMAL),
+                DeclaracaoCache.com("veiculos", CodecCache.DECIMAL),
+                DeclaracaoCache.com("veiculos-estatisticas", CodecCache.DECIMAL),
+                DeclaracaoCache.com("veiculos-listagem", CodecCache.DECIMAL)
+        )).caches();
+
+        assertThat(caches.keySet()).containsExactly(
+                "outro", "usd-brl", "veiculos", "veiculos-estatisticas", "veiculos-listagem");
+        assertThat(caches.get("veiculos-listagem"))
+                .isEqualTo(new CacheEfetivo("PT5M", 2000, false, "tinnova:veiculos-listagem::", "binario"));
+        assertThat(caches.get("outro"))
+                .isEqualTo(new CacheEfetivo("PT10M", 10_000, false, "tinnova:outro::", "json"));
+    }
+}
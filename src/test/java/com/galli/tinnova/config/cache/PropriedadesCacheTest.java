@@ -0,0 +1,96 @@
+package com.galli.tinnova.config.cache;
+
+import com.galli.tinnova.config.cache.PropriedadesCache.ConfiguracaoCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PropriedadesCacheTest {
+
+    private static final Set<String> CONHECIDOS = Set.of("veiculos", "veiculos-listagem", "usd-brl");
+
+    @Test
+    void semPropriedadesDeveUsarOsValoresPadrao() {
+        PropriedadesCache propriedades = vincular(Map.of());
+
+        assertThat(propriedades.efetiva("veiculos"))
+                .isEqualTo(new ConfiguracaoCache(Duration.ofMinutes(10), 10_000, false, ""));
+        propriedades.validar(CONHECIDOS);
+    }
+
+    @Test
+    void regiaoDeveSobreporApenasOsCamposInformados() {
+        PropriedadesCache propriedades = vincular(Map.of(
+                "cache.padrao.ttl", "20m",
+                "cache.padrao.prefixo", "tinnova:",
+                "cache.regioes.veiculos.ttl", "1h",
+                "cache.regioes.veiculos.cachear-nulos", "true",
+                "cache.regioes.usd-brl.tamanho-maximo-local", "0",
+                "cache.listagem.ttl-etiquetas", "30m"
+        ));
+
+        assertThat(propriedades.efetiva("veiculos"))
+                .isEqualTo(new ConfiguracaoCache(Duration.ofHours(1), 10_000, true, "tinnova:"));
+        assertThat(propriedades.efetiva("usd-brl"))
+                .isEqualTo(new ConfiguracaoCache(Duration.ofMinutes(20), 0, false, "tinnova:"));
+        assertThat(propriedades.efetiva("veiculos-listagem"))
+                .isEqualTo(new ConfiguracaoCache(Duration.ofMinutes(20), 10_000, false, "tinnova:"));
+        propriedades.validar(CONHECIDOS);
+    }
+
+    @Test
+    void validarDeveReunirTodosOsErros() {
+        PropriedadesCache propriedades = vincular(Map.of(
+                "cache.padrao.ttl", "0s",
+                "cache.regioes.veiculo.ttl", "5m",
+                "cache.regioes.veiculos.tamanho-maximo-local", "-1",
+                "cache.redis.compressao-acima-de", "-1B"
+        ));
+
+        assertThatThrownBy(() -> propriedades.validar(CONHECIDOS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cache.padrao.ttl")
+                .hasMessageContaining("cache.regioes.veiculo: cache desconhecido")
+                .hasMessageContaining("cache.regioes.veiculos.tamanho-maximo-local")
+                .hasMessageContaining("cache.redis.compressao-acima-de");
+    }
+
+    @Test
+    void etiquetasQueExpiramAntesDasPaginasDevemSerRejeitadas() {
+        PropriedadesCache propriedades = vincular(Map.of(
+                "cache.regioes.veiculos-listagem.ttl", "1h"
+        ));
+
+        assertThat(vincular(Map.of()).ttlEtiquetas("veiculos-listagem")).isEqualTo(Duration.ofMinutes(15));
+        assertThatThrownBy(() -> propriedades.ttlEtiquetas("veiculos-listagem"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cache.listagem.ttl-etiquetas");
+    }
+
+    @Test
+    void chavesDiretasECanalDevemUsarOPrefixoEfetivo() {
+        PropriedadesCache semPrefixo = vincular(Map.of());
+        PropriedadesCache propriedades = vincular(Map.of(
+                "cache.padrao.prefixo", "tinnova:",
+                "cache.regioes.veiculos.prefixo", "frota:"
+        ));
+
+        assertThat(semPrefixo.prefixoChaves("veiculos")).isEqualTo("veiculos:");
+        assertThat(semPrefixo.canalInvalidacao()).isEqualTo("cache:invalidacao");
+        assertThat(propriedades.prefixoChaves("veiculos-listagem")).isEqualTo("tinnova:veiculos-listagem:");
+        assertThat(propriedades.prefixoChaves("veiculos")).isEqualTo("frota:veiculos:");
+        assertThat(propriedades.canalInvalidacao()).isEqualTo("tinnova:cache:invalidacao");
+    }
+
+    private static PropriedadesCache vincular(Map<String, String> valores) {
+        return new Binder(new MapConfigurationPropertySource(valores))
+                .bindOrCreate("cache", PropriedadesCache.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.galli.tinnova.config.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RedisCacheWriterMedidoTest {
+
+    private static final byte[] CHAVE = "veiculos::1".getBytes();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RedisCacheWriter delegado = mock(RedisCacheWriter.class);
+    private final RedisCacheWriterMedido writer = new RedisCacheWriterMedido(delegado, meterRegistry);
+
+    @Test
+    void deveRegistrarTamanhoDosValoresLidosEGravadosPorCache() {
+        when(delegado.get("veiculos", CHAVE)).thenReturn(new byte[30]);
+
+        writer.put("veiculos", CHAVE, new byte[10], Duration.ofMinutes(10));
+        writer.get("veiculos", CHAVE);
+        writer.get("usd-brl", CHAVE);
+
+        verify(delegado).put("veiculos", CHAVE, new byte[10], Duration.ofMinutes(10));
+        assertThat(tamanho("veiculos", "write").totalAmount()).isEqualTo(10);
+        assertThat(tamanho("veiculos", "read").totalAmount()).isEqualTo(30);
+        // falta no Redis não conta como leitura de valor
+        assertThat(meterRegistry.find(RedisCacheWriterMedido.METRICA).tag("cache", "usd-brl").summary()).isNull();
+    }
+
+    @Test
+    void putIfAbsentSoDeveContarQuandoGravar() {
+        when(delegado.putIfAbsent(eq("veiculos"), any(), any(), any())).thenReturn(null, new byte[8]);
+
+        writer.putIfAbsent("veiculos", CHAVE, new byte[5], Duration.ofMinutes(10));
+        writer.putIfAbsent("veiculos", CHAVE, new byte[5], Duration.ofMinutes(10));
+
+        assertThat(tamanho("veiculos", "write").count()).isEqualTo(1);
+    }
+
+    private DistributionSummary tamanho(String cache, String operacao) {
+        return meterRegistry.get(RedisCacheWriterMedido.METRICA)
+                .tag("cache", cache)
+                .tag("operation", operacao)
+                .summary();
+    }
+}
@@ -0,0 +1,88 @@
+package com.galli.tinnova.config.cache;
+
+import com.galli.tinnova.repository.EstatisticaPreco;
+import com.galli.tinnova.repository.VeiculoResumo;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes por entrada e tempo de ida e volta (serializar + desserializar) de cada cache com o
+ * JSON tipado e com o {@link SerializadorCompacto}. Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SerializadorCompactoBenchmarkTest {
+
+    private static final int AQUECIMENTO = 200_000;
+    private static final int ITERACOES = 500_000;
+
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    @DisplayName("Formato binário deve ocupar menos bytes e custar menos que JSON por entrada")
+    void compararSerializadores() {
+        List<Caso> casos = List.of(
+                new Caso("usd-brl", CodecCache.DECIMAL, new BigDecimal("5.1234")),
+                new Caso(CacheVeiculos.CACHE, CacheVeiculos.CODEC, new VeiculoResumo(
+                        123_456L, "Volkswagen", "Gol", 2020, "Prata", "ABC1D23", new BigDecimal("10000.00"), 7L)),
+                new Caso(CacheListagemVeiculos.CACHE, CacheListagemVeiculos.CODEC, new CacheListagemVeiculos.PaginaEmCache(
+                        new ArrayList<>(LongStream.range(100_000, 100_020).boxed().toList()), 5_000)),
+                new Caso(EstatisticasVeiculos.CACHE, EstatisticasVeiculos.CODEC, new ArrayList<>(IntStream.range(0, 30)
+                        .mapToObj(i -> new EstatisticaPreco("Marca " + i, 100L + i, new BigDecimal("9000.00"),
+                                new BigDecimal("90000.00"), new BigDecimal("1234567.89")))
+                        .toList()))
+        );
+
+        System.out.printf("%n%-24s %10s %10s %10s %10s%n", "cache", "bytes json", "bytes bin", "ns json", "ns bin");
+        for (Caso caso : casos) {
+            RedisSerializer<Object> compacto =
+                    new SerializadorCompacto(List.of(caso.codec()), 1024, json);
+
+            int bytesJson = json.serialize(caso.valor()).length;
+            int bytesCompacto = compacto.serialize(caso.valor()).length;
+            double nsJson = medir(json, caso.valor());
+            double nsCompacto = medir(compacto, caso.valor());
+            // segunda rodada alternada, vale a melhor: reduz o peso da ordem de compilação do JIT
+            nsJson = Math.min(nsJson, medir(json, caso.valor()));
+            nsCompacto = Math.min(nsCompacto, medir(compacto, caso.valor()));
+
+            System.out.printf("%-24s %10d %10d %10.0f %10.0f%n",
+                    caso.cache(), bytesJson, bytesCompacto, nsJson, nsCompacto);
+
+            assertThat(bytesCompacto).isLessThan(bytesJson);
+            assertThat(nsCompacto).isLessThan(nsJson);
+        }
+    }
+
+    private static double medir(RedisSerializer<Object> serializador, Object valor) {
+        Object ultimo = null;
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            ultimo = serializador.deserialize(serializador.serialize(valor));
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            ultimo = serializador.deserialize(serializador.serialize(valor));
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        assertThat(ultimo).isEqualTo(valor);
+        return (double) nanos / ITERACOES;
+    }
+
+    private record Caso(String cache, CodecCache<?> codec, Object valor) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.galli.tinnova.config.cache;
+
+import com.galli.tinnova.repository.EstatisticaPreco;
+import com.galli.tinnova.repository.VeiculoResumo;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SerializadorCompactoTest {
+
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    void cacheDeclaradoDuasVezesDeveSerRejeitado() {
+        List<DeclaracaoCache> declaracoes = List.of(
+                DeclaracaoCache.com(CacheVeiculos.CACHE, CacheVeiculos.CODEC),
+                DeclaracaoCache.com(CacheVeiculos.CACHE)
+        );
+
+        assertThatThrownBy(() -> DeclaracaoCache.porNome(declaracoes))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(CacheVeiculos.CACHE);
+    }
+
+    @Test
+    void valoresDeCadaCacheDevemSobreviverAoFormatoBinarioEOcuparMenosQueJson() {
+        List<Object> valores = List.of(
+                new BigDecimal("5.1234"),
+                resumo(),
+                new CacheListagemVeiculos.PaginaEmCache(new ArrayList<>(List.of(1L, 2L, 3_000_000_000L)), 42),
+                new ArrayList<>(List.of(
+                        new EstatisticaPreco("Ford", 2L, new BigDecimal("10000.00"), new BigDecimal("20000.00"),
+                                new BigDecimal("30000.00")),
+                        new EstatisticaPreco(null, 0L, null, null, null)
+                ))
+        );
+        List<CodecCache<?>> codecs = List.of(
+                CodecCache.DECIMAL, CacheVeiculos.CODEC, CacheListagemVeiculos.CODEC, EstatisticasVeiculos.CODEC);
+
+        for (int i = 0; i < valores.size(); i++) {
+            SerializadorCompacto serializador = serializadorDe(codecs.get(i), 1024);
+            byte[] bytes = serializador.serialize(valores.get(i));
+
+            assertThat(bytes[0]).isEqualTo(SerializadorCompacto.MAGICO);
+            assertThat(serializador.deserialize(bytes)).isEqualTo(valores.get(i));
+            assertThat(bytes.length).isLessThan(json.serialize(valores.get(i)).length / 2);
+        }
+    }
+
+    @Test
+    void entradaJsonGravadaAntesDaTrocaDeveContinuarLegivel() {
+        SerializadorCompacto serializador = serializadorDe(CacheVeiculos.CODEC, 1024);
+
+        assertThat(serializador.deserialize(json.serialize(resumo()))).isEqualTo(resumo());
+        assertThat(serializadorDe(CodecCache.DECIMAL, 1024).deserialize(json.serialize(new BigDecimal("5.12"))))
+                .isEqualTo(new BigDecimal("5.12"));
+    }
+
+    @Test
+    void tipoSemCodecDeveSerGravadoEmJson() {
+        SerializadorCompacto serializador = serializadorDe(CacheVeiculos.CODEC, 1024);
+
+        byte[] bytes = serializador.serialize("texto");
+
+        assertThat(bytes[0]).isNotEqualTo(SerializadorCompacto.MAGICO);
+        assertThat(serializador.deserialize(bytes)).isEqualTo("texto");
+    }
+
+    @Test
+    void corpoAcimaDoLimiteDeveSerComprimido() {
+        CacheListagemVeiculos.PaginaEmCache pagina = new CacheListagemVeiculos.PaginaEmCache(
+                new ArrayList<>(LongStream.rangeClosed(1, 500).boxed().toList()), 500);
+
+        byte[] semCompressao = serializadorDe(CacheListagemVeiculos.CODEC, Integer.MAX_VALUE).serialize(pagina);
+        SerializadorCompacto comCompressao = serializadorDe(CacheListagemVeiculos.CODEC, 64);
+        byte[] comprimido = comCompressao.serialize(pagina);
+
+        assertThat(comprimido[1] & 1).isEqualTo(1);
+        assertThat(comprimido.length).isLessThan(semCompressao.length);
+        assertThat(comCompressao.deserialize(comprimido)).isEqualTo(pagina);
+    }
+
+    @Test
+    void entradaBinariaCorrompidaDeveFalharComSerializationException() {
+        SerializadorCompacto serializador = serializadorDe(CacheVeiculos.CODEC, 1024);
+        byte[] bytes = serializador.serialize(resumo());
+
+        assertThatThrownBy(() -> serializador.deserialize(Arrays.copyOf(bytes, bytes.length - 3)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializador.deserialize(new byte[]{SerializadorCompacto.MAGICO, 0, 9}))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void inteiroVariavelDeveCobrirNegativosEExtremos() {
+        CodecCache<Long> codec = CodecCache.de(Long.class, CodecCache::escreverLongo, CodecCache::lerLongo);
+        SerializadorCompacto serializador = new SerializadorCompacto(List.of(codec), 1024, json);
+
+        for (long valor : new long[]{0, 1, -1, 63, -64, 2020, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertThat(serializador.deserialize(serializador.serialize(valor))).isEqualTo(valor);
+        }
+    }
+
+    @Test
+    void tipoComDoisCodecsDeveSerRejeitado() {
+        assertThatThrownBy(() -> new SerializadorCompacto(List.of(CodecCache.DECIMAL, CodecCache.DECIMAL), 1024, json))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SerializadorCompacto serializadorDe(CodecCache<?> codec, int limiteCompressao) {
+        return new SerializadorCompacto(List.of(codec), limiteCompressao, json);
+    }
+
+    private static VeiculoResumo resumo() {
+        return new VeiculoResumo(1L, "Ford", "Ka", 2020, "Preto", "ABC1D23", new BigDecimal("10000.00"), 3L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.galli.tinnova.config.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void naoDeveDarFalsoNegativo() {
+        BloomFilter filtro = new BloomFilter(1_000, 0.01);
+        String[] valores = new String[1_000];
+
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = UUID.randomUUID().toString();
+            filtro.adicionar(valores[i]);
+        }
+
+        for (String valor : valores) {
+            assertThat(filtro.podeConter(valor)).isTrue();
+        }
+    }
+
+    @Test
+    void taxaDeFalsoPositivoDeveFicarPertoDaConfigurada() {
+        BloomFilter filtro = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar("presente-" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.podeConter("ausente-" + i)) {
+                falsosPositivos++;
+            }
+        }
+
+        assertThat(falsosPositivos / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void filtroVazioNaoDeveConterNada() {
+        BloomFilter filtro = new BloomFilter(100, 0.01);
+
+        assertThat(filtro.podeConter("qualquer")).isFalse();
+    }
+
+    @Test
+    void deveRejeitarParametrosInvalidos() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(100, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
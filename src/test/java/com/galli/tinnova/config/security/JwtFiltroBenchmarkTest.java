@@ -0,0 +1,92 @@
+package com.galli.tinnova.config.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Custo do {@link JwtAuthenticationFilter} por requisição autenticada em três cenários:
+ * o caminho antigo (um parser novo e uma verificação HMAC para o username e outra para o
+ * role), o parser único sem cache e o parser único com cache de tokens verificados.
+ * Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtFiltroBenchmarkTest {
+
+    private static final String SECRET = "minha-secret-super-segura-com-mais-de-256-bits!!!";
+    private static final int AQUECIMENTO = 20_000;
+    private static final int ITERACOES = 100_000;
+
+    @Test
+    @DisplayName("Parse único com cache deve reduzir o custo do filtro por requisição")
+    void compararFiltro() throws Exception {
+        JwtService semCache = new JwtService(SECRET, 3600000);
+        JwtService comCache = new JwtService(SECRET, 3600000, 3600000, 10_000, Duration.ofMinutes(5));
+        // nenhum token revogado: o bloom filter responde sem consultar o Redis
+        RevogacaoTokenService revogacao = new RevogacaoTokenService(mock(StringRedisTemplate.class), 100_000, 0.01);
+        String token = semCache.gerarToken("admin", "ADMIN");
+
+        double antigo = medir(() -> {
+            Claims username = Jwts.parserBuilder().setSigningKey(semCache.key).build()
+                    .parseClaimsJws(token).getBody();
+            Claims role = Jwts.parserBuilder().setSigningKey(semCache.key).build()
+                    .parseClaimsJws(token).getBody();
+            assertThat(username.getSubject()).isNotNull();
+            assertThat(role.get("role", String.class)).isNotNull();
+        });
+        double parseUnico = medirFiltro(new JwtAuthenticationFilter(semCache, revogacao), token);
+        double parseComCache = medirFiltro(new JwtAuthenticationFilter(comCache, revogacao), token);
+
+        System.out.printf("%n%-22s %12s%n", "cenário", "µs/req");
+        System.out.printf("%-22s %12.2f%n", "parse duplo (antigo)", antigo / 1_000);
+        System.out.printf("%-22s %12.2f%n", "parse único", parseUnico / 1_000);
+        System.out.printf("%-22s %12.2f%n", "parse único + cache", parseComCache / 1_000);
+
+        assertThat(parseUnico).isLessThan(antigo);
+        assertThat(parseComCache).isLessThan(parseUnico);
+    }
+
+    private double medirFiltro(JwtAuthenticationFilter filtro, String token) throws Exception {
+        FilterChain chain = (request, response) -> {
+        };
+
+        return medir(() -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/veiculos");
+            request.addHeader("Authorization", "Bearer " + token);
+
+            filtro.doFilter(request, new MockHttpServletResponse(), chain);
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+            SecurityContextHolder.clearContext();
+        });
+    }
+
+    private double medir(Requisicao requisicao) throws Exception {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            requisicao.executar();
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            requisicao.executar();
+        }
+        return (double) (System.nanoTime() - inicio) / ITERACOES;
+    }
+
+    @FunctionalInterface
+    private interface Requisicao {
+        void executar() throws Exception;
+    }
+}
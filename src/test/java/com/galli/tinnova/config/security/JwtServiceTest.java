@@ -6,6 +6,7 @@ import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,4 +90,85 @@ class JwtServiceTest {
                 () -> jwtCurto.getUsername(token)
         );
     }
+
+    @Test
+    void deveExtrairUsernameERoleEmUmaUnicaLeitura() {
+        String token = jwtService.gerarToken("admin", "ADMIN");
+
+        JwtService.DadosToken dados = jwtService.parse(token);
+
+        assertEquals("admin", dados.username());
+        assertEquals("ADMIN", dados.role());
+        assertTrue(dados.expiraEm() > System.currentTimeMillis());
+    }
+
+    @Test
+    void deveDistinguirAccessTokenDeRefreshToken() {
+        JwtService.DadosToken acesso = jwtService.parse(jwtService.gerarToken("user1", "USER"));
+        JwtService.DadosToken refresh = jwtService.parse(jwtService.gerarRefreshToken("user1", "USER"));
+
+        assertFalse(acesso.refresh());
+        assertTrue(refresh.refresh());
+        assertEquals("user1", refresh.username());
+        assertNotNull(acesso.jti());
+        assertNotEquals(acesso.jti(), refresh.jti());
+    }
+
+    @Test
+    void refreshTokenDeveViverMaisQueAccessToken() {
+        JwtService service = new JwtService(SECRET, 60_000, 3_600_000, 0, Duration.ZERO);
+
+        long acesso = service.parse(service.gerarToken("user1", "USER")).expiraEm();
+        long refresh = service.parse(service.gerarRefreshToken("user1", "USER")).expiraEm();
+
+        assertTrue(refresh - acesso > 3_000_000);
+    }
+
+    @Test
+    void tokenSemTipoDeveSerTratadoComoAccessToken() {
+        String legado = Jwts.builder()
+                .setSubject("user1")
+                .claim("role", "USER")
+                .signWith(jwtService.key)
+                .compact();
+
+        JwtService.DadosToken dados = jwtService.parse(legado);
+
+        assertFalse(dados.refresh());
+        assertNull(dados.jti());
+    }
+
+    @Test
+    void deveServirTokenVerificadoDoCache() {
+        JwtService comCache = new JwtService(SECRET, 3600000, 3600000, 100, Duration.ofMinutes(5));
+        String token = comCache.gerarToken("user1", "USER");
+
+        JwtService.DadosToken primeiro = comCache.parse(token);
+        JwtService.DadosToken segundo = comCache.parse(token);
+
+        assertSame(primeiro, segundo);
+    }
+
+    @Test
+    void cacheNaoDeveServirTokenExpirado() throws InterruptedException {
+        // o exp do JWT é truncado para segundos: com 2s de validade o token vale ao menos 1s
+        JwtService comCache = new JwtService(SECRET, 2000, 2000, 100, Duration.ofMinutes(5));
+        String token = comCache.gerarToken("user1", "USER");
+
+        comCache.parse(token);
+        Thread.sleep(2100);
+
+        assertThrows(ExpiredJwtException.class, () -> comCache.parse(token));
+    }
+
+    @Test
+    void cacheNaoDeveAceitarTokenAdulterado() {
+        JwtService comCache = new JwtService(SECRET, 3600000, 3600000, 100, Duration.ofMinutes(5));
+        String token = comCache.gerarToken("user1", "USER");
+        comCache.parse(token);
+
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> comCache.parse(adulterado));
+    }
 }
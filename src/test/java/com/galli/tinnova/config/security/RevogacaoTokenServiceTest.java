@@ -0,0 +1,112 @@
+package com.galli.tinnova.config.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RevogacaoTokenServiceTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valores = mock(ValueOperations.class);
+
+    private RevogacaoTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valores);
+        service = new RevogacaoTokenService(redisTemplate, 1_000, 0.01);
+    }
+
+    @Test
+    void tokenNaoRevogadoNaoDeveConsultarRedis() {
+        assertThat(service.estaRevogado("jti-1")).isFalse();
+
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void deveRevogarComTtlAteAExpiracaoEPublicar() {
+        when(valores.setIfAbsent(eq("jwt:revogado:jti-1"), eq("1"), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.hasKey("jwt:revogado:jti-1")).thenReturn(true);
+
+        boolean revogado = service.revogar("jti-1", System.currentTimeMillis() + 60_000);
+
+        assertThat(revogado).isTrue();
+        assertThat(service.estaRevogado("jti-1")).isTrue();
+        verify(redisTemplate).convertAndSend(RevogacaoTokenService.CANAL_REVOGACAO, "jti-1");
+    }
+
+    @Test
+    void segundaRevogacaoDoMesmoTokenDeveFalhar() {
+        when(valores.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true, false);
+
+        assertThat(service.revogar("jti-1", System.currentTimeMillis() + 60_000)).isTrue();
+        assertThat(service.revogar("jti-1", System.currentTimeMillis() + 60_000)).isFalse();
+        verify(redisTemplate, times(1)).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void tokenJaExpiradoNaoPrecisaSerGuardado() {
+        assertThat(service.revogar("jti-1", System.currentTimeMillis() - 1)).isTrue();
+
+        verifyNoInteractions(valores);
+    }
+
+    @Test
+    void deveRegistrarRevogacaoRecebidaDeOutroNo() {
+        when(redisTemplate.hasKey("jwt:revogado:jti-remoto")).thenReturn(true);
+
+        service.onMessage(new DefaultMessage(
+                RevogacaoTokenService.CANAL_REVOGACAO.getBytes(StandardCharsets.UTF_8),
+                "jti-remoto".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(service.estaRevogado("jti-remoto")).isTrue();
+    }
+
+    @Test
+    void deveRecusarTokenQuandoRedisNaoConfirma() {
+        when(valores.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        service.revogar("jti-1", System.currentTimeMillis() + 60_000);
+        when(redisTemplate.hasKey("jwt:revogado:jti-1")).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThat(service.estaRevogado("jti-1")).isTrue();
+    }
+
+    @Test
+    void reconstrucaoDeveCarregarRevogadosDoRedis() {
+        Cursor<String> chaves = cursor(List.of("jwt:revogado:jti-antigo"));
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(chaves);
+        when(redisTemplate.hasKey("jwt:revogado:jti-antigo")).thenReturn(true);
+
+        service.reconstruir();
+
+        assertThat(service.estaRevogado("jti-antigo")).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(List<String> chaves) {
+        Iterator<String> iterator = chaves.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
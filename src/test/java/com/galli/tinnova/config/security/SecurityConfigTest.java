@@ -5,9 +5,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -71,4 +76,24 @@ class SecurityConfigTest {
 
         assertThat(passwordEncoder.matches(senha, hash)).isTrue();
     }
+
+    @Test
+    void deveRegravarSenhaComCustoAtualNoLogin() {
+        BCryptPasswordEncoder custoAntigo = new BCryptPasswordEncoder(4);
+        BCryptPasswordEncoder custoAtual = new BCryptPasswordEncoder(5);
+        InMemoryUserDetailsManager usuarios = new InMemoryUserDetailsManager(
+                User.withUsername("legado")
+                        .password(custoAntigo.encode("senha"))
+                        .roles("USER")
+                        .build()
+        );
+
+        AuthenticationManager authenticationManager =
+                new SecurityConfig(jwtAuthenticationFilter).authenticationManager(usuarios, custoAtual);
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("legado", "senha"));
+
+        String hash = usuarios.loadUserByUsername("legado").getPassword();
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(custoAtual.matches("senha", hash)).isTrue();
+    }
 }
@@ -0,0 +1,59 @@
+package com.galli.tinnova.config.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    @Test
+    void deveNegarQuandoFichasAcabam() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(10), relogio::get);
+
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isFalse();
+    }
+
+    @Test
+    void deveReporUmaFichaPorIntervalo() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(10), relogio::get);
+        bucket.tentarConsumir();
+        bucket.tentarConsumir();
+
+        avancar(Duration.ofSeconds(9));
+        assertThat(bucket.tentarConsumir()).isFalse();
+
+        avancar(Duration.ofSeconds(1));
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isFalse();
+    }
+
+    @Test
+    void naoDeveAcumularAlemDaCapacidade() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), relogio::get);
+
+        avancar(Duration.ofHours(1));
+
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isTrue();
+        assertThat(bucket.tentarConsumir()).isFalse();
+    }
+
+    @Test
+    void deveRejeitarConfiguracaoInvalida() {
+        assertThatThrownBy(() -> new TokenBucket(0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void avancar(Duration duracao) {
+        relogio.addAndGet(duracao.toNanos());
+    }
+}
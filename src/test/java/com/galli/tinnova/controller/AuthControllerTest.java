@@ -1,30 +1,27 @@
 package com.galli.tinnova.controller;
 
-import com.galli.tinnova.config.security.JwtService;
+import com.galli.tinnova.dto.response.TokensResponse;
+import com.galli.tinnova.exception.TooManyRequestsException;
+import com.galli.tinnova.service.LoginService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
-import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class AuthControllerTest {
 
     @Mock
-    private JwtService jwtService;
-
-    @Mock
-    private AuthenticationManager authenticationManager;
+    private LoginService loginService;
 
     @InjectMocks
     private AuthController authController;
@@ -38,32 +35,50 @@ class AuthControllerTest {
     void testLoginSuccess() {
         String username = "user1";
         String password = "pass123";
-        String role = "USER";
-        String token = "jwt-token-123";
+        TokensResponse tokens = new TokensResponse("jwt-token-123", "refresh-token-123");
 
         Map<String, String> requestBody = Map.of(
                 "username", username,
                 "password", password
         );
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+
+        when(loginService.login(username, password, "10.0.0.1"))
+                .thenReturn(CompletableFuture.completedFuture(tokens));
+
+        TokensResponse response = authController.login(requestBody, request).join();
+
+        assertEquals(tokens, response);
+        verify(loginService).login(username, password, "10.0.0.1");
+    }
 
-        Authentication authMock = mock(Authentication.class);
-        doReturn(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)))
-                .when(authMock).getAuthorities();
+    @Test
+    void devePropagarLimiteDeTentativas() {
+        when(loginService.login(any(), any(), any()))
+                .thenThrow(new TooManyRequestsException("Muitas tentativas"));
 
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authMock);
+        assertThrows(
+                TooManyRequestsException.class,
+                () -> authController.login(Map.of("username", "user1", "password", "x"), new MockHttpServletRequest())
+        );
+    }
 
-        when(jwtService.gerarToken(username, role)).thenReturn(token);
+    @Test
+    void deveRenovarTokens() {
+        TokensResponse tokens = new TokensResponse("jwt-novo", "refresh-novo");
+        when(loginService.renovar("refresh-antigo")).thenReturn(tokens);
 
-        Map<String, String> response = authController.login(requestBody);
+        TokensResponse response = authController.refresh(Map.of("refreshToken", "refresh-antigo"));
 
-        assertEquals(token, response.get("token"));
+        assertEquals(tokens, response);
+    }
 
-        ArgumentCaptor<UsernamePasswordAuthenticationToken> captor = ArgumentCaptor.forClass(UsernamePasswordAuthenticationToken.class);
-        verify(authenticationManager).authenticate(captor.capture());
-        assertEquals(username, captor.getValue().getPrincipal());
-        assertEquals(password, captor.getValue().getCredentials());
+    @Test
+    void logoutDeveRevogarTokensDaSessao() {
+        ResponseEntity<Void> response = authController.logout(Map.of("refreshToken", "refresh"), "Bearer jwt");
 
-        verify(jwtService).gerarToken(username, role);
+        assertEquals(204, response.getStatusCode().value());
+        verify(loginService).logout("refresh", "jwt");
     }
 }
@@ -0,0 +1,195 @@
+package com.galli.tinnova.controller;
+
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.service.DollarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VeiculoConcorrenciaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @MockBean
+    private DollarService dollarService;
+
+    private Veiculo veiculo;
+
+    @BeforeEach
+    void setup() {
+        veiculoRepository.deleteAll();
+        when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
+
+        veiculo = veiculoRepository.save(
+                Veiculo.builder()
+                        .marca("Toyota")
+                        .modelo("Corolla")
+                        .ano(2022)
+                        .cor("Prata")
+                        .placa("ETG1234")
+                        .precoUsd(new BigDecimal("20000"))
+                        .ativo(true)
+                        .build()
+        );
+    }
+
+    @AfterEach
+    void limpar() {
+        veiculoRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser
+    void detalharDeveRetornarEtagE304QuandoNaoMudou() throws Exception {
+        String etag = mockMvc.perform(get("/veiculos/{id}", veiculo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).startsWith("\"0-");
+
+        mockMvc.perform(get("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    void etagDeveMudarComACotacao() throws Exception {
+        String etag = mockMvc.perform(get("/veiculos/{id}", veiculo.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.10"));
+
+        mockMvc.perform(get("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void patchComIfMatchAtualDeveAtualizarEAvancarVersao() throws Exception {
+        String etag = mockMvc.perform(get("/veiculos/{id}", veiculo.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cor\":\"Azul\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.versao").value(1));
+
+        // a versão do corpo encadeia a próxima escrita condicional
+        mockMvc.perform(patch("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cor\":\"Verde\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(2));
+
+        assertThat(veiculoRepository.findById(veiculo.getId()).orElseThrow().getCor()).isEqualTo("Verde");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void escritaComIfMatchDesatualizadoDeveRetornar412() throws Exception {
+        mockMvc.perform(patch("/veiculos/{id}", veiculo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cor\":\"Azul\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cor\":\"Verde\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"marca":"Toyota","modelo":"Corolla","ano":2022,
+                                 "cor":"Verde","placa":"ETG1234","precoBrl":100000}
+                                """))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        Veiculo atual = veiculoRepository.findById(veiculo.getId()).orElseThrow();
+        assertThat(atual.getCor()).isEqualTo("Azul");
+        assertThat(atual.getAtivo()).isTrue();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ifMatchFracoNaoDeveCorresponder() throws Exception {
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(veiculoRepository.findById(veiculo.getId()).orElseThrow().getAtivo()).isTrue();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ifMatchComVariasTagsDeveAceitarQualquerUma() throws Exception {
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"5\", W/\"0\", \"a,b\", \"0-1f\""))
+                .andExpect(status().isNoContent());
+
+        assertThat(veiculoRepository.findById(veiculo.getId()).orElseThrow().getAtivo()).isFalse();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ifMatchSemTagCorrespondenteDeveRetornar412() throws Exception {
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"5\", \"outra\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ifMatchComHashForaDoFormatoNaoDeveCorresponder() throws Exception {
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0-zzz\", \"0-\", \"0-1F\""))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(veiculoRepository.findById(veiculo.getId()).orElseThrow().getAtivo()).isTrue();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void ifMatchMalFormadoDeveRetornar400() throws Exception {
+        mockMvc.perform(delete("/veiculos/{id}", veiculo.getId())
+                        .header(HttpHeaders.IF_MATCH, "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -64,6 +64,51 @@ class VeiculoControllerTest {
                 .andExpect(jsonPath("$.content[0].marca").value("Toyota"));
     }
 
+    @Test
+    @WithMockUser
+    void deveListarVeiculosPorCursor() throws Exception {
+        veiculoRepository.save(
+                Veiculo.builder()
+                        .marca("Honda")
+                        .modelo("Civic")
+                        .ano(2023)
+                        .cor("Preto")
+                        .placa("DEF5678")
+                        .precoUsd(new BigDecimal("25000"))
+                        .ativo(true)
+                        .build()
+        );
+
+        String resposta = mockMvc.perform(get("/veiculos")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .param("sort", "precoUsd,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].marca").value("Honda"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = objectMapper.readTree(resposta).get("nextCursor").asText();
+
+        mockMvc.perform(get("/veiculos")
+                        .param("cursor", cursor)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].marca").value("Toyota"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    @WithMockUser
+    void cursorInvalidoDeveRetornar400() throws Exception {
+        mockMvc.perform(get("/veiculos").param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void deveDetalharVeiculo() throws Exception {
@@ -138,6 +183,15 @@ class VeiculoControllerTest {
         ).isEmpty();
     }
 
+    @Test
+    @WithMockUser
+    void importacaoEmLoteExigePerfilAdmin() throws Exception {
+        mockMvc.perform(post("/veiculos/lote")
+                        .contentType("text/csv")
+                        .content("marca,modelo,ano,cor,placa,precoBrl\n"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser
     void deveGerarRelatorioPorMarca() throws Exception {
@@ -160,4 +214,11 @@ class VeiculoControllerTest {
                         .content(objectMapper.writeValueAsString(campos)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @WithMockUser
+    void estatisticasComAgrupamentoInvalidoDevemRetornar400() throws Exception {
+        mockMvc.perform(get("/veiculos/relatorios/estatisticas").param("por", "modelo"))
+                .andExpect(status().isBadRequest());
+    }
 }
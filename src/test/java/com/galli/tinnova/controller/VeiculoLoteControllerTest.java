@@ -0,0 +1,229 @@
+package com.galli.tinnova.controller;
+
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.service.DollarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VeiculoLoteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @MockBean
+    private DollarService dollarService;
+
+    @BeforeEach
+    void setup() {
+        veiculoRepository.deleteAll();
+        when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
+    }
+
+    @AfterEach
+    void limpar() {
+        veiculoRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void deveImportarNdjsonRetornandoResultadoPorLinha() throws Exception {
+        String corpo = """
+                {"marca":"Ford","modelo":"Ka","ano":2020,"cor":"Preto","placa":"LOT0001","precoBrl":50000}
+                {"marca":"GM","modelo":"Onix","ano":2021,"cor":"Branco","placa":"LOT0002"}
+                """;
+
+        MvcResult resultado = mockMvc.perform(post("/veiculos/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corpo))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String resposta = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(resposta.lines())
+                .hasSize(2)
+                .anySatisfy(l -> assertThat(l).contains("\"linha\":1", "\"status\":\"CRIADO\""))
+                .anySatisfy(l -> assertThat(l).contains("\"linha\":2", "\"status\":\"INVALIDO\""));
+
+        assertThat(veiculoRepository.existsByPlaca("LOT0001")).isTrue();
+        assertThat(veiculoRepository.existsByPlaca("LOT0002")).isFalse();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void deveImportarCsv() throws Exception {
+        String corpo = """
+                marca,modelo,ano,cor,placa,precoBrl
+                Ford,Ka,2020,Preto,LOT0003,50000
+                """;
+
+        MvcResult resultado = mockMvc.perform(post("/veiculos/lote")
+                        .contentType("text/csv")
+                        .content(corpo))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+
+        assertThat(veiculoRepository.existsByPlaca("LOT0003")).isTrue();
+    }
+
+    @Test
+    @WithMockUser
+    void deveExportarVeiculosAtivosEmNdjson() throws Exception {
+        salvar("EXP0001", true);
+        salvar("EXP0002", true);
+        salvar("EXP0003", false);
+
+        MvcResult resultado = mockMvc.perform(get("/veiculos/exportacao"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String resposta = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(resposta.lines()).hasSize(2);
+        assertThat(resposta.lines().findFirst().orElseThrow())
+                .contains("\"placa\":\"EXP0001\"", "\"precoUsd\":20000");
+    }
+
+    @Test
+    @WithMockUser
+    void deveExportarVeiculosAtivosEmCsv() throws Exception {
+        salvar("EXP0004", true);
+
+        MvcResult resultado = mockMvc.perform(get("/veiculos/exportacao").param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String resposta = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(resposta.lines())
+                .containsExactly(
+                        "id,marca,modelo,ano,cor,placa,precoUsd",
+                        veiculoRepository.findAll().get(0).getId() + ",Toyota,Corolla,2022,Prata,EXP0004,20000.00"
+                );
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void deveRemoverEmMassaPorFiltro() throws Exception {
+        salvar("MAS0001", true);
+        salvar("MAS0002", true);
+        salvar("MAS0003", false);
+
+        mockMvc.perform(post("/veiculos/lote/remocao")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"marca\":\"Toyota\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados").value(2));
+
+        assertThat(veiculoRepository.findAll()).noneMatch(Veiculo::getAtivo);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void deveReajustarPrecoEmMassaPorIds() throws Exception {
+        salvar("MAS0004", true);
+        salvar("MAS0005", true);
+        Long id = veiculoRepository.findAll().stream()
+                .filter(v -> v.getPlaca().equals("MAS0004"))
+                .findFirst().orElseThrow().getId();
+
+        mockMvc.perform(post("/veiculos/lote/reajuste-preco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selecao\":{\"ids\":[" + id + "]},\"percentual\":10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados").value(1));
+
+        assertThat(veiculoRepository.findAll())
+                .extracting(Veiculo::getPlaca, v -> v.getPrecoUsd().toPlainString())
+                .containsExactlyInAnyOrder(
+                        tuple("MAS0004", "22000.00"),
+                        tuple("MAS0005", "20000.00")
+                );
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void alteracaoEmMassaSemCriterioDeveRetornar400() throws Exception {
+        mockMvc.perform(post("/veiculos/lote/remocao")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/veiculos/lote/reajuste-preco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selecao\":{\"marca\":\"Toyota\"},\"percentual\":-100}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reajusteQueZerariaPrecosOuComCasasDemaisDeveRetornar400() throws Exception {
+        mockMvc.perform(post("/veiculos/lote/reajuste-preco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selecao\":{\"marca\":\"Toyota\"},\"percentual\":-99.99}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/veiculos/lote/reajuste-preco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"selecao\":{\"marca\":\"Toyota\"},\"percentual\":1.123456}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void formatoDeExportacaoInvalidoDeveRetornar400() throws Exception {
+        mockMvc.perform(get("/veiculos/exportacao").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void salvar(String placa, boolean ativo) {
+        veiculoRepository.save(
+                Veiculo.builder()
+                        .marca("Toyota")
+                        .modelo("Corolla")
+                        .ano(2022)
+                        .cor("Prata")
+                        .placa(placa)
+                        .precoUsd(new BigDecimal("20000"))
+                        .ativo(ativo)
+                        .build()
+        );
+    }
+}
@@ -1,6 +1,8 @@
 package com.galli.tinnova.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,17 +10,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -57,6 +63,44 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Conflict"));
     }
 
+    @Test
+    @DisplayName("Deve retornar 412 ao lançar PreconditionFailedException")
+    void deveRetornar412() throws Exception {
+        mockMvc.perform(get("/test/precondition-failed"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Versão desatualizada"))
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 quando o corpo não passa na validação")
+    void deveRetornar400ParaCorpoInvalido() throws Exception {
+        mockMvc.perform(post("/test/validation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("nome: must not be blank"))
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 429 ao lançar TooManyRequestsException")
+    void deveRetornar429() throws Exception {
+        mockMvc.perform(get("/test/too-many-requests"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.message").value("Muitas tentativas"))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 503 ao lançar ServiceUnavailableException")
+    void deveRetornar503() throws Exception {
+        mockMvc.perform(get("/test/service-unavailable"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Serviço sobrecarregado"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
     @Test
     @DisplayName("Deve retornar 500 ao lançar Exception genérica")
     void deveRetornar500() throws Exception {
@@ -113,9 +157,31 @@ class GlobalExceptionHandlerTest {
             throw new ConflictException("Conflito de dados");
         }
 
+        @GetMapping("/test/precondition-failed")
+        public void preconditionFailed() {
+            throw new PreconditionFailedException("Versão desatualizada");
+        }
+
+        @PostMapping("/test/validation")
+        public void validation(@RequestBody @Valid Dados dados) {
+        }
+
+        @GetMapping("/test/too-many-requests")
+        public void tooManyRequests() {
+            throw new TooManyRequestsException("Muitas tentativas");
+        }
+
+        @GetMapping("/test/service-unavailable")
+        public void serviceUnavailable() {
+            throw new ServiceUnavailableException("Serviço sobrecarregado");
+        }
+
         @GetMapping("/test/generic-error")
         public void genericError() {
             throw new RuntimeException("Erro inesperado");
         }
+
+        record Dados(@NotBlank String nome) {
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.galli.tinnova.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorMapperTest {
+
+    @Test
+    void deveUsarOrdenacaoPorIdQuandoNaoInformada() {
+        CursorMapper.Cursor cursor = CursorMapper.decode(null, Sort.unsorted());
+
+        assertThat(cursor.sort()).isEqualTo(Sort.by("id"));
+        assertThat(cursor.posicao().isInitial()).isTrue();
+    }
+
+    @Test
+    void deveCodificarEDecodificarCursor() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "precoUsd");
+        ScrollPosition posicao = ScrollPosition.forward(
+                Map.of("precoUsd", new BigDecimal("12345.67"), "id", 42L)
+        );
+
+        String token = CursorMapper.encode(sort, posicao);
+        CursorMapper.Cursor cursor = CursorMapper.decode(token, Sort.unsorted());
+
+        assertThat(cursor.sort()).isEqualTo(sort);
+        assertThat(cursor.posicao()).isInstanceOf(KeysetScrollPosition.class);
+
+        Map<String, Object> keys = ((KeysetScrollPosition) cursor.posicao()).getKeys();
+        assertThat(keys).containsEntry("id", 42L);
+        assertThat((BigDecimal) keys.get("precoUsd")).isEqualByComparingTo("12345.67");
+    }
+
+    @Test
+    void devePreservarMarcaComCaracteresEspeciais() {
+        Sort sort = Sort.by("marca");
+        ScrollPosition posicao = ScrollPosition.forward(Map.of("marca", "Rolls|Royce", "id", 7L));
+
+        CursorMapper.Cursor cursor = CursorMapper.decode(CursorMapper.encode(sort, posicao), sort);
+
+        assertThat(((KeysetScrollPosition) cursor.posicao()).getKeys())
+                .containsEntry("marca", "Rolls|Royce");
+    }
+
+    @Test
+    void naoDeveCodificarValorNuloComoTexto() {
+        Sort sort = Sort.by("marca");
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("marca", null);
+        keys.put("id", 7L);
+
+        assertThatThrownBy(() -> CursorMapper.encode(sort, ScrollPosition.forward(keys)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deveRejeitarCampoDeOrdenacaoNaoPermitido() {
+        assertThatThrownBy(() -> CursorMapper.decode("", Sort.by("placa")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deveRejeitarCursorMalFormado() {
+        assertThatThrownBy(() -> CursorMapper.decode("nao-e-um-cursor", Sort.unsorted()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.galli.tinnova.mapper;
+
+import com.galli.tinnova.dto.request.VeiculoRequest;
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VeiculoCsvMapperTest {
+
+    @Test
+    void deveConverterLinhaSeguindoOrdemDoCabecalho() {
+        Map<String, Integer> cabecalho =
+                VeiculoCsvMapper.cabecalho("placa,marca,modelo,ano,cor,precoBrl");
+
+        VeiculoRequest request =
+                VeiculoCsvMapper.toRequest(cabecalho, "ABC1234,Ford,Ka,2020,Preto,50000.50");
+
+        assertThat(request.placa()).isEqualTo("ABC1234");
+        assertThat(request.marca()).isEqualTo("Ford");
+        assertThat(request.modelo()).isEqualTo("Ka");
+        assertThat(request.ano()).isEqualTo(2020);
+        assertThat(request.cor()).isEqualTo("Preto");
+        assertThat(request.precoBrl()).isEqualByComparingTo("50000.50");
+    }
+
+    @Test
+    void deveRespeitarCamposEntreAspas() {
+        Map<String, Integer> cabecalho =
+                VeiculoCsvMapper.cabecalho("marca,modelo,ano,cor,placa,precoBrl");
+
+        VeiculoRequest request = VeiculoCsvMapper.toRequest(
+                cabecalho, "\"Mercedes, Benz\",\"Classe \"\"A\"\"\",2021,Prata,XYZ9999,1000"
+        );
+
+        assertThat(request.marca()).isEqualTo("Mercedes, Benz");
+        assertThat(request.modelo()).isEqualTo("Classe \"A\"");
+    }
+
+    @Test
+    void camposVaziosDevemVirarNulos() {
+        Map<String, Integer> cabecalho =
+                VeiculoCsvMapper.cabecalho("marca,modelo,ano,cor,placa,precoBrl");
+
+        VeiculoRequest request = VeiculoCsvMapper.toRequest(cabecalho, "Ford,,,Preto,ABC1234");
+
+        assertThat(request.modelo()).isNull();
+        assertThat(request.ano()).isNull();
+        assertThat(request.precoBrl()).isNull();
+    }
+
+    @Test
+    void deveRejeitarCabecalhoIncompleto() {
+        assertThatThrownBy(() -> VeiculoCsvMapper.cabecalho("marca,modelo,ano"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deveEscreverVeiculoEscapandoCamposEspeciais() throws Exception {
+        Veiculo veiculo = Veiculo.builder()
+                .id(7L)
+                .marca("Mercedes, Benz")
+                .modelo("Classe \"A\"")
+                .ano(2021)
+                .cor("Prata")
+                .placa("XYZ9999")
+                .precoUsd(new BigDecimal("1000.50"))
+                .build();
+
+        StringBuilder saida = new StringBuilder();
+        VeiculoCsvMapper.escrever(veiculo, saida);
+
+        assertThat(saida.toString())
+                .isEqualTo("7,\"Mercedes, Benz\",\"Classe \"\"A\"\"\",2021,Prata,XYZ9999,1000.50\n");
+    }
+
+    @Test
+    void deveColocarEntreAspasCampoComQuebraDeLinha() throws Exception {
+        Veiculo veiculo = Veiculo.builder()
+                .id(8L)
+                .marca("Fiat")
+                .modelo("Uno\rMille")
+                .ano(2010)
+                .cor("Branco\r\nPérola")
+                .placa("ABC1234")
+                .precoUsd(new BigDecimal("3000.00"))
+                .build();
+
+        StringBuilder saida = new StringBuilder();
+        VeiculoCsvMapper.escrever(veiculo, saida);
+
+        assertThat(saida.toString())
+                .isEqualTo("8,Fiat,\"Uno\rMille\",2010,\"Branco\r\nPérola\",ABC1234,3000.00\n");
+    }
+}
@@ -0,0 +1,101 @@
+package com.galli.tinnova.mapper;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Custo de um PATCH típico ({@code marca}, {@code cor}, {@code ano}) no caminho antigo, com
+ * {@code findField} + {@code setAccessible} + {@code setField} por campo, e com os setters
+ * pré-montados do {@link VeiculoPatch}, medindo tempo e bytes alocados por PATCH na thread.
+ * Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VeiculoPatchBenchmarkTest {
+
+    private static final int AQUECIMENTO = 500_000;
+    private static final int ITERACOES = 2_000_000;
+
+    private static final Map<String, Object> CAMPOS = Map.of("marca", "GM", "cor", "Azul", "ano", 2021);
+    private static final UnaryOperator<BigDecimal> SEM_COTACAO = brl -> brl;
+
+    @Test
+    @DisplayName("Setters pré-montados devem custar menos que reflection por PATCH")
+    void compararPatch() {
+        // duas rodadas alternadas, vale a melhor de cada: reduz o peso da ordem de compilação do JIT
+        Medicao reflection = medir(this::patchReflection);
+        Medicao preMontado = medir(this::patchPreMontado);
+        reflection = reflection.melhor(medir(this::patchReflection));
+        preMontado = preMontado.melhor(medir(this::patchPreMontado));
+
+        System.out.printf("%n%-22s %12s %12s%n", "patch", "ns/op", "bytes/op");
+        imprimir("reflection", reflection);
+        imprimir("setters pré-montados", preMontado);
+
+        assertThat(preMontado.nanosPorOperacao()).isLessThan(reflection.nanosPorOperacao());
+    }
+
+    private void patchPreMontado(Veiculo veiculo) {
+        VeiculoPatch.de(CAMPOS).aplicar(veiculo, SEM_COTACAO);
+    }
+
+    private void patchReflection(Veiculo veiculo) {
+        CAMPOS.forEach((key, value) -> {
+            if (key.equals("id") || key.equals("ativo")) {
+                throw new IllegalArgumentException("Campo não pode ser alterado: " + key);
+            }
+
+            Field field = ReflectionUtils.findField(Veiculo.class, key);
+            if (field == null) {
+                throw new IllegalArgumentException("Campo inválido: " + key);
+            }
+
+            field.setAccessible(true);
+            ReflectionUtils.setField(field, veiculo, value);
+        });
+    }
+
+    private Medicao medir(Consumer<Veiculo> patch) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Veiculo veiculo = new Veiculo();
+
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            patch.accept(veiculo);
+        }
+
+        long bytesInicio = threadMXBean.getThreadAllocatedBytes(thread);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            patch.accept(veiculo);
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threadMXBean.getThreadAllocatedBytes(thread) - bytesInicio;
+
+        assertThat(veiculo.getAno()).isEqualTo(2021);
+        return new Medicao((double) nanos / ITERACOES, (double) bytes / ITERACOES);
+    }
+
+    private void imprimir(String nome, Medicao medicao) {
+        System.out.printf("%-22s %12.0f %12.0f%n", nome, medicao.nanosPorOperacao(), medicao.bytesPorOperacao());
+    }
+
+    private record Medicao(double nanosPorOperacao, double bytesPorOperacao) {
+
+        Medicao melhor(Medicao outra) {
+            return outra.nanosPorOperacao() < nanosPorOperacao() ? outra : this;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.galli.tinnova.mapper;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VeiculoPatchTest {
+
+    private static final UnaryOperator<BigDecimal> DIVIDE_POR_5 = brl -> brl.divide(BigDecimal.valueOf(5));
+
+    @Test
+    void deveAplicarCamposDeTexto() {
+        Veiculo veiculo = veiculo();
+
+        VeiculoPatch.de(Map.of("marca", "GM", "modelo", "Onix", "cor", "Azul", "placa", "XYZ9999"))
+                .aplicar(veiculo, DIVIDE_POR_5);
+
+        assertThat(veiculo.getMarca()).isEqualTo("GM");
+        assertThat(veiculo.getModelo()).isEqualTo("Onix");
+        assertThat(veiculo.getCor()).isEqualTo("Azul");
+        assertThat(veiculo.getPlaca()).isEqualTo("XYZ9999");
+    }
+
+    @Test
+    void patchSemMarcaNemPlacaDeveSerSimples() {
+        assertThat(VeiculoPatch.de(Map.of("modelo", "Fiesta", "precoBrl", 50000)).simples()).isTrue();
+        assertThat(VeiculoPatch.de(Map.of("cor", "Azul")).simples()).isFalse();
+        assertThat(VeiculoPatch.de(Map.of("modelo", "Fiesta", "ano", 2021)).simples()).isFalse();
+        assertThat(VeiculoPatch.de(Map.of("cor", "Azul", "marca", "GM")).simples()).isFalse();
+        assertThat(VeiculoPatch.de(Map.of("placa", "XYZ9999")).simples()).isFalse();
+        assertThat(VeiculoPatch.de(Map.of()).simples()).isFalse();
+    }
+
+    @Test
+    void alteracoesDevemUsarAtributosDaEntidade() {
+        Map<String, Object> alteracoes = VeiculoPatch.de(Map.of("ano", "2021", "precoBrl", 50000))
+                .alteracoes(DIVIDE_POR_5);
+
+        assertThat(alteracoes).containsOnlyKeys("ano", "precoUsd");
+        assertThat(alteracoes.get("ano")).isEqualTo(2021);
+        assertThat((BigDecimal) alteracoes.get("precoUsd")).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    void deveConverterAnoDeOutrosTiposNumericos() {
+        for (Object ano : new Object[]{2021, 2021L, 2021.0, new BigDecimal("2021"), "2021"}) {
+            Veiculo veiculo = veiculo();
+
+            VeiculoPatch.de(Map.of("ano", ano)).aplicar(veiculo, DIVIDE_POR_5);
+
+            assertThat(veiculo.getAno()).as("ano %s (%s)", ano, ano.getClass().getSimpleName()).isEqualTo(2021);
+        }
+    }
+
+    @Test
+    void deveRecusarAnoNaoInteiro() {
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("ano", 2021.5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ano");
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("ano", "dois mil")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("ano", 10_000_000_000L)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deveConverterPrecoBrlParaUsd() {
+        Veiculo veiculo = veiculo();
+
+        VeiculoPatch.de(Map.of("precoBrl", 50000.5)).aplicar(veiculo, DIVIDE_POR_5);
+
+        assertThat(veiculo.getPrecoUsd()).isEqualByComparingTo("10000.1");
+    }
+
+    @Test
+    void naoDeveConsultarCotacaoSemPrecoBrl() {
+        VeiculoPatch.de(Map.of("cor", "Azul")).aplicar(veiculo(), brl -> {
+            throw new AssertionError("cotação não deveria ser usada");
+        });
+    }
+
+    @Test
+    void deveRecusarPrecoNaoPositivo() {
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("precoBrl", 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maior que zero");
+    }
+
+    @Test
+    void deveRecusarCamposProtegidosEDesconhecidos() {
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("id", 2)))
+                .hasMessage("Campo não pode ser alterado: id");
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("ativo", false)))
+                .hasMessage("Campo não pode ser alterado: ativo");
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("precoUsd", 10)))
+                .hasMessage("Campo não pode ser alterado: precoUsd");
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("chassi", "123")))
+                .hasMessage("Campo inválido: chassi");
+    }
+
+    @Test
+    void deveRecusarTextoVazioNuloOuDeOutroTipo() {
+        Map<String, Object> nulo = new HashMap<>();
+        nulo.put("marca", null);
+
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("marca", " "))).hasMessageContaining("vazio");
+        assertThatThrownBy(() -> VeiculoPatch.de(nulo)).hasMessageContaining("nulo");
+        assertThatThrownBy(() -> VeiculoPatch.de(Map.of("cor", 10))).hasMessageContaining("texto");
+    }
+
+    @Test
+    void patchInvalidoNaoDeveAlterarNada() {
+        Veiculo veiculo = veiculo();
+        Map<String, Object> campos = new LinkedHashMap<>();
+        campos.put("cor", "Azul");
+        campos.put("ano", "abc");
+
+        assertThatThrownBy(() -> VeiculoPatch.de(campos).aplicar(veiculo, DIVIDE_POR_5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(veiculo.getCor()).isEqualTo("Preto");
+    }
+
+    @Test
+    void deveExporNovaPlaca() {
+        assertThat(VeiculoPatch.de(Map.of("placa", "XYZ9999")).placa()).isEqualTo("XYZ9999");
+        assertThat(VeiculoPatch.de(Map.of("cor", "Azul")).placa()).isNull();
+    }
+
+    private static Veiculo veiculo() {
+        return Veiculo.builder()
+                .id(1L)
+                .marca("Ford")
+                .modelo("Ka")
+                .ano(2020)
+                .cor("Preto")
+                .placa("ABC1D23")
+                .precoUsd(BigDecimal.valueOf(10000))
+                .ativo(true)
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.galli.tinnova.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registra os SQLs emitidos pelo Hibernate para que os testes possam
+ * verificar o statement gerado para cada combinação de filtros.
+ */
+public class SqlCapturador implements StatementInspector {
+
+    private static final List<String> SQLS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        SQLS.add(sql.replaceAll("\\s+", " ").toLowerCase());
+        return sql;
+    }
+
+    static void limpar() {
+        SQLS.clear();
+    }
+
+    static List<String> capturados() {
+        return List.copyOf(SQLS);
+    }
+}
@@ -0,0 +1,161 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que soft delete e PATCH simples viram um único UPDATE, e que o UPDATE
+ * gerado pelo Hibernate só escreve as colunas alteradas.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.galli.tinnova.repository.SqlCapturador"
+)
+class VeiculoAtualizacaoTest {
+
+    @Autowired
+    private VeiculoRepository repository;
+
+    private Veiculo veiculo;
+
+    @BeforeEach
+    void setUp() {
+        veiculo = repository.saveAndFlush(Veiculo.builder()
+                .marca("Ford")
+                .modelo("Ka")
+                .ano(2020)
+                .cor("Preto")
+                .placa("UPD1234")
+                .precoUsd(new BigDecimal("10000.00"))
+                .ativo(true)
+                .build());
+        SqlCapturador.limpar();
+    }
+
+    @Test
+    @DisplayName("Soft delete deve ser um único UPDATE condicionado a ativo")
+    void desativarDeveSerUmUnicoUpdate() {
+        assertThat(repository.desativar(veiculo.getId())).isEqualTo(1);
+        assertThat(repository.desativar(veiculo.getId())).isZero();
+
+        assertThat(SqlCapturador.capturados())
+                .hasSize(2)
+                .allSatisfy(sql -> assertThat(sql).startsWith("update veiculos"));
+
+        Veiculo removido = repository.findById(veiculo.getId()).orElseThrow();
+        assertThat(removido.getAtivo()).isFalse();
+        assertThat(removido.getVersao()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Soft delete com versões só afeta o registro em uma delas")
+    void desativarNasVersoesDeveRespeitarVersao() {
+        assertThat(repository.desativarNasVersoes(veiculo.getId(), Set.of(5L))).isZero();
+        assertThat(repository.desativarNasVersoes(veiculo.getId(), Set.of(5L, 0L))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Atualização de campos deve escrever só as colunas informadas e a versão")
+    void atualizarCamposDeveSerUmUpdateDasColunasInformadas() {
+        int alterados = repository.atualizarCampos(veiculo.getId(), Map.of("cor", "Azul"), Set.of(0L));
+
+        List<String> sqls = SqlCapturador.capturados();
+        assertThat(alterados).isEqualTo(1);
+        assertThat(sqls).hasSize(1);
+        assertThat(sqls.get(0))
+                .startsWith("update veiculos set")
+                .contains("cor=", "versao=")
+                .doesNotContain("marca=", "modelo=", "placa=", "preco_usd=");
+
+        Veiculo atualizado = repository.findById(veiculo.getId()).orElseThrow();
+        assertThat(atualizado.getCor()).isEqualTo("Azul");
+        assertThat(atualizado.getVersao()).isEqualTo(1L);
+        assertThat(repository.atualizarCampos(veiculo.getId(), Map.of("cor", "Verde"), Set.of(0L))).isZero();
+    }
+
+    @Test
+    @DisplayName("Alvos de alteração em massa devem vir em blocos ordenados por id")
+    void buscarAlvosDevePaginarPorId() {
+        Veiculo outro = repository.saveAndFlush(copia(veiculo, "UPD5678"));
+        Veiculo inativo = copia(veiculo, "UPD9999");
+        inativo.setAtivo(false);
+        repository.saveAndFlush(inativo);
+
+        Specification<Veiculo> filtro = VeiculoSpecifications.filtrar("Ford", null, null, null, null);
+
+        assertThat(repository.buscarAlvos(filtro, null, 1))
+                .containsExactly(new VeiculoAlvo(veiculo.getId(), "Ford", 2020, "Preto"));
+        assertThat(repository.buscarAlvos(filtro, veiculo.getId(), 10))
+                .containsExactly(new VeiculoAlvo(outro.getId(), "Ford", 2020, "Preto"));
+    }
+
+    @Test
+    @DisplayName("Reajuste em massa deve ser um UPDATE por bloco com preço arredondado")
+    void reajustarPrecosDeveArredondarParaCentavos() {
+        Veiculo outro = repository.saveAndFlush(copia(veiculo, "UPD5678"));
+        SqlCapturador.limpar();
+
+        int alterados = repository.reajustarPrecos(
+                List.of(veiculo.getId(), outro.getId()), new BigDecimal("1.03333"));
+
+        assertThat(alterados).isEqualTo(2);
+        assertThat(SqlCapturador.capturados()).hasSize(1);
+        assertThat(repository.findById(veiculo.getId()).orElseThrow().getPrecoUsd())
+                .isEqualByComparingTo("10333.30");
+
+        assertThat(repository.desativarTodos(List.of(veiculo.getId(), outro.getId()))).isEqualTo(2);
+        assertThat(repository.desativarTodos(List.of(veiculo.getId()))).isZero();
+    }
+
+    @Test
+    @DisplayName("Reajuste em massa não deve gravar preço zero")
+    void reajustarPrecosNaoDeveZerarPreco() {
+        Veiculo barato = copia(veiculo, "UPD0001");
+        barato.setPrecoUsd(new BigDecimal("0.04"));
+        barato = repository.saveAndFlush(barato);
+
+        int alterados = repository.reajustarPrecos(List.of(veiculo.getId(), barato.getId()), new BigDecimal("0.1"));
+
+        assertThat(alterados).isEqualTo(1);
+        assertThat(repository.findById(barato.getId()).orElseThrow().getPrecoUsd()).isEqualByComparingTo("0.04");
+        assertThat(repository.findById(veiculo.getId()).orElseThrow().getPrecoUsd()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    @DisplayName("Com @DynamicUpdate o UPDATE do Hibernate só escreve as colunas alteradas")
+    void saveDeveEscreverSoColunasAlteradas() {
+        Veiculo existente = repository.findById(veiculo.getId()).orElseThrow();
+        existente.setModelo("Fiesta");
+        repository.saveAndFlush(existente);
+
+        assertThat(SqlCapturador.capturados())
+                .filteredOn(sql -> sql.startsWith("update"))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql)
+                        .contains("modelo=")
+                        .doesNotContain("marca=", "cor=", "placa=", "preco_usd="));
+    }
+
+    private Veiculo copia(Veiculo origem, String placa) {
+        return Veiculo.builder()
+                .marca(origem.getMarca())
+                .modelo(origem.getModelo())
+                .ano(origem.getAno())
+                .cor(origem.getCor())
+                .placa(placa)
+                .precoUsd(origem.getPrecoUsd())
+                .ativo(true)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.galli.tinnova.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executa EXPLAIN sobre o SQL realmente gerado pelo Hibernate para garantir
+ * que as consultas de listagem e relatório usam os índices de {@code veiculos}
+ * em vez de varrer a tabela.
+ */
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.galli.tinnova.repository.SqlCapturador"
+)
+class VeiculoIndicesTest {
+
+    @Autowired
+    private VeiculoRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapturador.limpar();
+    }
+
+    @Test
+    @DisplayName("Filtro por marca e ano deve usar o índice de marca/ano")
+    void filtroPorMarcaEAnoUsaIndice() {
+        repository.filtrar("Ford", 2020, null, null, null, Pageable.unpaged());
+
+        assertThat(plano("Ford", 2020))
+                .contains("IDX_VEICULOS_ATIVO_MARCA_ANO")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Filtro por ano deve usar o índice de ano")
+    void filtroPorAnoUsaIndice() {
+        repository.filtrar(null, 2020, null, null, null, Pageable.unpaged());
+
+        assertThat(plano(2020))
+                .contains("IDX_VEICULOS_ATIVO_ANO")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Filtro por cor deve usar o índice de cor")
+    void filtroPorCorUsaIndice() {
+        repository.filtrar(null, null, "Preto", null, null, Pageable.unpaged());
+
+        assertThat(plano("Preto"))
+                .contains("IDX_VEICULOS_ATIVO_COR")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Faixa de preço deve usar o índice de preço")
+    void faixaDePrecoUsaIndice() {
+        repository.filtrar(null, null, null, BigDecimal.ONE, BigDecimal.TEN, Pageable.unpaged());
+
+        assertThat(plano(BigDecimal.ONE, BigDecimal.TEN))
+                .contains("IDX_VEICULOS_ATIVO_PRECO")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    @DisplayName("Relatório por marca deve usar o índice de marca")
+    void relatorioPorMarcaUsaIndice() {
+        repository.relatorioPorMarca();
+
+        assertThat(plano())
+                .contains("IDX_VEICULOS_ATIVO_MARCA_ANO")
+                .doesNotContain("tableScan");
+    }
+
+    private String plano(Object... parametros) {
+        List<String> sqls = SqlCapturador.capturados();
+        assertThat(sqls).hasSize(1);
+
+        return jdbcTemplate.queryForObject("explain " + sqls.get(0), String.class, parametros);
+    }
+}
@@ -0,0 +1,95 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede inserções por segundo com e sem batch JDBC. Com ids de sequence (pooled-lo)
+ * o Hibernate agrupa os INSERTs; com IDENTITY cada INSERT precisaria de um round
+ * trip próprio, que é o cenário reproduzido com batch de tamanho 1.
+ * Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=off"
+})
+class VeiculoInsercaoBenchmarkTest {
+
+    private static final int TOTAL = 20_000;
+    private static final int LOTE = 500;
+
+    @Autowired
+    private VeiculoRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Inserções em batch devem superar inserções uma a uma")
+    void compararInsercoes() {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        Session session = entityManager.unwrap(Session.class);
+
+        inserir("aquecimento-", 2_000);
+
+        session.setJdbcBatchSize(1);
+        statistics.clear();
+        double semBatch = inserir("sem-batch-", TOTAL);
+        long statementsSemBatch = statistics.getPrepareStatementCount();
+
+        session.setJdbcBatchSize(null);
+        statistics.clear();
+        double comBatch = inserir("com-batch-", TOTAL);
+        long statementsComBatch = statistics.getPrepareStatementCount();
+
+        System.out.printf("%n%-12s %14s %14s%n", "modo", "inserts/s", "statements");
+        System.out.printf("%-12s %14.0f %14d%n", "sem batch", semBatch, statementsSemBatch);
+        System.out.printf("%-12s %14.0f %14d%n", "com batch", comBatch, statementsComBatch);
+
+        assertThat(statementsComBatch).isLessThan(statementsSemBatch / 10);
+        assertThat(comBatch).isGreaterThan(semBatch);
+    }
+
+    private double inserir(String prefixo, int total) {
+        long inicio = System.nanoTime();
+
+        for (int i = 0; i < total; i += LOTE) {
+            List<Veiculo> lote = new ArrayList<>(LOTE);
+            for (int j = i; j < i + LOTE; j++) {
+                lote.add(Veiculo.builder()
+                        .marca("Marca" + (j % 20))
+                        .modelo("Modelo")
+                        .ano(2000 + (j % 25))
+                        .cor("Cor" + (j % 8))
+                        .placa(prefixo + j)
+                        .precoUsd(BigDecimal.valueOf(j))
+                        .ativo(true)
+                        .build());
+            }
+
+            repository.saveAll(lote);
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        return total / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+    }
+}
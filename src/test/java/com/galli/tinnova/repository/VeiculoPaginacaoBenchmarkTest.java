@@ -0,0 +1,123 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a latência de OFFSET + COUNT com a paginação por cursor em diferentes
+ * profundidades. Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class VeiculoPaginacaoBenchmarkTest {
+
+    private static final int TOTAL = 200_000;
+    private static final int TAMANHO_PAGINA = 50;
+    private static final int REPETICOES = 31;
+    private static final int MARCAS = 20;
+    private static final int[] PROFUNDIDADES = {0, 10, 100, 199};
+
+    @Autowired
+    private VeiculoRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void popular() {
+        List<Object[]> linhas = new ArrayList<>(TOTAL);
+        for (int i = 1; i <= TOTAL; i++) {
+            linhas.add(new Object[]{(long) i, "Marca" + (i % MARCAS), "Modelo", 2000 + (i % 25), "Cor" + (i % 8), "P" + i, i % 90_000, true});
+        }
+
+        jdbcTemplate.batchUpdate(
+                "insert into veiculos (id, marca, modelo, ano, cor, placa, preco_usd, ativo) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                linhas
+        );
+    }
+
+    @Test
+    @DisplayName("Cursor mantém latência constante enquanto OFFSET cresce com a profundidade")
+    void compararOffsetComCursor() {
+        Sort sort = Sort.by("id");
+        Specification<Veiculo> filtro =
+                VeiculoSpecifications.filtrar("Marca3", null, null, null, null);
+        double[] offset = new double[PROFUNDIDADES.length];
+        double[] cursor = new double[PROFUNDIDADES.length];
+
+        for (int i = 0; i < PROFUNDIDADES.length; i++) {
+            int pagina = PROFUNDIDADES[i];
+
+            offset[i] = medianaEmMs(() -> {
+                Page<Veiculo> page = repository.findAll(
+                        filtro,
+                        PageRequest.of(pagina, TAMANHO_PAGINA, sort)
+                );
+                assertThat(page.getContent()).hasSize(TAMANHO_PAGINA);
+                return page;
+            });
+
+            // Os veículos da Marca3 têm ids 3, 23, 43, ...: o k-ésimo tem id 3 + 20k.
+            long primeiroId = 3L + (long) MARCAS * pagina * TAMANHO_PAGINA;
+            ScrollPosition posicao = pagina == 0
+                    ? ScrollPosition.keyset()
+                    : ScrollPosition.forward(Map.of("id", primeiroId - MARCAS));
+
+            cursor[i] = medianaEmMs(() -> {
+                Window<Veiculo> window = repository.findBy(
+                        filtro,
+                        q -> q.sortBy(sort).limit(TAMANHO_PAGINA).scroll(posicao)
+                );
+                assertThat(window.getContent()).hasSize(TAMANHO_PAGINA);
+                assertThat(window.getContent().get(0).getId())
+                        .isEqualTo(primeiroId);
+                return window;
+            });
+        }
+
+        System.out.printf("%n%-10s %14s %14s%n", "página", "offset (ms)", "cursor (ms)");
+        for (int i = 0; i < PROFUNDIDADES.length; i++) {
+            System.out.printf("%-10d %14.3f %14.3f%n", PROFUNDIDADES[i], offset[i], cursor[i]);
+        }
+
+        int ultima = PROFUNDIDADES.length - 1;
+        assertThat(cursor[ultima]).isLessThan(offset[ultima]);
+        assertThat(cursor[ultima]).isLessThan(cursor[0] * 3);
+    }
+
+    private double medianaEmMs(Supplier<?> consulta) {
+        for (int i = 0; i < 20; i++) {
+            consulta.get();
+        }
+
+        double[] tempos = new double[REPETICOES];
+        for (int i = 0; i < REPETICOES; i++) {
+            long inicio = System.nanoTime();
+            consulta.get();
+            tempos[i] = (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+
+        Arrays.sort(tempos);
+        return tempos[REPETICOES / 2];
+    }
+}
@@ -8,11 +8,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 class VeiculoRepositoryTest {
@@ -80,6 +85,28 @@ class VeiculoRepositoryTest {
         assertThat(ford.quantidade()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("Deve calcular estatísticas de preço por grupo numa única consulta")
+    void deveCalcularEstatisticasPorGrupo() {
+        repository.save(veiculo("Ford", "Preto", 2020, new BigDecimal("10000.00")));
+        repository.save(veiculo("Ford", "Branco", 2021, new BigDecimal("15000.00")));
+        repository.save(veiculo("GM", "Preto", 2020, new BigDecimal("30000.00")));
+        Veiculo inativo = veiculo("Ford", "Preto", 2020, new BigDecimal("99999.00"));
+        inativo.setAtivo(false);
+        repository.save(inativo);
+
+        assertThat(repository.estatisticasPorMarca()).containsExactly(
+                new EstatisticaPreco("Ford", 2L, new BigDecimal("10000.00"), new BigDecimal("15000.00"), new BigDecimal("25000.00")),
+                new EstatisticaPreco("GM", 1L, new BigDecimal("30000.00"), new BigDecimal("30000.00"), new BigDecimal("30000.00"))
+        );
+        assertThat(repository.estatisticasPorAno())
+                .extracting(EstatisticaPreco::grupo, EstatisticaPreco::quantidade)
+                .containsExactly(tuple("2020", 2L), tuple("2021", 1L));
+        assertThat(repository.estatisticasPorCor())
+                .extracting(EstatisticaPreco::grupo, EstatisticaPreco::quantidade)
+                .containsExactly(tuple("Branco", 1L), tuple("Preto", 2L));
+    }
+
     private Veiculo veiculo(String marca, String cor, int ano, BigDecimal preco) {
         Veiculo v = new Veiculo();
         v.setMarca(marca);
@@ -92,6 +119,39 @@ class VeiculoRepositoryTest {
         return v;
     }
 
+    @Test
+    @DisplayName("Resumo do detalhe deve trazer só veículos ativos")
+    void deveBuscarResumoDeVeiculoAtivo() {
+        Veiculo ativo = repository.save(veiculo("Ford", "Preto", 2020, new BigDecimal("10000.00")));
+        Veiculo inativo = veiculo("GM", "Preto", 2021, BigDecimal.TEN);
+        inativo.setAtivo(false);
+        repository.save(inativo);
+
+        assertThat(repository.buscarResumo(ativo.getId()))
+                .hasValueSatisfying(r -> {
+                    assertThat(r.marca()).isEqualTo("Ford");
+                    assertThat(r.precoUsd()).isEqualByComparingTo("10000.00");
+                    assertThat(r.versao()).isZero();
+                });
+        assertThat(repository.buscarResumo(inativo.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Resumos em lote e classificação devem refletir ativos e inativos")
+    void deveBuscarResumosEClassificacao() {
+        Veiculo ativo = repository.save(veiculo("Ford", "Preto", 2020, new BigDecimal("10000.00")));
+        Veiculo inativo = veiculo("GM", "Branco", 2021, BigDecimal.TEN);
+        inativo.setAtivo(false);
+        repository.save(inativo);
+
+        assertThat(repository.buscarResumos(List.of(ativo.getId(), inativo.getId())))
+                .extracting(VeiculoResumo::id)
+                .containsExactly(ativo.getId());
+        // a classificação é lida mesmo após o soft delete, para invalidar a listagem
+        assertThat(repository.buscarClassificacao(inativo.getId()))
+                .contains(new ClassificacaoVeiculo("GM", 2021, "Branco"));
+    }
+
     @Test
     @DisplayName("Deve falhar ao salvar veículos com placa duplicada")
     void deveFalharComPlacaDuplicada() {
@@ -141,4 +201,40 @@ class VeiculoRepositoryTest {
                 .isEmpty();
     }
 
+    @Test
+    @DisplayName("Deve percorrer todas as páginas por cursor sem repetir nem pular veículos")
+    void devePaginarPorCursor() {
+        repository.save(veiculo("Ford", "Preto", 2020, new BigDecimal("30000")));
+        repository.save(veiculo("Ford", "Preto", 2021, new BigDecimal("10000")));
+        repository.save(veiculo("Ford", "Preto", 2022, new BigDecimal("20000")));
+        repository.save(veiculo("Ford", "Preto", 2023, new BigDecimal("20000")));
+        repository.save(veiculo("GM", "Preto", 2020, new BigDecimal("5000")));
+
+        List<BigDecimal> precos = new ArrayList<>();
+        ScrollPosition posicao = ScrollPosition.keyset();
+        Window<Veiculo> window;
+
+        do {
+            ScrollPosition atual = posicao;
+            window = repository.findBy(
+                    VeiculoSpecifications.filtrar("Ford", null, null, null, null),
+                    q -> q.sortBy(Sort.by("precoUsd")).limit(2).scroll(atual)
+            );
+            window.forEach(v -> precos.add(v.getPrecoUsd()));
+
+            if (!window.isEmpty()) {
+                posicao = window.positionAt(window.size() - 1);
+            }
+        } while (window.hasNext());
+
+        assertThat(precos)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(
+                        new BigDecimal("10000"),
+                        new BigDecimal("20000"),
+                        new BigDecimal("20000"),
+                        new BigDecimal("30000")
+                );
+    }
+
 }
@@ -0,0 +1,103 @@
+package com.galli.tinnova.repository;
+
+import com.galli.tinnova.entity.Veiculo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.galli.tinnova.repository.SqlCapturador"
+)
+class VeiculoSpecificationsTest {
+
+    @Autowired
+    private VeiculoRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapturador.limpar();
+    }
+
+    @Test
+    @DisplayName("Sem filtros, apenas o predicado de ativo deve ser gerado")
+    void semFiltros() {
+        String sql = executar(null, null, null, null, null);
+
+        assertThat(sql).contains("ativo");
+        assertThat(sql).doesNotContain("marca=?", "ano=?", "cor=?", "preco_usd>=?", "preco_usd<=?");
+        assertThat(sql).doesNotContain("is null");
+    }
+
+    @Test
+    @DisplayName("Filtro por marca deve gerar somente o predicado de marca")
+    void somenteMarca() {
+        String sql = executar("Ford", null, null, null, null);
+
+        assertThat(sql).contains("marca=?");
+        assertThat(sql).doesNotContain("ano=?", "cor=?", "preco_usd>=?", "preco_usd<=?");
+        assertThat(sql).doesNotContain("is null");
+    }
+
+    @Test
+    @DisplayName("Filtro por ano e cor deve gerar somente esses predicados")
+    void anoECor() {
+        String sql = executar(null, 2020, "Preto", null, null);
+
+        assertThat(sql).contains("ano=?", "cor=?");
+        assertThat(sql).doesNotContain("marca=?", "preco_usd>=?", "preco_usd<=?");
+        assertThat(sql).doesNotContain("is null");
+    }
+
+    @Test
+    @DisplayName("Faixa de preço deve gerar somente os predicados de preço")
+    void faixaDePreco() {
+        String sql = executar(null, null, null, BigDecimal.ONE, BigDecimal.TEN);
+
+        assertThat(sql).contains("preco_usd>=?", "preco_usd<=?");
+        assertThat(sql).doesNotContain("marca=?", "ano=?", "cor=?");
+        assertThat(sql).doesNotContain("is null");
+    }
+
+    @Test
+    @DisplayName("Todos os filtros devem gerar todos os predicados")
+    void todosOsFiltros() {
+        String sql = executar("Ford", 2020, "Preto", BigDecimal.ONE, BigDecimal.TEN);
+
+        assertThat(sql).contains("marca=?", "ano=?", "cor=?", "preco_usd>=?", "preco_usd<=?");
+        assertThat(sql).doesNotContain("is null");
+    }
+
+    @Test
+    @DisplayName("A mesma combinação de filtros deve gerar o mesmo SQL com parâmetros, sem literais")
+    void mesmaCombinacaoGeraMesmoStatement() {
+        String primeiro = executar("Ford", 2020, null, null, null);
+        String segundo = executar("GM", 2021, null, null, null);
+
+        assertThat(segundo).isEqualTo(primeiro);
+        assertThat(primeiro).doesNotContain("ford", "2020");
+    }
+
+    private String executar(
+            String marca,
+            Integer ano,
+            String cor,
+            BigDecimal minPreco,
+            BigDecimal maxPreco
+    ) {
+        SqlCapturador.limpar();
+        repository.filtrar(marca, ano, cor, minPreco, maxPreco, Pageable.unpaged());
+
+        List<String> sqls = SqlCapturador.capturados();
+        assertThat(sqls).hasSize(1);
+
+        return sqls.get(0);
+    }
+}
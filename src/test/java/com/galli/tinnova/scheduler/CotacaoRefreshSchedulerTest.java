@@ -0,0 +1,32 @@
+package com.galli.tinnova.scheduler;
+
+import com.galli.tinnova.service.DollarService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.*;
+
+class CotacaoRefreshSchedulerTest {
+
+    private final DollarService dollarService = mock(DollarService.class);
+    private final CotacaoRefreshScheduler scheduler = new CotacaoRefreshScheduler(dollarService);
+
+    @Test
+    void deveAtualizarCotacaoNoCache() {
+        when(dollarService.atualizarUsdToBrl()).thenReturn(new BigDecimal("5.12"));
+
+        scheduler.atualizar();
+
+        verify(dollarService).atualizarUsdToBrl();
+        verify(dollarService, never()).getUsdToBrl();
+    }
+
+    @Test
+    void naoDevePropagarFalhaDosProvedores() {
+        when(dollarService.atualizarUsdToBrl()).thenThrow(new IllegalStateException("fora"));
+
+        assertThatCode(scheduler::atualizar).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,310 @@
+package com.galli.tinnova.service.cache;
+
+import com.galli.tinnova.config.cache.PropriedadesCache;
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoResumo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CacheListagemVeiculosTest {
+
+    private final VeiculoRepository repository = mock(VeiculoRepository.class);
+    private final CacheManager cacheManager =
+            new ConcurrentMapCacheManager(CacheListagemVeiculos.CACHE, CacheVeiculos.CACHE);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Redis em memória: só os comandos usados pela listagem
+    private final Map<String, Set<String>> conjuntos = new ConcurrentHashMap<>();
+    private final Map<String, String> valores = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    // veículos que o repositório devolve para hidratar as páginas
+    private final Map<Long, VeiculoResumo> banco = new ConcurrentHashMap<>();
+
+    private CacheListagemVeiculos cacheListagem;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SetOperations<String, String> sets = mock(SetOperations.class);
+        ValueOperations<String, String> strings = mock(ValueOperations.class);
+        when(redisTemplate.opsForSet()).thenReturn(sets);
+        when(redisTemplate.opsForValue()).thenReturn(strings);
+
+        when(sets.add(anyString(), any(String[].class))).thenAnswer(inv -> {
+            conjuntos.computeIfAbsent(inv.getArgument(0), k -> ConcurrentHashMap.newKeySet())
+                    .add(inv.getArgument(1));
+            return 1L;
+        });
+        when(sets.members(anyString())).thenAnswer(inv ->
+                new HashSet<>(conjuntos.getOrDefault(inv.<String>getArgument(0), Set.of())));
+        when(sets.remove(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            Set<String> conjunto = conjuntos.getOrDefault(inv.<String>getArgument(0), new HashSet<>());
+            for (int i = 1; i < inv.getArguments().length; i++) {
+                conjunto.remove(inv.getArgument(i));
+            }
+            return 1L;
+        });
+        when(strings.get(anyString())).thenAnswer(inv -> valores.get(inv.<String>getArgument(0)));
+        when(strings.multiGet(anyList())).thenAnswer(inv ->
+                inv.<List<String>>getArgument(0).stream().map(valores::get).toList());
+        when(strings.increment(anyString())).thenAnswer(inv -> Long.valueOf(
+                valores.merge(inv.getArgument(0), "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1))));
+
+        when(repository.buscarResumos(any())).thenAnswer(inv -> inv.<List<Long>>getArgument(0).stream()
+                .map(banco::get)
+                .filter(Objects::nonNull)
+                .toList());
+
+        cacheListagem = comPropriedades(Map.of());
+    }
+
+    private CacheListagemVeiculos comPropriedades(Map<String, String> valoresPropriedades) {
+        PropriedadesCache propriedades = new Binder(new MapConfigurationPropertySource(valoresPropriedades))
+                .bindOrCreate("cache", PropriedadesCache.class);
+        return new CacheListagemVeiculos(
+                cacheManager,
+                redisTemplate,
+                new CacheVeiculos(repository, cacheManager, redisTemplate, propriedades),
+                meterRegistry,
+                propriedades
+        );
+    }
+
+    @AfterEach
+    void limparSincronizacao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void leiturasSeguintesDevemVirDoCacheSemRepetirAConsulta() {
+        AtomicInteger consultas = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+
+        Page<VeiculoResumo> primeira = listar("Ford", pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "Ford"));
+        Page<VeiculoResumo> segunda = listar("Ford", pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "Ford"));
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "Ford"));
+
+        assertThat(consultas).hasValue(1);
+        assertThat(segunda.getContent()).isEqualTo(primeira.getContent());
+        assertThat(segunda.getTotalElements()).isEqualTo(5);
+        // os veículos da página são lidos uma vez e depois vêm do cache de veículos
+        verify(repository, times(1)).buscarResumos(List.of(1L, 2L));
+
+        assertThat(meterRegistry.get(CacheListagemVeiculos.METRICA_LEITURAS).tag("result", "hit").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get(CacheListagemVeiculos.METRICA_ACERTO).gauge().value())
+                .isCloseTo(2.0 / 3, within(1e-9));
+    }
+
+    @Test
+    void escritaDeveDescartarSoAsPaginasQueElaPodeAfetar() {
+        AtomicInteger consultas = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 20);
+
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+        listar("GM", pageable, consultas, veiculo(2L, "GM"));
+        listar(null, pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "GM"));
+
+        cacheListagem.invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
+
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+        listar("GM", pageable, consultas, veiculo(2L, "GM"));
+        listar(null, pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "GM"));
+
+        // Ford e a listagem sem filtro foram remontadas; GM continuou em cache
+        assertThat(consultas).hasValue(5);
+    }
+
+    @Test
+    void chavesGuardadasDiretoNoRedisDevemUsarOPrefixoDoCache() {
+        cacheListagem = comPropriedades(Map.of("cache.padrao.prefixo", "tinnova:"));
+
+        listar("Ford", PageRequest.of(0, 20), new AtomicInteger(), veiculo(1L, "Ford"));
+        cacheListagem.invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
+
+        assertThat(conjuntos).isNotEmpty().allSatisfy((chave, paginas) ->
+                assertThat(chave).startsWith("tinnova:veiculos-listagem:etiqueta:"));
+        assertThat(valores).isNotEmpty().allSatisfy((chave, geracao) ->
+                assertThat(chave).startsWith("tinnova:veiculos-listagem:geracao:"));
+    }
+
+    @Test
+    void dentroDeTransacaoInvalidacaoSoOcorreAposCommit() {
+        AtomicInteger consultas = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 20);
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cacheListagem.invalidar(List.of(new ClassificacaoVeiculo("Ford", 2020, "Preto")));
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+        assertThat(consultas).hasValue(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void paginaMontadaDuranteUmaInvalidacaoNaoDeveFicarEmCache() {
+        AtomicInteger consultas = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 20);
+
+        // a invalidação chega enquanto a consulta ainda lê o dado antigo
+        cacheListagem.buscar("Ford", null, null, null, null, pageable, () -> {
+            consultas.incrementAndGet();
+            cacheListagem.invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
+            return new PageImpl<>(List.of(veiculo(1L, "Ford")), pageable, 1);
+        });
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void veiculoRemovidoDaPaginaEmCacheDeveRemontarAPagina() {
+        AtomicInteger consultas = new AtomicInteger();
+        Pageable pageable = PageRequest.of(0, 20);
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "Ford"));
+
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"), veiculo(2L, "Ford"));
+        cacheManager.getCache(CacheVeiculos.CACHE).evict(2L);
+        banco.remove(2L);
+        listar("Ford", pageable, consultas, veiculo(1L, "Ford"));
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void requisicaoSemPaginacaoNaoDeveSerCacheada() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        listar("Ford", Pageable.unpaged(), consultas, veiculo(1L, "Ford"));
+        listar("Ford", Pageable.unpaged(), consultas, veiculo(1L, "Ford"));
+
+        assertThat(consultas).hasValue(2);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void chaveDeveNormalizarFiltrosEOrdenacao() {
+        Pageable pageable = PageRequest.of(1, 10, Sort.by(Sort.Order.desc("precoUsd"), Sort.Order.asc("id")));
+
+        assertThat(CacheListagemVeiculos.chave("Ford", 2020, null, new BigDecimal("100.00"), null, pageable))
+                .isEqualTo(CacheListagemVeiculos.chave("Ford", 2020, null, new BigDecimal("1E+2"), null, pageable))
+                .isEqualTo("marca=Ford&ano=2020&cor=&min=100&max=&pagina=1&tamanho=10&ordem=precoUsd:DESC,id:ASC");
+        // o valor de um filtro não se confunde com o separador
+        assertThat(CacheListagemVeiculos.chave("A&cor=B", null, null, null, null, pageable))
+                .isNotEqualTo(CacheListagemVeiculos.chave("A", null, "B", null, null, pageable));
+    }
+
+    @Test
+    void etiquetaDeveSerOFiltroDeIgualdadeMaisSeletivo() {
+        assertThat(CacheListagemVeiculos.etiqueta("Ford", 2020, "Preto")).isEqualTo("marca:Ford");
+        assertThat(CacheListagemVeiculos.etiqueta(null, 2020, "Preto")).isEqualTo("ano:2020");
+        assertThat(CacheListagemVeiculos.etiqueta(null, null, "Preto")).isEqualTo("cor:Preto");
+        assertThat(CacheListagemVeiculos.etiqueta(null, null, null)).isEqualTo("*");
+    }
+
+    @Test
+    void redisIndisponivelDeveLerDoBancoENaoPropagarNaInvalidacao() {
+        CacheManager foraDoAr = mock(CacheManager.class);
+        Cache cache = mock(Cache.class);
+        when(foraDoAr.getCache(any())).thenReturn(cache);
+        when(cache.get(any(), eq(CacheListagemVeiculos.PaginaEmCache.class)))
+                .thenThrow(new RedisConnectionFailureException("fora"));
+        when(redisTemplate.opsForValue().increment(anyString()))
+                .thenThrow(new RedisConnectionFailureException("fora"));
+
+        PropriedadesCache propriedades = new Binder(new MapConfigurationPropertySource(Map.of()))
+                .bindOrCreate("cache", PropriedadesCache.class);
+        CacheListagemVeiculos semRedis = new CacheListagemVeiculos(
+                foraDoAr, redisTemplate, new CacheVeiculos(repository, foraDoAr, redisTemplate, propriedades),
+                new SimpleMeterRegistry(), propriedades);
+        Pageable pageable = PageRequest.of(0, 20);
+
+        Page<VeiculoResumo> pagina = semRedis.buscar("Ford", null, null, null, null, pageable,
+                () -> new PageImpl<>(List.of(veiculo(1L, "Ford")), pageable, 1));
+
+        assertThat(pagina.getContent()).extracting(VeiculoResumo::id).containsExactly(1L);
+        assertThatCode(() -> semRedis.invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void paginaDeveSobreviverAoSerializadorDoCache() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        CacheListagemVeiculos.PaginaEmCache pagina =
+                new CacheListagemVeiculos.PaginaEmCache(new ArrayList<>(List.of(1L, 3_000_000_000L)), 42);
+
+        assertThat(serializer.deserialize(serializer.serialize(pagina))).isEqualTo(pagina);
+    }
+
+    private Page<VeiculoResumo> listar(String marca, Pageable pageable, AtomicInteger consultas, Veiculo... veiculos) {
+        for (Veiculo veiculo : veiculos) {
+            banco.put(veiculo.getId(), VeiculoMapper.toResumo(veiculo));
+        }
+        Supplier<Page<Veiculo>> consulta = () -> {
+            consultas.incrementAndGet();
+            return new PageImpl<>(List.of(veiculos), pageable, pageable.isPaged() ? 5 : veiculos.length);
+        };
+        return cacheListagem.buscar(marca, null, null, null, null, pageable, consulta);
+    }
+
+    private static Veiculo veiculo(Long id, String marca) {
+        return Veiculo.builder()
+                .id(id)
+                .marca(marca)
+                .modelo("Modelo")
+                .ano(2020)
+                .cor("Preto")
+                .placa("ABC" + id)
+                .precoUsd(new BigDecimal("10000.00"))
+                .ativo(true)
+                .versao(0L)
+                .build();
+    }
+}
@@ -0,0 +1,256 @@
+package com.galli.tinnova.service.cache;
+
+import com.galli.tinnova.config.cache.CacheEmLote;
+import com.galli.tinnova.config.cache.PropriedadesCache;
+import com.galli.tinnova.exception.NotFoundException;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoResumo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheVeiculosTest {
+
+    private static final PropriedadesCache PROPRIEDADES = new Binder(new MapConfigurationPropertySource(Map.of()))
+            .bindOrCreate("cache", PropriedadesCache.class);
+
+    private final VeiculoRepository repository = mock(VeiculoRepository.class);
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheVeiculos.CACHE);
+
+
+    // Redis em memória: só as gerações por id
+    private final Map<String, String> geracoes = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    private final CacheVeiculos cacheVeiculos = new CacheVeiculos(repository, cacheManager, redisTemplate, PROPRIEDADES);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> strings = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(strings);
+        when(strings.get(anyString())).thenAnswer(inv -> geracoes.get(inv.<String>getArgument(0)));
+        when(strings.multiGet(anyList())).thenAnswer(inv ->
+                inv.<List<String>>getArgument(0).stream().map(geracoes::get).toList());
+        when(strings.increment(anyString())).thenAnswer(inv -> Long.valueOf(
+                geracoes.merge(inv.getArgument(0), "1", (a, b) -> String.valueOf(Long.parseLong(a) + 1))));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(inv -> {
+            inv.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+            return List.of();
+        });
+    }
+
+    @AfterEach
+    void limparSincronizacao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void segundaLeituraDeveVirDoCache() {
+        when(repository.buscarResumo(1L)).thenReturn(Optional.of(resumo(1L)));
+
+        assertThat(cacheVeiculos.buscar(1L)).isEqualTo(resumo(1L));
+        assertThat(cacheVeiculos.buscar(1L)).isEqualTo(resumo(1L));
+
+        verify(repository, times(1)).buscarResumo(1L);
+    }
+
+    @Test
+    void veiculoInexistenteDeveLancarNotFoundSemCachear() {
+        when(repository.buscarResumo(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cacheVeiculos.buscar(9L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> cacheVeiculos.buscar(9L)).isInstanceOf(NotFoundException.class);
+
+        verify(repository, times(2)).buscarResumo(9L);
+    }
+
+    @Test
+    void buscarTodosDeveLerSoOsFaltantesNumaConsultaEManterAOrdem() {
+        when(repository.buscarResumo(2L)).thenReturn(Optional.of(resumo(2L)));
+        cacheVeiculos.buscar(2L);
+        when(repository.buscarResumos(List.of(3L, 1L, 9L))).thenReturn(List.of(resumo(1L), resumo(3L)));
+
+        assertThat(cacheVeiculos.buscarTodos(List.of(3L, 2L, 1L, 9L)))
+                .extracting(VeiculoResumo::id)
+                .containsExactly(3L, 2L, 1L);
+        assertThat(cacheVeiculos.buscarTodos(List.of(1L, 2L, 3L)))
+                .extracting(VeiculoResumo::id)
+                .containsExactly(1L, 2L, 3L);
+
+        verify(repository, times(1)).buscarResumos(any());
+    }
+
+    @Test
+    void invalidarDeveForcarNovaLeituraDoBanco() {
+        when(repository.buscarResumo(1L)).thenReturn(Optional.of(resumo(1L)));
+        cacheVeiculos.buscar(1L);
+
+        cacheVeiculos.invalidar(1L);
+        cacheVeiculos.buscar(1L);
+
+        verify(repository, times(2)).buscarResumo(1L);
+    }
+
+    @Test
+    void dentroDeTransacaoInvalidacaoSoOcorreAposCommit() {
+        when(repository.buscarResumo(1L)).thenReturn(Optional.of(resumo(1L)));
+        cacheVeiculos.buscar(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cacheVeiculos.invalidar(List.of(1L));
+
+        assertThat(cacheManager.getCache(CacheVeiculos.CACHE).get(1L)).isNotNull();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cacheManager.getCache(CacheVeiculos.CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void leituraAnteriorAoCommitNaoDeveFicarEmCacheAposInvalidacao() {
+        // como o RedisCache: carrega fora de qualquer trava e grava depois
+        ConcurrentMapCache cache = new ConcurrentMapCache(CacheVeiculos.CACHE) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T get(Object key, Callable<T> valueLoader) {
+                ValueWrapper existente = get(key);
+                if (existente != null) {
+                    return (T) existente.get();
+                }
+                T valor;
+                try {
+                    valor = valueLoader.call();
+                } catch (Exception e) {
+                    throw new ValueRetrievalException(key, valueLoader, e);
+                }
+                put(key, valor);
+                return valor;
+            }
+        };
+        SimpleCacheManager gerenciador = new SimpleCacheManager();
+        gerenciador.setCaches(List.of(cache));
+        gerenciador.initializeCaches();
+        CacheVeiculos cacheVeiculos = new CacheVeiculos(repository, gerenciador, redisTemplate, PROPRIEDADES);
+
+        VeiculoResumo antigo = resumo(1L);
+        VeiculoResumo novo = new VeiculoResumo(1L, "Ford", "Ka", 2020, "Azul", "ABC1D23", new BigDecimal("10000.00"), 4L);
+        // a leitura consulta o banco antes do commit; o commit e o descarte acontecem antes do put
+        when(repository.buscarResumo(1L))
+                .thenAnswer(inv -> {
+                    cacheVeiculos.invalidar(1L);
+                    return Optional.of(antigo);
+                })
+                .thenReturn(Optional.of(novo));
+
+        assertThat(cacheVeiculos.buscar(1L)).isEqualTo(antigo);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cacheVeiculos.buscar(1L)).isEqualTo(novo);
+        assertThat(cacheVeiculos.buscar(1L)).isEqualTo(novo);
+        verify(repository, times(2)).buscarResumo(1L);
+    }
+
+    @Test
+    void buscarTodosNaoDeveManterVeiculoInvalidadoDuranteAConsulta() {
+        when(repository.buscarResumos(List.of(1L, 2L))).thenAnswer(inv -> {
+            cacheVeiculos.invalidar(2L);
+            return List.of(resumo(1L), resumo(2L));
+        });
+
+        assertThat(cacheVeiculos.buscarTodos(List.of(1L, 2L))).extracting(VeiculoResumo::id).containsExactly(1L, 2L);
+
+        assertThat(cacheManager.getCache(CacheVeiculos.CACHE).get(1L)).isNotNull();
+        assertThat(cacheManager.getCache(CacheVeiculos.CACHE).get(2L)).isNull();
+    }
+
+    @Test
+    void buscarTodosDeveLerOCacheNumaUnicaOperacaoEmLote() {
+        CacheManager gerenciador = mock(CacheManager.class);
+        CacheEmLote cache = mock(CacheEmLote.class);
+        when(gerenciador.getCache(CacheVeiculos.CACHE)).thenReturn(cache);
+        when(cache.getVarias(List.of(1L, 2L, 3L))).thenReturn(Map.of(1L, resumo(1L), 3L, resumo(3L)));
+        when(repository.buscarResumos(List.of(2L))).thenReturn(List.of(resumo(2L)));
+
+        assertThat(new CacheVeiculos(repository, gerenciador, redisTemplate, PROPRIEDADES).buscarTodos(List.of(1L, 2L, 3L)))
+                .extracting(VeiculoResumo::id)
+                .containsExactly(1L, 2L, 3L);
+
+        verify(cache, never()).get(any(), eq(VeiculoResumo.class));
+        verify(cache).put(2L, resumo(2L));
+    }
+
+    @Test
+    void invalidacaoDeVariosVeiculosDeveRemoverEmLote() {
+        CacheManager gerenciador = mock(CacheManager.class);
+        CacheEmLote cache = mock(CacheEmLote.class);
+        when(gerenciador.getCache(CacheVeiculos.CACHE)).thenReturn(cache);
+
+        new CacheVeiculos(repository, gerenciador, redisTemplate, PROPRIEDADES).invalidar(List.of(1L, 2L, 3L));
+
+        verify(cache).evictVarias(List.of(1L, 2L, 3L));
+        verify(cache, never()).evict(any());
+        assertThat(geracoes).containsOnlyKeys("veiculos:geracao:1", "veiculos:geracao:2", "veiculos:geracao:3");
+    }
+
+    @Test
+    void redisIndisponivelDeveLerDoBancoENaoPropagarNaInvalidacao() {
+        CacheManager foraDoAr = mock(CacheManager.class);
+        Cache cache = mock(Cache.class);
+        when(foraDoAr.getCache(CacheVeiculos.CACHE)).thenReturn(cache);
+        when(cache.get(eq(1L), any(Callable.class)))
+                .thenThrow(new RedisConnectionFailureException("fora"));
+        doThrow(new RedisConnectionFailureException("fora")).when(cache).evict(any());
+        when(repository.buscarResumo(1L)).thenReturn(Optional.of(resumo(1L)));
+
+        CacheVeiculos semRedis = new CacheVeiculos(repository, foraDoAr, redisTemplate, PROPRIEDADES);
+
+        assertThat(semRedis.buscar(1L)).isEqualTo(resumo(1L));
+        assertThatCode(() -> semRedis.invalidar(1L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void resumoDeveSobreviverAoSerializadorDoCache() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+        Object lido = serializer.deserialize(serializer.serialize(resumo(1L)));
+
+        assertThat(lido).isEqualTo(resumo(1L));
+    }
+
+    private static VeiculoResumo resumo(Long id) {
+        return new VeiculoResumo(id, "Ford", "Ka", 2020, "Preto", "ABC1D23", new BigDecimal("10000.00"), 3L);
+    }
+}
@@ -0,0 +1,72 @@
+package com.galli.tinnova.service.cotacao;
+
+import com.galli.tinnova.service.cotacao.CircuitBreaker.Estado;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(30), relogio::get);
+
+    @Test
+    void deveAbrirAposFalhasSeguidas() {
+        circuitBreaker.registrarFalha();
+        circuitBreaker.registrarFalha();
+        assertThat(circuitBreaker.permiteChamada()).isTrue();
+
+        circuitBreaker.registrarFalha();
+
+        assertThat(circuitBreaker.estado()).isEqualTo(Estado.ABERTO);
+        assertThat(circuitBreaker.permiteChamada()).isFalse();
+    }
+
+    @Test
+    void sucessoDeveZerarContagemDeFalhas() {
+        circuitBreaker.registrarFalha();
+        circuitBreaker.registrarFalha();
+        circuitBreaker.registrarSucesso();
+        circuitBreaker.registrarFalha();
+
+        assertThat(circuitBreaker.estado()).isEqualTo(Estado.FECHADO);
+    }
+
+    @Test
+    void deveLiberarUmaChamadaDeTesteAposTempoAberto() {
+        abrir();
+        avancar(Duration.ofSeconds(31));
+
+        assertThat(circuitBreaker.permiteChamada()).isTrue();
+        assertThat(circuitBreaker.estado()).isEqualTo(Estado.SEMIABERTO);
+        assertThat(circuitBreaker.permiteChamada()).isFalse();
+
+        circuitBreaker.registrarSucesso();
+        assertThat(circuitBreaker.estado()).isEqualTo(Estado.FECHADO);
+    }
+
+    @Test
+    void falhaNoSemiabertoDeveReabrir() {
+        abrir();
+        avancar(Duration.ofSeconds(31));
+        circuitBreaker.permiteChamada();
+
+        circuitBreaker.registrarFalha();
+
+        assertThat(circuitBreaker.estado()).isEqualTo(Estado.ABERTO);
+        assertThat(circuitBreaker.permiteChamada()).isFalse();
+    }
+
+    private void abrir() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.registrarFalha();
+        }
+    }
+
+    private void avancar(Duration duracao) {
+        relogio.addAndGet(duracao.toNanos());
+    }
+}
@@ -0,0 +1,123 @@
+package com.galli.tinnova.service.cotacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara o parse das respostas dos provedores em {@code Map<String, Object>} (caminho
+ * antigo) com os records tipados, medindo tempo e bytes alocados por parse na thread.
+ * Executar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CotacaoParseBenchmarkTest {
+
+    private static final int AQUECIMENTO = 50_000;
+    private static final int ITERACOES = 200_000;
+
+    private static final byte[] AWESOME_API = ("{\"USDBRL\":{\"code\":\"USD\",\"codein\":\"BRL\","
+            + "\"name\":\"Dólar Americano/Real Brasileiro\",\"high\":\"5.1553\",\"low\":\"5.1231\","
+            + "\"varBid\":\"-0.0079\",\"pctChange\":\"-0.15\",\"bid\":\"5.1339\",\"ask\":\"5.1349\","
+            + "\"timestamp\":\"1715374793\",\"create_date\":\"2024-05-10 17:59:53\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] FRANKFURTER = ("{\"amount\":1.0,\"base\":\"USD\",\"date\":\"2024-05-10\","
+            + "\"rates\":{\"BRL\":5.1339}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Parse tipado deve alocar menos que o parse em Map")
+    void compararParse() {
+        Medicao awesomeMap = medir(this::awesomeApiMap, AWESOME_API);
+        Medicao awesomeTipado = medir(this::awesomeApiTipado, AWESOME_API);
+        Medicao frankfurterMap = medir(this::frankfurterMap, FRANKFURTER);
+        Medicao frankfurterTipado = medir(this::frankfurterTipado, FRANKFURTER);
+
+        System.out.printf("%n%-22s %12s %12s%n", "parse", "ns/op", "bytes/op");
+        imprimir("AwesomeAPI Map", awesomeMap);
+        imprimir("AwesomeAPI tipado", awesomeTipado);
+        imprimir("Frankfurter Map", frankfurterMap);
+        imprimir("Frankfurter tipado", frankfurterTipado);
+
+        assertThat(awesomeTipado.bytesPorOperacao()).isLessThan(awesomeMap.bytesPorOperacao());
+        assertThat(frankfurterTipado.bytesPorOperacao()).isLessThan(frankfurterMap.bytesPorOperacao());
+        assertThat(awesomeTipado.nanosPorOperacao() + frankfurterTipado.nanosPorOperacao())
+                .isLessThan(awesomeMap.nanosPorOperacao() + frankfurterMap.nanosPorOperacao());
+    }
+
+    private BigDecimal awesomeApiMap(byte[] payload) {
+        try {
+            Map<String, Object> response = objectMapper.readValue(payload, Map.class);
+            Map<String, String> usdbrl = (Map<String, String>) response.get("USDBRL");
+            return new BigDecimal(usdbrl.get("bid"));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BigDecimal awesomeApiTipado(byte[] payload) {
+        try {
+            return AwesomeApiProvedor.extrair(objectMapper.readValue(payload, AwesomeApiProvedor.Resposta.class));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BigDecimal frankfurterMap(byte[] payload) {
+        try {
+            Map<String, Object> response = objectMapper.readValue(payload, Map.class);
+            Map<String, Number> rates = (Map<String, Number>) response.get("rates");
+            return new BigDecimal(rates.get("BRL").toString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BigDecimal frankfurterTipado(byte[] payload) {
+        try {
+            return FrankfurterProvedor.extrair(objectMapper.readValue(payload, FrankfurterProvedor.Resposta.class));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Medicao medir(Function<byte[], BigDecimal> parse, byte[] payload) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        BigDecimal soma = BigDecimal.ZERO;
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            soma = soma.add(parse.apply(payload));
+        }
+
+        long bytesInicio = threadMXBean.getThreadAllocatedBytes(thread);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACOES; i++) {
+            soma = soma.add(parse.apply(payload));
+        }
+        long nanos = System.nanoTime() - inicio;
+        long bytes = threadMXBean.getThreadAllocatedBytes(thread) - bytesInicio;
+
+        assertThat(soma.signum()).isPositive();
+        return new Medicao((double) nanos / ITERACOES, (double) bytes / ITERACOES);
+    }
+
+    private void imprimir(String nome, Medicao medicao) {
+        System.out.printf("%-22s %12.0f %12.0f%n", nome, medicao.nanosPorOperacao(), medicao.bytesPorOperacao());
+    }
+
+    private record Medicao(double nanosPorOperacao, double bytesPorOperacao) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.galli.tinnova.service.cotacao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProvedoresCotacaoTest {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(200);
+
+    @Test
+    void deveBuscarCotacaoNaAwesomeApi() throws Exception {
+        try (ServidorStub stub = ServidorStub.responder("/json/last/USD-BRL",
+                "{\"USDBRL\":{\"code\":\"USD\",\"codein\":\"BRL\",\"bid\":\"5.12\"}}")) {
+
+            assertThat(awesomeApi(stub).buscarUsdBrl()).isEqualByComparingTo("5.12");
+        }
+    }
+
+    @Test
+    void deveBuscarCotacaoNaFrankfurter() throws Exception {
+        try (ServidorStub stub = ServidorStub.responder("/latest",
+                "{\"amount\":1.0,\"base\":\"USD\",\"date\":\"2024-05-10\",\"rates\":{\"BRL\":5.1234}}")) {
+
+            assertThat(frankfurter(stub).buscarUsdBrl()).isEqualByComparingTo("5.1234");
+        }
+    }
+
+    @Test
+    void deveFalharQuandoRespostaNaoTemCotacao() throws Exception {
+        try (ServidorStub stub = ServidorStub.responder("/latest", "{\"rates\":{\"EUR\":0.92}}")) {
+
+            assertThatThrownBy(() -> frankfurter(stub).buscarUsdBrl())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void deveRejeitarCotacaoNaoNumerica() throws Exception {
+        try (ServidorStub stub = ServidorStub.responder("/json/last/USD-BRL", "{\"USDBRL\":{\"bid\":\"abc\"}}")) {
+
+            assertThatThrownBy(() -> awesomeApi(stub).buscarUsdBrl())
+                    .isInstanceOf(RestClientException.class);
+        }
+    }
+
+    @Test
+    void deveRejeitarCotacaoAusenteOuNaoPositiva() throws Exception {
+        try (ServidorStub semBid = ServidorStub.responder("/json/last/USD-BRL", "{\"USDBRL\":{\"ask\":\"5.13\"}}");
+             ServidorStub zero = ServidorStub.responder("/latest", "{\"rates\":{\"BRL\":0}}")) {
+
+            assertThatThrownBy(() -> awesomeApi(semBid).buscarUsdBrl())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Resposta inválida da AwesomeAPI");
+            assertThatThrownBy(() -> frankfurter(zero).buscarUsdBrl())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Resposta inválida da Frankfurter");
+        }
+    }
+
+    @Test
+    void deveRejeitarJsonTruncado() throws Exception {
+        try (ServidorStub stub = ServidorStub.responder("/latest", "{\"rates\":{\"BRL\":5.2")) {
+
+            assertThatThrownBy(() -> frankfurter(stub).buscarUsdBrl())
+                    .isInstanceOf(RestClientException.class);
+        }
+    }
+
+    @Test
+    void deveFalharQuandoProvedorRetornaErro() throws Exception {
+        try (ServidorStub stub = ServidorStub.responderStatus("/json/last/USD-BRL", 503)) {
+
+            assertThatThrownBy(() -> awesomeApi(stub).buscarUsdBrl())
+                    .isInstanceOf(RestClientException.class);
+        }
+    }
+
+    @Test
+    void deveRespeitarTimeoutDeLeitura() throws Exception {
+        try (ServidorStub stub = ServidorStub.responderComAtraso("/json/last/USD-BRL",
+                "{\"USDBRL\":{\"bid\":\"5.12\"}}", Duration.ofSeconds(2))) {
+
+            long inicio = System.nanoTime();
+            assertThatThrownBy(() -> awesomeApi(stub).buscarUsdBrl())
+                    .isInstanceOf(ResourceAccessException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+        }
+    }
+
+    private AwesomeApiProvedor awesomeApi(ServidorStub stub) {
+        return new AwesomeApiProvedor(RestClient.builder(), stub.url(), CONNECT_TIMEOUT, READ_TIMEOUT);
+    }
+
+    private FrankfurterProvedor frankfurter(ServidorStub stub) {
+        return new FrankfurterProvedor(RestClient.builder(), stub.url(), CONNECT_TIMEOUT, READ_TIMEOUT);
+    }
+}
@@ -0,0 +1,72 @@
+package com.galli.tinnova.service.cotacao;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP local que responde um corpo fixo em um caminho, opcionalmente com atraso.
+ */
+public class ServidorStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final AtomicInteger chamadas = new AtomicInteger();
+
+    private ServidorStub(String caminho, int status, String corpo, Duration atraso) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(caminho, exchange -> {
+            chamadas.incrementAndGet();
+            try {
+                Thread.sleep(atraso.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (IOException e) {
+                // cliente desistiu por timeout
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    public static ServidorStub responder(String caminho, String corpo) throws IOException {
+        return new ServidorStub(caminho, 200, corpo, Duration.ZERO);
+    }
+
+    public static ServidorStub responderComAtraso(String caminho, String corpo, Duration atraso) throws IOException {
+        return new ServidorStub(caminho, 200, corpo, atraso);
+    }
+
+    public static ServidorStub responderStatus(String caminho, int status) throws IOException {
+        return new ServidorStub(caminho, status, "{}", Duration.ZERO);
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int chamadas() {
+        return chamadas.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -1,63 +1,242 @@
 package com.galli.tinnova.service.impl;
 
+import com.galli.tinnova.service.cotacao.AwesomeApiProvedor;
+import com.galli.tinnova.service.cotacao.FrankfurterProvedor;
+import com.galli.tinnova.service.cotacao.ProvedorCotacao;
+import com.galli.tinnova.service.cotacao.ServidorStub;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.web.client.RestClient;
 
 import java.math.BigDecimal;
-import java.util.Map;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DollarServiceImplTest {
 
+    private static final Duration ATRASO_HEDGE = Duration.ofMillis(100);
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(DollarServiceImpl.CACHE);
+
     @Test
-    void deveBuscarCotacaoNaAwesomeApi() {
-        RestClient restClient = mock(RestClient.class);
-        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
-        RestClient.ResponseSpec responseSpec = mock(RestClient.ResponseSpec.class);
+    void deveUsarProvedorPrincipalQuandoResponde() {
+        AtomicInteger chamadasSecundario = new AtomicInteger();
+
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> new BigDecimal("5.12")),
+                provedor("secundario", () -> {
+                    chamadasSecundario.incrementAndGet();
+                    return new BigDecimal("5.25");
+                })
+        );
+
+        assertEquals(new BigDecimal("5.12"), service.getUsdToBrl());
+        assertEquals(0, chamadasSecundario.get());
+    }
 
-        Map<String, Object> response = Map.of(
-                "USDBRL", Map.of("bid", "5.12")
+    @Test
+    void deveDispararSecundarioImediatamenteQuandoPrincipalFalha() {
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> {
+                    throw new IllegalStateException("fora");
+                }),
+                provedor("secundario", () -> new BigDecimal("5.25"))
         );
 
-        when(restClient.get()).thenReturn(uriSpec);
-        when(uriSpec.uri(anyString())).thenReturn(uriSpec);
-        when(uriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.body(Map.class)).thenReturn(response);
+        assertEquals(new BigDecimal("5.25"), service.getUsdToBrl());
+    }
 
-        DollarServiceImpl service = new DollarServiceImpl(builderQueRetorna(restClient));
+    @Test
+    void deveFazerHedgeQuandoPrincipalDemoraAlemDoAtraso() throws Exception {
+        try (ServidorStub awesome = ServidorStub.responderComAtraso("/json/last/USD-BRL",
+                "{\"USDBRL\":{\"bid\":\"5.12\"}}", Duration.ofSeconds(1));
+             ServidorStub frankfurter = ServidorStub.responder("/latest",
+                     "{\"rates\":{\"BRL\":5.25}}")) {
+
+            DollarServiceImpl service = servico(
+                    new AwesomeApiProvedor(RestClient.builder(), awesome.url(), Duration.ofSeconds(1), Duration.ofSeconds(2)),
+                    new FrankfurterProvedor(RestClient.builder(), frankfurter.url(), Duration.ofSeconds(1), Duration.ofSeconds(2))
+            );
+
+            long inicio = System.nanoTime();
+            BigDecimal cotacao = service.getUsdToBrl();
+            Duration tempo = Duration.ofNanos(System.nanoTime() - inicio);
+
+            assertEquals(0, new BigDecimal("5.25").compareTo(cotacao));
+            assertTrue(tempo.compareTo(Duration.ofMillis(800)) < 0, "hedge não disparou: " + tempo);
+            assertEquals(1, awesome.chamadas());
+            assertEquals(1, frankfurter.chamadas());
+        }
+    }
+
+    @Test
+    void devePularProvedorComCircuitoAberto() {
+        AtomicInteger chamadasPrincipal = new AtomicInteger();
+
+        DollarServiceImpl service = new DollarServiceImpl(
+                cacheManager,
+                List.of(
+                        provedor("principal", () -> {
+                            chamadasPrincipal.incrementAndGet();
+                            throw new IllegalStateException("fora");
+                        }),
+                        provedor("secundario", () -> new BigDecimal("5.25"))
+                ),
+                ATRASO_HEDGE, 2, Duration.ofMinutes(1)
+        );
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new BigDecimal("5.25"), service.atualizarUsdToBrl());
+        }
+
+        assertEquals(2, chamadasPrincipal.get());
+    }
 
-        BigDecimal result = service.getFromAwesomeApi();
+    @Test
+    void deveUsarUltimaCotacaoQuandoProvedoresFalham() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> {
+                    if (chamadas.incrementAndGet() == 1) {
+                        return new BigDecimal("5.12");
+                    }
+                    throw new IllegalStateException("fora");
+                }),
+                provedor("secundario", () -> {
+                    throw new IllegalStateException("fora");
+                })
+        );
 
-        assertEquals(new BigDecimal("5.12"), result);
+        assertEquals(new BigDecimal("5.12"), service.getUsdToBrl());
+        assertEquals(new BigDecimal("5.12"), service.getUsdToBrl());
     }
 
     @Test
-    void deveBuscarCotacaoNaFrankfurter() {
-        RestClient restClient = mock(RestClient.class);
-        RestClient.RequestHeadersUriSpec uriSpec = mock(RestClient.RequestHeadersUriSpec.class);
-        RestClient.ResponseSpec responseSpec = mock(RestClient.ResponseSpec.class);
+    void ultimaCotacaoNaoDeveFicarEmCache() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> switch (chamadas.incrementAndGet()) {
+                    case 1 -> new BigDecimal("5.12");
+                    case 2 -> throw new IllegalStateException("fora");
+                    default -> new BigDecimal("5.30");
+                })
+        );
+
+        assertEquals(new BigDecimal("5.12"), service.atualizarUsdToBrl());
+        cacheManager.getCache(DollarServiceImpl.CACHE).clear();
 
-        Map<String, Object> response = Map.of(
-                "rates", Map.of("BRL", new BigDecimal("5.25"))
+        assertEquals(new BigDecimal("5.12"), service.getUsdToBrl());
+        assertNull(cacheManager.getCache(DollarServiceImpl.CACHE).get(SimpleKey.EMPTY));
+        assertEquals(new BigDecimal("5.30"), service.getUsdToBrl());
+        assertEquals(new BigDecimal("5.30"), service.getUsdToBrl());
+        assertEquals(3, chamadas.get());
+    }
+
+    @Test
+    void devePropagarFalhaSemCotacaoAnterior() {
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> {
+                    throw new IllegalStateException("fora");
+                }),
+                provedor("secundario", () -> {
+                    throw new IllegalStateException("fora");
+                })
         );
 
-        when(restClient.get()).thenReturn(uriSpec);
-        when(uriSpec.uri(anyString())).thenReturn(uriSpec);
-        when(uriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.body(Map.class)).thenReturn(response);
+        assertThrows(IllegalStateException.class, service::getUsdToBrl);
+    }
 
-        DollarServiceImpl service = new DollarServiceImpl(builderQueRetorna(restClient));
+    @Test
+    void atualizacaoNaoDeveUsarCotacaoAnterior() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> {
+                    if (chamadas.incrementAndGet() == 1) {
+                        return new BigDecimal("5.12");
+                    }
+                    throw new IllegalStateException("fora");
+                })
+        );
+
+        assertEquals(new BigDecimal("5.12"), service.atualizarUsdToBrl());
+        assertThrows(IllegalStateException.class, service::atualizarUsdToBrl);
+    }
 
-        BigDecimal result = service.getFromFrankfurter();
+    @Test
+    void deveFazerUmaUnicaConsultaParaChamadasConcorrentes() throws Exception {
+        CountDownLatch consultaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarResposta = new CountDownLatch(1);
+        AtomicInteger chamadas = new AtomicInteger();
+
+        DollarServiceImpl service = servico(
+                provedor("principal", () -> {
+                    chamadas.incrementAndGet();
+                    consultaIniciada.countDown();
+                    try {
+                        liberarResposta.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new BigDecimal("5.12");
+                })
+        );
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<BigDecimal> primeira = executor.submit(service::getUsdToBrl);
+            consultaIniciada.await(5, TimeUnit.SECONDS);
+
+            List<Future<BigDecimal>> demais = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                demais.add(executor.submit(service::getUsdToBrl));
+            }
+            Thread.sleep(100);
+            liberarResposta.countDown();
+
+            assertEquals(new BigDecimal("5.12"), primeira.get(5, TimeUnit.SECONDS));
+            for (Future<BigDecimal> chamada : demais) {
+                assertEquals(new BigDecimal("5.12"), chamada.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, chamadas.get());
+    }
 
-        assertEquals(new BigDecimal("5.25"), result);
+    private DollarServiceImpl servico(ProvedorCotacao... provedores) {
+        return new DollarServiceImpl(cacheManager, List.of(provedores), ATRASO_HEDGE, 5, Duration.ofSeconds(30));
     }
 
-    private RestClient.Builder builderQueRetorna(RestClient restClient) {
-        RestClient.Builder builder = mock(RestClient.Builder.class);
-        when(builder.build()).thenReturn(restClient);
-        return builder;
+    private ProvedorCotacao provedor(String nome, Supplier<BigDecimal> cotacao) {
+        return new ProvedorCotacao() {
+            @Override
+            public String nome() {
+                return nome;
+            }
+
+            @Override
+            public BigDecimal buscarUsdBrl() {
+                return cotacao.get();
+            }
+        };
     }
 }
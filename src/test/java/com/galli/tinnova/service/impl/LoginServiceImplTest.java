@@ -0,0 +1,213 @@
+package com.galli.tinnova.service.impl;
+
+import com.galli.tinnova.config.security.JwtService;
+import com.galli.tinnova.config.security.RevogacaoTokenService;
+import com.galli.tinnova.dto.response.TokensResponse;
+import com.galli.tinnova.exception.ServiceUnavailableException;
+import com.galli.tinnova.exception.TooManyRequestsException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class LoginServiceImplTest {
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final RevogacaoTokenService revogacaoTokenService = mock(RevogacaoTokenService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.encerrar();
+        }
+    }
+
+    @Test
+    void deveAutenticarEGerarToken() {
+        service = servico(1, 10, 5, 20);
+        autenticacaoComRole("USER");
+        when(jwtService.gerarToken("user1", "USER")).thenReturn("jwt");
+        when(jwtService.gerarRefreshToken("user1", "USER")).thenReturn("refresh");
+
+        TokensResponse tokens = service.login("user1", "1234", "10.0.0.1").join();
+
+        assertThat(tokens).isEqualTo(new TokensResponse("jwt", "refresh"));
+        assertThat(Thread.currentThread().getName()).doesNotStartWith("login-");
+        assertThat(meterRegistry.get("auth.login.hash").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void devePropagarCredenciaisInvalidasNoFuturo() {
+        service = servico(1, 10, 5, 20);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("inválidas"));
+
+        CompletableFuture<TokensResponse> login = service.login("user1", "errada", "10.0.0.1");
+
+        assertThatThrownBy(login::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void deveLimitarTentativasPorUsuario() {
+        service = servico(1, 10, 2, 100);
+        autenticacaoComRole("USER");
+
+        service.login("user1", "1234", "10.0.0.1").join();
+        service.login("USER1", "1234", "10.0.0.2").join();
+
+        assertThatThrownBy(() -> service.login("user1", "1234", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> service.login("user2", "1234", "10.0.0.3").join()).doesNotThrowAnyException();
+        assertThat(rejeitados("limite-usuario")).isEqualTo(1);
+    }
+
+    @Test
+    void deveLimitarTentativasPorIp() {
+        service = servico(1, 10, 100, 2);
+        autenticacaoComRole("USER");
+
+        service.login("user1", "1234", "10.0.0.1").join();
+        service.login("user2", "1234", "10.0.0.1").join();
+
+        assertThatThrownBy(() -> service.login("user3", "1234", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(rejeitados("limite-ip")).isEqualTo(1);
+    }
+
+    @Test
+    void deveRecusarQuandoFilaEstaCheia() throws Exception {
+        service = servico(1, 1, 100, 100);
+        CountDownLatch autenticando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            autenticando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return autenticado("USER");
+        });
+
+        CompletableFuture<TokensResponse> emExecucao = service.login("user1", "1234", "10.0.0.1");
+        autenticando.await(5, TimeUnit.SECONDS);
+        CompletableFuture<TokensResponse> naFila = service.login("user2", "1234", "10.0.0.2");
+
+        assertThat(meterRegistry.get("auth.login.fila").gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> service.login("user3", "1234", "10.0.0.3"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(rejeitados("fila-cheia")).isEqualTo(1);
+
+        liberar.countDown();
+        emExecucao.get(5, TimeUnit.SECONDS);
+        naFila.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void deveRotacionarRefreshToken() {
+        service = servico(1, 10, 5, 20);
+        JwtService.DadosToken refresh = dadosRefresh("jti-1");
+        when(jwtService.parse("refresh-antigo")).thenReturn(refresh);
+        when(revogacaoTokenService.revogar("jti-1", refresh.expiraEm())).thenReturn(true);
+        when(jwtService.gerarToken("user1", "USER")).thenReturn("jwt-novo");
+        when(jwtService.gerarRefreshToken("user1", "USER")).thenReturn("refresh-novo");
+
+        TokensResponse tokens = service.renovar("refresh-antigo");
+
+        assertThat(tokens).isEqualTo(new TokensResponse("jwt-novo", "refresh-novo"));
+        verify(revogacaoTokenService).revogar("jti-1", refresh.expiraEm());
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void deveRecusarRefreshTokenReutilizado() {
+        service = servico(1, 10, 5, 20);
+        JwtService.DadosToken refresh = dadosRefresh("jti-1");
+        when(jwtService.parse("refresh")).thenReturn(refresh);
+        when(revogacaoTokenService.revogar("jti-1", refresh.expiraEm())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.renovar("refresh")).isInstanceOf(BadCredentialsException.class);
+        verify(jwtService, never()).gerarRefreshToken(any(), any());
+    }
+
+    @Test
+    void naoDeveRenovarComAccessToken() {
+        service = servico(1, 10, 5, 20);
+        when(jwtService.parse("jwt")).thenReturn(
+                new JwtService.DadosToken("jti-1", "user1", "USER", "access", System.currentTimeMillis() + 60_000));
+
+        assertThatThrownBy(() -> service.renovar("jwt")).isInstanceOf(BadCredentialsException.class);
+        verify(revogacaoTokenService, never()).revogar(any(), anyLong());
+    }
+
+    @Test
+    void naoDeveRenovarComTokenInvalido() {
+        service = servico(1, 10, 5, 20);
+        when(jwtService.parse("lixo")).thenThrow(new MalformedJwtException("inválido"));
+
+        assertThatThrownBy(() -> service.renovar("lixo")).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void logoutDeveRevogarRefreshEAccessToken() {
+        service = servico(1, 10, 5, 20);
+        JwtService.DadosToken refresh = dadosRefresh("jti-refresh");
+        JwtService.DadosToken acesso =
+                new JwtService.DadosToken("jti-acesso", "user1", "USER", "access", System.currentTimeMillis() + 60_000);
+        when(jwtService.parse("refresh")).thenReturn(refresh);
+        when(jwtService.parse("jwt")).thenReturn(acesso);
+
+        service.logout("refresh", "jwt");
+
+        verify(revogacaoTokenService).revogar("jti-refresh", refresh.expiraEm());
+        verify(revogacaoTokenService).revogar("jti-acesso", acesso.expiraEm());
+    }
+
+    private JwtService.DadosToken dadosRefresh(String jti) {
+        return new JwtService.DadosToken(jti, "user1", "USER", "refresh", System.currentTimeMillis() + 60_000);
+    }
+
+    private LoginServiceImpl servico(int threads, int fila, long capacidadeUsuario, long capacidadeIp) {
+        return new LoginServiceImpl(
+                authenticationManager, jwtService, revogacaoTokenService, meterRegistry,
+                threads, fila,
+                capacidadeUsuario, Duration.ofMinutes(1),
+                capacidadeIp, Duration.ofMinutes(1)
+        );
+    }
+
+    private void autenticacaoComRole(String role) {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(autenticado(role));
+    }
+
+    private Authentication autenticado(String role) {
+        return UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    private double rejeitados(String motivo) {
+        return meterRegistry.get("auth.login.rejeitados").tag("motivo", motivo).counter().count();
+    }
+}
@@ -0,0 +1,332 @@
+package com.galli.tinnova.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.galli.tinnova.dto.request.SelecaoVeiculosRequest;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse;
+import com.galli.tinnova.dto.response.ResultadoImportacaoResponse.Status;
+import com.galli.tinnova.entity.Veiculo;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.VeiculoAlvo;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.service.DollarService;
+import com.galli.tinnova.service.VeiculoLoteService.Formato;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.ContagemPorMarca;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VeiculoLoteServiceImplTest {
+
+    @Mock
+    private VeiculoRepository repository;
+
+    @Mock
+    private DollarService dollarService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ContagemPorMarca contagemPorMarca;
+
+    @Mock
+    private EstatisticasVeiculos estatisticasVeiculos;
+
+    @Mock
+    private CacheVeiculos cacheVeiculos;
+
+    @Mock
+    private CacheListagemVeiculos cacheListagem;
+
+    private VeiculoLoteServiceImpl service;
+
+    private final List<ResultadoImportacaoResponse> resultados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new VeiculoLoteServiceImpl(
+                repository,
+                dollarService,
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionTemplate,
+                entityManager,
+                contagemPorMarca,
+                estatisticasVeiculos,
+                cacheVeiculos,
+                cacheListagem,
+                2
+        );
+
+        lenient().when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        AtomicLong ids = new AtomicLong();
+        lenient().when(repository.saveAll(anyCollection())).thenAnswer(inv -> {
+            Collection<Veiculo> veiculos = inv.getArgument(0);
+            veiculos.forEach(v -> v.setId(ids.incrementAndGet()));
+            return List.copyOf(veiculos);
+        });
+    }
+
+    @Test
+    void deveImportarNdjsonEmBlocosComUmaCotacaoPorImportacao() throws Exception {
+        when(repository.buscarPlacasExistentes(anyCollection())).thenReturn(Set.of());
+
+        importar(Formato.NDJSON, """
+                {"marca":"Ford","modelo":"Ka","ano":2020,"cor":"Preto","placa":"AAA0001","precoBrl":50000}
+                {"marca":"GM","modelo":"Onix","ano":2021,"cor":"Branco","placa":"AAA0002","precoBrl":60000}
+
+                {"marca":"VW","modelo":"Gol","ano":2019,"cor":"Prata","placa":"AAA0003","precoBrl":40000}
+                """);
+
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::status)
+                .containsExactly(Status.CRIADO, Status.CRIADO, Status.CRIADO);
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::linha)
+                .containsExactly(1L, 2L, 4L);
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::id)
+                .doesNotContainNull();
+
+        verify(dollarService, times(1)).getUsdToBrl();
+        verify(repository, times(2)).buscarPlacasExistentes(anyCollection());
+        verify(repository, times(2)).saveAll(anyCollection());
+        verify(contagemPorMarca).registrar("Ford", 1L);
+        verify(contagemPorMarca).registrar("GM", 1L);
+        verify(contagemPorMarca).registrar("VW", 1L);
+        verify(cacheListagem).invalidar(List.of(
+                new ClassificacaoVeiculo("Ford", 2020, "Preto"),
+                new ClassificacaoVeiculo("GM", 2021, "Branco")
+        ));
+        verify(cacheListagem).invalidar(List.of(new ClassificacaoVeiculo("VW", 2019, "Prata")));
+        verify(estatisticasVeiculos, times(2)).invalidar();
+    }
+
+    @Test
+    void deveConverterPrecoParaDolar() throws Exception {
+        when(repository.buscarPlacasExistentes(anyCollection())).thenReturn(Set.of());
+        List<Veiculo> salvos = new ArrayList<>();
+        when(repository.saveAll(anyCollection())).thenAnswer(inv -> {
+            salvos.addAll(inv.getArgument(0));
+            return salvos;
+        });
+
+        importar(Formato.CSV, """
+                marca,modelo,ano,cor,placa,precoBrl
+                Ford,Ka,2020,Preto,AAA0001,50000
+                """);
+
+        assertThat(salvos).hasSize(1);
+        assertThat(salvos.get(0).getPrecoUsd()).isEqualByComparingTo("10000.00");
+        assertThat(salvos.get(0).getAtivo()).isTrue();
+    }
+
+    @Test
+    void deveReportarLinhasInvalidasSemInterromperImportacao() throws Exception {
+        when(repository.buscarPlacasExistentes(anyCollection())).thenReturn(Set.of());
+
+        importar(Formato.CSV, """
+                marca,modelo,ano,cor,placa,precoBrl
+                Ford,Ka,dois mil,Preto,AAA0001,50000
+                Ford,,2020,Preto,AAA0002,50000
+                Ford,Ka,2020,Preto,AAA0003,-1
+                GM,Onix,2021,Branco,AAA0004,60000
+                """);
+
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::status)
+                .containsExactly(Status.INVALIDO, Status.INVALIDO, Status.INVALIDO, Status.CRIADO);
+        assertThat(resultados.get(1).mensagem()).contains("modelo");
+        assertThat(resultados.get(2).mensagem()).contains("precoBrl");
+        assertThat(resultados.get(3).linha()).isEqualTo(5L);
+    }
+
+    @Test
+    void deveMarcarConflitoParaPlacasExistentesOuRepetidas() throws Exception {
+        when(repository.buscarPlacasExistentes(anyCollection())).thenReturn(Set.of("AAA0001"));
+
+        importar(Formato.CSV, """
+                marca,modelo,ano,cor,placa,precoBrl
+                GM,Onix,2021,Branco,AAA0002,60000
+                GM,Onix,2021,Branco,AAA0002,60000
+                Ford,Ka,2020,Preto,AAA0001,50000
+                """);
+
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::status)
+                .containsExactly(Status.CRIADO, Status.CONFLITO, Status.CONFLITO);
+    }
+
+    @Test
+    void falhaAoGravarBlocoDeveMarcarLinhasComoErro() throws Exception {
+        when(repository.buscarPlacasExistentes(anyCollection())).thenReturn(Set.of());
+        when(repository.saveAll(anyCollection()))
+                .thenThrow(new DataIntegrityViolationException("placa duplicada"));
+
+        importar(Formato.CSV, """
+                marca,modelo,ano,cor,placa,precoBrl
+                Ford,Ka,2020,Preto,AAA0001,50000
+                """);
+
+        assertThat(resultados).extracting(ResultadoImportacaoResponse::status)
+                .containsExactly(Status.ERRO);
+    }
+
+    @Test
+    void deveExportarNdjsonUmVeiculoPorLinha() throws Exception {
+        when(repository.streamAtivos()).thenReturn(Stream.of(veiculo(1L, "AAA0001"), veiculo(2L, "AAA0002")));
+
+        String saida = exportar(Formato.NDJSON);
+
+        assertThat(saida.lines()).containsExactly(
+                "{\"id\":1,\"marca\":\"Ford\",\"modelo\":\"Ka\",\"ano\":2020,\"cor\":\"Preto\",\"placa\":\"AAA0001\",\"precoUsd\":10000.00}",
+                "{\"id\":2,\"marca\":\"Ford\",\"modelo\":\"Ka\",\"ano\":2020,\"cor\":\"Preto\",\"placa\":\"AAA0002\",\"precoUsd\":10000.00}"
+        );
+        verify(entityManager, times(2)).detach(any(Veiculo.class));
+    }
+
+    @Test
+    void deveExportarCsvComCabecalho() throws Exception {
+        when(repository.streamAtivos()).thenReturn(Stream.of(veiculo(1L, "AAA0001")));
+
+        String saida = exportar(Formato.CSV);
+
+        assertThat(saida.lines()).containsExactly(
+                "id,marca,modelo,ano,cor,placa,precoUsd",
+                "1,Ford,Ka,2020,Preto,AAA0001,10000.00"
+        );
+    }
+
+    @Test
+    void remocaoEmMassaPorIdsDeveUsarUmUpdatePorBloco() {
+        when(repository.buscarAlvos(any(), isNull(), eq(2)))
+                .thenReturn(List.of(alvo(1L, "Ford"), alvo(2L, "GM")))
+                .thenReturn(List.of(alvo(3L, "Ford")));
+        when(repository.desativarTodos(List.of(1L, 2L))).thenReturn(2);
+        when(repository.desativarTodos(List.of(3L))).thenReturn(1);
+
+        long removidos = service.removerEmMassa(selecaoPorIds(1L, 2L, 2L, 3L));
+
+        assertThat(removidos).isEqualTo(3);
+        verify(repository, times(2)).buscarAlvos(any(), isNull(), eq(2));
+        verify(contagemPorMarca, times(2)).registrar("Ford", -1);
+        verify(contagemPorMarca).registrar("GM", -1);
+        verify(contagemPorMarca, never()).reconciliar();
+        verify(cacheVeiculos).invalidar(List.of(1L, 2L));
+        verify(cacheVeiculos).invalidar(List.of(3L));
+        verify(cacheListagem).invalidar(List.of(
+                new ClassificacaoVeiculo("Ford", 2020, "Preto"),
+                new ClassificacaoVeiculo("GM", 2020, "Preto")
+        ));
+        verify(cacheListagem).invalidar(List.of(new ClassificacaoVeiculo("Ford", 2020, "Preto")));
+        verify(estatisticasVeiculos, times(2)).invalidar();
+    }
+
+    @Test
+    void remocaoEmMassaComAlvoRemovidoNoMeioDeveReconciliarContagem() {
+        when(repository.buscarAlvos(any(), isNull(), anyInt()))
+                .thenReturn(List.of(alvo(1L, "Ford"), alvo(2L, "GM")));
+        when(repository.desativarTodos(List.of(1L, 2L))).thenReturn(1);
+
+        assertThat(service.removerEmMassa(selecaoPorIds(1L, 2L))).isEqualTo(1);
+
+        verify(contagemPorMarca, never()).registrar(any(), anyLong());
+        verify(contagemPorMarca).reconciliar();
+    }
+
+    @Test
+    void reajustePorFiltroDeveAvancarPeloUltimoIdDeCadaBloco() {
+        when(repository.buscarAlvos(any(), isNull(), eq(2)))
+                .thenReturn(List.of(alvo(4L, "Ford"), alvo(7L, "Ford")));
+        when(repository.buscarAlvos(any(), eq(7L), eq(2)))
+                .thenReturn(List.of(alvo(9L, "Ford")));
+        when(repository.reajustarPrecos(anyCollection(), any())).thenAnswer(inv -> inv.<Collection<?>>getArgument(0).size());
+
+        long reajustados = service.reajustarPreco(
+                new SelecaoVeiculosRequest(null, "Ford", null, null, null, null),
+                new BigDecimal("-12.5")
+        );
+
+        assertThat(reajustados).isEqualTo(3);
+        verify(repository).reajustarPrecos(List.of(4L, 7L), new BigDecimal("0.875"));
+        verify(repository).reajustarPrecos(List.of(9L), new BigDecimal("0.875"));
+        verify(repository, never()).buscarAlvos(any(), eq(9L), anyInt());
+        verifyNoInteractions(contagemPorMarca);
+    }
+
+    @Test
+    void alteracaoEmMassaSemCriterioDeveFalhar() {
+        assertThatThrownBy(() -> service.removerEmMassa(
+                new SelecaoVeiculosRequest(List.of(), null, null, null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+
+    private static VeiculoAlvo alvo(Long id, String marca) {
+        return new VeiculoAlvo(id, marca, 2020, "Preto");
+    }
+
+    private SelecaoVeiculosRequest selecaoPorIds(Long... ids) {
+        return new SelecaoVeiculosRequest(List.of(ids), null, null, null, null, null);
+    }
+
+    private String exportar(Formato formato) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.exportar(formato, saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    private Veiculo veiculo(Long id, String placa) {
+        return Veiculo.builder()
+                .id(id)
+                .marca("Ford")
+                .modelo("Ka")
+                .ano(2020)
+                .cor("Preto")
+                .placa(placa)
+                .precoUsd(new BigDecimal("10000.00"))
+                .ativo(true)
+                .build();
+    }
+
+    private void importar(Formato formato, String conteudo) throws Exception {
+        service.importar(
+                new BufferedReader(new StringReader(conteudo)),
+                formato,
+                resultados::add
+        );
+    }
+}
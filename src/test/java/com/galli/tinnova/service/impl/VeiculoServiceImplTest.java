@@ -1,13 +1,24 @@
 package com.galli.tinnova.service.impl;
 
+import com.galli.tinnova.dto.response.EstatisticaPrecoResponse;
 import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
 import com.galli.tinnova.dto.response.VeiculoResponse;
 import com.galli.tinnova.entity.Veiculo;
 import com.galli.tinnova.exception.ConflictException;
 import com.galli.tinnova.exception.NotFoundException;
+import com.galli.tinnova.exception.PreconditionFailedException;
+import com.galli.tinnova.mapper.VeiculoMapper;
+import com.galli.tinnova.repository.ClassificacaoVeiculo;
+import com.galli.tinnova.repository.EstatisticaPreco;
 import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.repository.VeiculoResumo;
 import com.galli.tinnova.service.DollarService;
 import com.galli.tinnova.service.VeiculoService;
+import com.galli.tinnova.service.cache.CacheListagemVeiculos;
+import com.galli.tinnova.service.cache.CacheVeiculos;
+import com.galli.tinnova.service.relatorio.ContagemPorMarca;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos.Agrupamento;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,11 +27,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +49,18 @@ class VeiculoServiceImplTest {
     @Mock
     private DollarService dollarService;
 
+    @Mock
+    private ContagemPorMarca contagemPorMarca;
+
+    @Mock
+    private EstatisticasVeiculos estatisticasVeiculos;
+
+    @Mock
+    private CacheVeiculos cacheVeiculos;
+
+    @Mock
+    private CacheListagemVeiculos cacheListagem;
+
     @InjectMocks
     private VeiculoServiceImpl service;
 
@@ -48,9 +74,17 @@ class VeiculoServiceImplTest {
                 .placa("ABC1D23")
                 .precoUsd(BigDecimal.valueOf(10000))
                 .ativo(true)
+                .versao(3L)
                 .build();
     }
 
+    // listagem sem cache: executa a consulta passada pelo serviço
+    private void listagemSemCache() {
+        when(cacheListagem.buscar(any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<Page<Veiculo>>>getArgument(6).get()
+                        .map(VeiculoMapper::toResumo));
+    }
+
     @Test
     void deveCriarVeiculoComSucesso() {
         when(repository.existsByPlaca(any())).thenReturn(false);
@@ -61,10 +95,13 @@ class VeiculoServiceImplTest {
 
         assertThat(salvo).isNotNull();
         assertThat(salvo.getAtivo()).isTrue();
+        verify(contagemPorMarca).registrar("Ford", 1);
+        verify(cacheListagem).invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
     }
 
     @Test
     void deveListarComFiltros() {
+        listagemSemCache();
         when(repository.filtrar(
                 any(),
                 any(),
@@ -86,6 +123,21 @@ class VeiculoServiceImplTest {
         assertThat(page.getContent()).hasSize(1);
     }
 
+    @Test
+    void listagemEmCacheNaoDeveConsultarOBanco() {
+        VeiculoResumo resumo = new VeiculoResumo(
+                1L, "Ford", "Ka", 2020, "Preto", "ABC1D23", new BigDecimal("10000"), 3L);
+        Pageable pageable = Pageable.ofSize(20);
+        when(cacheListagem.buscar(eq("Ford"), isNull(), isNull(), isNull(), isNull(), eq(pageable), any()))
+                .thenReturn(new PageImpl<>(List.of(resumo), pageable, 1));
+
+        Page<VeiculoResponse> page = service.listar("Ford", null, null, null, null, pageable);
+
+        assertThat(page.getContent()).extracting(VeiculoResponse::placa).containsExactly("ABC1D23");
+        assertThat(page.getContent().get(0).precoBrl()).isNull();
+        verifyNoInteractions(repository);
+    }
+
 
     @Test
     void deveFalharAoAtualizarComPlacaDuplicada() {
@@ -98,37 +150,147 @@ class VeiculoServiceImplTest {
         when(repository.existsByPlaca("XYZ9Z99"))
                 .thenReturn(true);
 
-        assertThatThrownBy(() -> service.atualizar(1L, novo))
+        assertThatThrownBy(() -> service.atualizar(1L, novo, null))
                 .isInstanceOf(ConflictException.class);
     }
 
     @Test
-    void deveAtualizarParcialmente() {
+    void deveAtualizarParcialmenteComUmUpdateSemCarregarAntes() {
+        Veiculo atualizado = veiculo();
+        atualizado.setModelo("Fiesta");
+
+        when(repository.atualizarCampos(1L, Map.of("modelo", "Fiesta"), null)).thenReturn(1);
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(atualizado));
+
+        Veiculo resultado = service.atualizarParcial(
+                1L,
+                Map.of("modelo", "Fiesta"),
+                null
+        );
+
+        assertThat(resultado.getModelo()).isEqualTo("Fiesta");
+        verify(repository, never()).save(any());
+        verify(repository, never()).buscarClassificacao(any());
+        verify(cacheVeiculos).invalidar(1L);
+        verify(estatisticasVeiculos).invalidar();
+        verify(cacheListagem).invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
+        verifyNoInteractions(contagemPorMarca);
+    }
+
+    @Test
+    void atualizacaoParcialDeAnoOuCorDeveCarregarESalvar() {
         Veiculo existente = veiculo();
 
-        when(repository.findByIdAndAtivoTrue(1L))
-                .thenReturn(Optional.of(existente));
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(existente));
         when(repository.save(any())).thenReturn(existente);
 
-        Veiculo atualizado = service.atualizarParcial(
-                1L,
-                Map.of("cor", "Azul")
+        service.atualizarParcial(1L, Map.of("cor", "Azul"), null);
+
+        // a classificação anterior vem da entidade carregada, protegida pela versão no UPDATE
+        verify(repository, never()).atualizarCampos(any(), any(), any());
+        verify(repository, never()).buscarClassificacao(any());
+        verify(cacheListagem).invalidar(
+                new ClassificacaoVeiculo("Ford", 2020, "Preto"),
+                new ClassificacaoVeiculo("Ford", 2020, "Azul")
         );
+    }
+
+    @Test
+    void atualizacaoParcialDeveConverterTiposEPrecoBrl() {
+        when(repository.atualizarCampos(eq(1L), anyMap(), isNull())).thenReturn(1);
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(veiculo()));
+        when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
 
-        assertThat(atualizado.getCor()).isEqualTo("Azul");
+        service.atualizarParcial(1L, Map.of("modelo", "Ka", "precoBrl", 60000.0), null);
+
+        verify(repository).atualizarCampos(1L, Map.of("modelo", "Ka", "precoUsd", new BigDecimal("12000.00")), null);
     }
 
     @Test
-    void deveFazerSoftDelete() {
+    void atualizacaoParcialDeMarcaDeveCarregarESalvar() {
         Veiculo existente = veiculo();
 
-        when(repository.findByIdAndAtivoTrue(1L))
-                .thenReturn(Optional.of(existente));
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(existente));
+        when(repository.save(any())).thenReturn(existente);
 
-        service.remover(1L);
+        Veiculo atualizado = service.atualizarParcial(1L, Map.of("marca", "GM"), null);
 
-        assertThat(existente.getAtivo()).isFalse();
-        verify(repository).save(existente);
+        assertThat(atualizado.getMarca()).isEqualTo("GM");
+        verify(repository, never()).atualizarCampos(any(), any(), any());
+        verify(contagemPorMarca).trocarMarca("Ford", "GM");
+        verify(cacheListagem).invalidar(
+                new ClassificacaoVeiculo("Ford", 2020, "Preto"),
+                new ClassificacaoVeiculo("GM", 2020, "Preto")
+        );
+    }
+
+    @Test
+    void atualizacaoParcialComPlacaDeOutroVeiculoDeveFalhar() {
+        Veiculo existente = veiculo();
+
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(existente));
+        when(repository.existsByPlaca("XYZ9999")).thenReturn(true);
+
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("placa", "XYZ9999"), null))
+                .isInstanceOf(ConflictException.class);
+        assertThat(existente.getPlaca()).isEqualTo("ABC1D23");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void atualizacaoComVersaoDesatualizadaDeveFalharSemSalvar() {
+        when(repository.findByIdAndAtivoTrue(1L)).thenReturn(Optional.of(veiculo()));
+
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("marca", "GM"), Set.of(2L)))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void updateDiretoSemRegistroAfetadoDeveVirar412ComIfMatchE404Sem() {
+        when(repository.atualizarCampos(eq(1L), anyMap(), any())).thenReturn(0);
+        when(repository.desativarNasVersoes(1L, Set.of(2L))).thenReturn(0);
+        when(repository.desativar(1L)).thenReturn(0);
+        when(repository.existsByIdAndAtivoTrue(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("modelo", "Ka"), Set.of(2L)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> service.remover(1L, Set.of(2L)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("modelo", "Ka"), null))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> service.remover(1L, null))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(estatisticasVeiculos, contagemPorMarca, cacheVeiculos, cacheListagem);
+    }
+
+    @Test
+    void escritaConcorrenteDeveVirar412ComIfMatchE409Sem() {
+        when(repository.findByIdAndAtivoTrue(1L)).thenAnswer(inv -> Optional.of(veiculo()));
+        when(repository.save(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Veiculo.class, 1L));
+
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("marca", "GM"), Set.of(3L)))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> service.atualizarParcial(1L, Map.of("marca", "GM"), null))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(estatisticasVeiculos);
+    }
+
+    @Test
+    void deveFazerSoftDeleteComUmUpdate() {
+        when(repository.desativar(1L)).thenReturn(1);
+        when(repository.buscarClassificacao(1L))
+                .thenReturn(Optional.of(new ClassificacaoVeiculo("Ford", 2020, "Preto")));
+
+        service.remover(1L, null);
+
+        verify(repository, never()).findByIdAndAtivoTrue(any());
+        verify(repository, never()).save(any());
+        verify(cacheVeiculos).invalidar(1L);
+        verify(contagemPorMarca).registrar("Ford", -1);
+        verify(cacheListagem).invalidar(new ClassificacaoVeiculo("Ford", 2020, "Preto"));
+        verify(estatisticasVeiculos).invalidar();
     }
 
     @Test
@@ -144,16 +306,11 @@ class VeiculoServiceImplTest {
     void deveDetalharVeiculoComPrecoConvertidoParaReais() {
         Long id = 1L;
 
-        Veiculo veiculo = Veiculo.builder()
-                .id(id)
-                .marca("Toyota")
-                .modelo("Corolla")
-                .precoUsd(new BigDecimal("10000"))
-                .ativo(true)
-                .build();
+        VeiculoResumo veiculo = new VeiculoResumo(
+                id, "Toyota", "Corolla", 2022, "Prata", "ABC1234", new BigDecimal("10000"), 2L);
 
-        when(repository.findByIdAndAtivoTrue(id))
-                .thenReturn(Optional.of(veiculo));
+        when(cacheVeiculos.buscar(id))
+                .thenReturn(veiculo);
 
         when(dollarService.getUsdToBrl())
                 .thenReturn(new BigDecimal("5.00"));
@@ -164,8 +321,10 @@ class VeiculoServiceImplTest {
         assertEquals("Toyota", response.marca());
         assertEquals("Corolla", response.modelo());
         assertEquals(new BigDecimal("50000.00"), response.precoBrl());
+        assertEquals(2L, response.versao());
 
-        verify(repository).findByIdAndAtivoTrue(id);
+        verify(cacheVeiculos).buscar(id);
+        verifyNoInteractions(repository);
         verify(dollarService).getUsdToBrl();
     }
 
@@ -173,8 +332,8 @@ class VeiculoServiceImplTest {
     void deveLancarExcecaoQuandoVeiculoNaoEncontrado() {
         Long id = 99L;
 
-        when(repository.findByIdAndAtivoTrue(id))
-                .thenReturn(Optional.empty());
+        when(cacheVeiculos.buscar(id))
+                .thenThrow(new NotFoundException("Veículo não encontrado"));
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -182,7 +341,6 @@ class VeiculoServiceImplTest {
         );
 
         assertEquals("Veículo não encontrado", exception.getMessage());
-        verify(repository).findByIdAndAtivoTrue(id);
         verifyNoInteractions(dollarService);
     }
 
@@ -193,7 +351,7 @@ class VeiculoServiceImplTest {
                 new VeiculoPorMarcaResponse("Honda", 2L)
         );
 
-        when(repository.relatorioPorMarca()).thenReturn(relatorio);
+        when(contagemPorMarca.relatorio()).thenReturn(relatorio);
 
         List<VeiculoPorMarcaResponse> response = service.relatorioPorMarca();
 
@@ -202,7 +360,31 @@ class VeiculoServiceImplTest {
         assertEquals("Toyota", response.get(0).marca());
         assertEquals(3L, response.get(0).quantidade());
 
-        verify(repository).relatorioPorMarca();
+        verify(repository, never()).relatorioPorMarca();
+    }
+
+    @Test
+    void deveCalcularEstatisticasEmUsdEBrl() {
+        when(estatisticasVeiculos.calcular(Agrupamento.ANO)).thenReturn(List.of(
+                new EstatisticaPreco("2020", 3L, new BigDecimal("1000.00"), new BigDecimal("3000.00"), new BigDecimal("5000.00"))
+        ));
+        when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
+
+        List<EstatisticaPrecoResponse> response = service.estatisticas("ano");
+
+        assertThat(response).containsExactly(new EstatisticaPrecoResponse(
+                "2020", 3L,
+                new BigDecimal("1000.00"), new BigDecimal("3000.00"), new BigDecimal("1666.67"),
+                new BigDecimal("5000.00"), new BigDecimal("15000.00"), new BigDecimal("8333.33")
+        ));
+    }
+
+    @Test
+    void estatisticasComAgrupamentoInvalidoDevemFalhar() {
+        assertThatThrownBy(() -> service.estatisticas("modelo"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("modelo");
+        verifyNoInteractions(estatisticasVeiculos);
     }
 
     @Test
@@ -236,7 +418,7 @@ class VeiculoServiceImplTest {
         when(dollarService.getUsdToBrl()).thenReturn(new BigDecimal("5.00"));
 
 
-        Veiculo resultado = spyService.atualizar(id, atualizado);
+        Veiculo resultado = spyService.atualizar(id, atualizado, null);
 
         assertNotNull(resultado);
         assertEquals("Toyota", resultado.getMarca());
@@ -246,6 +428,12 @@ class VeiculoServiceImplTest {
         assertEquals("XYZ-9999", resultado.getPlaca());
 
         verify(repository).save(existente);
+        verify(cacheVeiculos).invalidar(id);
+        verify(contagemPorMarca).trocarMarca("Ford", "Toyota");
+        verify(cacheListagem).invalidar(
+                new ClassificacaoVeiculo("Ford", 2019, "Branco"),
+                new ClassificacaoVeiculo("Toyota", 2022, "Preto")
+        );
     }
 
     @Test
@@ -272,6 +460,7 @@ class VeiculoServiceImplTest {
         Veiculo veiculo = Veiculo.builder().marca("Toyota").ano(2022).build();
         Page<Veiculo> pageMock = new PageImpl<>(List.of(veiculo));
 
+        listagemSemCache();
         when(repository.filtrar(any(), any(), any(), any(), any(), any()))
                 .thenReturn(pageMock);
 
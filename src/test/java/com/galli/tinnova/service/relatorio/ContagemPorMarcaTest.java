@@ -0,0 +1,176 @@
+package com.galli.tinnova.service.relatorio;
+
+import com.galli.tinnova.dto.response.VeiculoPorMarcaResponse;
+import com.galli.tinnova.repository.VeiculoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContagemPorMarcaTest {
+
+    private final VeiculoRepository repository = mock(VeiculoRepository.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ContagemPorMarca contagem;
+
+    @BeforeEach
+    void setUp() {
+        contagem = new ContagemPorMarca(repository, redisTemplate, meterRegistry);
+        when(repository.relatorioPorMarca()).thenReturn(List.of(
+                new VeiculoPorMarcaResponse("Ford", 2L),
+                new VeiculoPorMarcaResponse("Fiat", 1L)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void primeiraLeituraDeveCarregarDoBancoEAsSeguintesNao() {
+        assertThat(contagem.relatorio()).containsExactly(
+                new VeiculoPorMarcaResponse("Fiat", 1L),
+                new VeiculoPorMarcaResponse("Ford", 2L)
+        );
+        contagem.relatorio();
+
+        verify(repository, times(1)).relatorioPorMarca();
+    }
+
+    @Test
+    void deveManterContagemIncrementalmente() {
+        contagem.relatorio();
+
+        contagem.registrar("Ford", 1);
+        contagem.registrar("VW", 1);
+        contagem.trocarMarca("Fiat", "VW");
+        contagem.trocarMarca("Ford", "Ford");
+
+        assertThat(contagem.relatorio()).containsExactly(
+                new VeiculoPorMarcaResponse("Ford", 3L),
+                new VeiculoPorMarcaResponse("VW", 2L)
+        );
+        verify(repository, times(1)).relatorioPorMarca();
+    }
+
+    @Test
+    void devePublicarVariacaoParaOsOutrosNos() {
+        contagem.relatorio();
+
+        contagem.registrar("Ford", -1);
+
+        verify(redisTemplate).convertAndSend(eq(ContagemPorMarca.CANAL_CONTAGEM), anyString());
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 1L));
+    }
+
+    @Test
+    void deveAplicarVariacaoDeOutroNo() {
+        contagem.relatorio();
+
+        contagem.onMessage(mensagem("outro-no|5|Chevrolet"), null);
+
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Chevrolet", 5L));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void dentroDeTransacaoSoAplicaAposCommit() {
+        contagem.relatorio();
+        TransactionSynchronizationManager.initSynchronization();
+
+        contagem.registrar("Ford", 1);
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 2L));
+
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 3L));
+    }
+
+    @Test
+    void reconciliacaoDeveCorrigirDivergencias() {
+        contagem.relatorio();
+        contagem.onMessage(mensagem("outro-no|1|Ford"), null);
+
+        int divergentes = contagem.reconciliar();
+
+        assertThat(divergentes).isEqualTo(1);
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 2L));
+        assertThat(meterRegistry.get("veiculos.relatorio.divergencias").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void reconciliacaoNaoDevePerderVariacoesFeitasDuranteACarga() {
+        contagem.relatorio();
+        when(repository.relatorioPorMarca()).thenAnswer(invocation -> {
+            // escrita que chega enquanto o GROUP BY roda, depois do snapshot do banco
+            contagem.registrar("Ford", 1);
+            return List.of(new VeiculoPorMarcaResponse("Ford", 2L), new VeiculoPorMarcaResponse("Fiat", 1L));
+        });
+
+        contagem.reconciliar();
+
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 3L));
+    }
+
+    @Test
+    void escritaJaContadaNaCargaNaoDeveSerSomadaDeNovo() {
+        contagem.relatorio();
+        when(repository.relatorioPorMarca()).thenAnswer(invocation -> {
+            // o commit entrou no GROUP BY, mas a variação só é aplicada depois, durante a carga
+            contagem.registrar("Ford", 1);
+            contagem.onMessage(mensagem("outro-no|1|Fiat"), null);
+            return List.of(new VeiculoPorMarcaResponse("Ford", 3L), new VeiculoPorMarcaResponse("Fiat", 2L));
+        });
+
+        int divergentes = contagem.reconciliar();
+
+        assertThat(divergentes).isZero();
+        assertThat(contagem.relatorio()).containsExactly(
+                new VeiculoPorMarcaResponse("Fiat", 2L),
+                new VeiculoPorMarcaResponse("Ford", 3L)
+        );
+        assertThat(meterRegistry.get("veiculos.relatorio.divergencias").counter().count()).isZero();
+    }
+
+    @Test
+    void marcaAlteradaDuranteACargaDeveSerCorrigidaNaSeguinte() {
+        contagem.relatorio();
+        contagem.onMessage(mensagem("outro-no|5|Ford"), null);
+        when(repository.relatorioPorMarca()).thenAnswer(invocation -> {
+            contagem.registrar("Ford", 1);
+            return List.of(new VeiculoPorMarcaResponse("Ford", 3L), new VeiculoPorMarcaResponse("Fiat", 1L));
+        });
+        contagem.reconciliar();
+
+        when(repository.relatorioPorMarca()).thenReturn(List.of(
+                new VeiculoPorMarcaResponse("Ford", 3L), new VeiculoPorMarcaResponse("Fiat", 1L)));
+
+        assertThat(contagem.reconciliar()).isEqualTo(1);
+        assertThat(contagem.relatorio()).contains(new VeiculoPorMarcaResponse("Ford", 3L));
+    }
+
+    private static DefaultMessage mensagem(String corpo) {
+        return new DefaultMessage(
+                ContagemPorMarca.CANAL_CONTAGEM.getBytes(StandardCharsets.UTF_8),
+                corpo.getBytes(StandardCharsets.UTF_8));
+    }
+}
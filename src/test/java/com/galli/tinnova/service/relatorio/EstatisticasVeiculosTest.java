@@ -0,0 +1,78 @@
+package com.galli.tinnova.service.relatorio;
+
+import com.galli.tinnova.repository.EstatisticaPreco;
+import com.galli.tinnova.repository.VeiculoRepository;
+import com.galli.tinnova.service.relatorio.EstatisticasVeiculos.Agrupamento;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EstatisticasVeiculosTest {
+
+    private final VeiculoRepository repository = mock(VeiculoRepository.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final Cache cache = mock(Cache.class);
+
+    private final EstatisticasVeiculos estatisticas = new EstatisticasVeiculos(repository, cacheManager);
+
+    @Test
+    void deveConsultarOAgrupamentoPedido() {
+        List<EstatisticaPreco> porCor = List.of(estatistica("Preto"));
+        when(repository.estatisticasPorCor()).thenReturn(porCor);
+
+        assertThat(estatisticas.calcular(Agrupamento.COR)).isEqualTo(porCor);
+        verify(repository, never()).estatisticasPorMarca();
+        verify(repository, never()).estatisticasPorAno();
+    }
+
+    @Test
+    void invalidarDeveRemoverTodosOsAgrupamentos() {
+        when(cacheManager.getCache(EstatisticasVeiculos.CACHE)).thenReturn(cache);
+
+        estatisticas.invalidar();
+
+        verify(cache).evict("MARCA");
+        verify(cache).evict("ANO");
+        verify(cache).evict("COR");
+    }
+
+    @Test
+    void falhaDoRedisNaInvalidacaoNaoDevePropagar() {
+        when(cacheManager.getCache(EstatisticasVeiculos.CACHE)).thenReturn(cache);
+        doThrow(new RedisConnectionFailureException("fora")).when(cache).evict(any());
+
+        assertThatCode(estatisticas::invalidar).doesNotThrowAnyException();
+    }
+
+    @Test
+    void resultadoDeveSobreviverAoSerializadorDoCache() {
+        when(repository.estatisticasPorMarca()).thenReturn(List.of(estatistica("Ford")));
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+        List<EstatisticaPreco> original = estatisticas.calcular(Agrupamento.MARCA);
+        Object lido = serializer.deserialize(serializer.serialize(original));
+
+        assertThat(lido).isEqualTo(original);
+    }
+
+    @Test
+    void deveAceitarAgrupamentoSemDiferenciarMaiusculas() {
+        assertThat(Agrupamento.de("Marca")).isEqualTo(Agrupamento.MARCA);
+        assertThatThrownBy(() -> Agrupamento.de(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static EstatisticaPreco estatistica(String grupo) {
+        return new EstatisticaPreco(grupo, 2L, new BigDecimal("10.00"), new BigDecimal("20.00"), new BigDecimal("30.00"));
+    }
+}